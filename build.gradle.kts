@@ -11,6 +11,7 @@ plugins {
     alias(libs.plugins.spotless)
     alias(libs.plugins.shadow)
     alias(libs.plugins.jpackage)
+    alias(libs.plugins.jmh)
 }
 
 repositories {
@@ -76,6 +77,23 @@ tasks.withType<Test>() {
     }
 }
 
+// run: gradlew jmh
+// benchmarks are in src/jmh. Add -PjmhIncludes=<regex> to select them.
+// result will be written in build/results/jmh.
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    if (project.hasProperty("jmhIncludes")) {
+        includes.add(project.property("jmhIncludes").toString())
+    }
+    benchmarkMode.add("thrpt")
+    // reports allocation rate as well.
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+}
+
 // Coverage report
 tasks.jacocoTestReport {
     dependsOn(tasks.test) // tests are required to run before generating the report
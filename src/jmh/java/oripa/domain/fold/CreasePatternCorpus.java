@@ -0,0 +1,139 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import oripa.domain.cptool.Painter;
+import oripa.domain.creasepattern.CreasePattern;
+import oripa.domain.creasepattern.CreasePatternFactory;
+import oripa.geom.GeomUtil;
+import oripa.value.OriLine;
+
+/**
+ * Generates the crease patterns for benchmarks. A pattern is specified by a
+ * name such as "map-4", which consists of the kind and the number of
+ * divisions of the paper.
+ * <ul>
+ * <li>pleat: accordion pleats along one direction.</li>
+ * <li>map: accordion pleats folded again by the orthogonal pleats.</li>
+ * <li>miura: Miura-ori tessellation.</li>
+ * </ul>
+ * All of them are assigned and flat-foldable so that each stage of layer
+ * ordering can be measured.
+ */
+class CreasePatternCorpus {
+	static final double PAPER_SIZE = 400;
+
+	private static final double MIN = -PAPER_SIZE / 2;
+	private static final double MAX = PAPER_SIZE / 2;
+
+	/**
+	 *
+	 * @param name
+	 *            kind and division count joined by '-'.
+	 * @return generated crease pattern.
+	 */
+	static CreasePattern create(final String name) {
+		var tokens = name.split("-");
+		if (tokens.length != 2) {
+			throw new IllegalArgumentException("Unexpected pattern name: " + name);
+		}
+		var n = Integer.parseInt(tokens[1]);
+
+		var lines = switch (tokens[0]) {
+		case "pleat" -> createPleat(n);
+		case "map" -> createMap(n);
+		case "miura" -> createMiura(n);
+		default -> throw new IllegalArgumentException("Unexpected pattern name: " + name);
+		};
+
+		var creasePattern = new CreasePatternFactory().createCreasePattern(PAPER_SIZE);
+		var painter = new Painter(creasePattern, GeomUtil.pointEps());
+		painter.addLines(lines);
+
+		return creasePattern;
+	}
+
+	private static double coordinate(final int i, final int n) {
+		return MIN + PAPER_SIZE * i / n;
+	}
+
+	private static OriLine.Type alternate(final int i) {
+		return i % 2 == 0 ? OriLine.Type.MOUNTAIN : OriLine.Type.VALLEY;
+	}
+
+	private static List<OriLine> createPleat(final int n) {
+		var lines = new ArrayList<OriLine>();
+		for (int i = 1; i < n; i++) {
+			var x = coordinate(i, n);
+			lines.add(new OriLine(x, MIN, x, MAX, alternate(i)));
+		}
+		return lines;
+	}
+
+	private static List<OriLine> createMap(final int n) {
+		var lines = createPleat(n);
+
+		// the horizontal creases go through the stack of the vertical pleats.
+		// Hence their assignment flips at each vertical crease.
+		for (int j = 1; j < n; j++) {
+			var y = coordinate(j, n);
+			for (int k = 0; k < n; k++) {
+				lines.add(new OriLine(coordinate(k, n), y, coordinate(k + 1, n), y, alternate(j + k)));
+			}
+		}
+		return lines;
+	}
+
+	private static List<OriLine> createMiura(final int n) {
+		var lines = new ArrayList<OriLine>();
+		var offset = PAPER_SIZE / n / 4;
+
+		for (int j = 1; j < n; j++) {
+			// zigzag creases
+			for (int k = 0; k < n; k++) {
+				lines.add(new OriLine(
+						coordinate(k, n), zigzagY(j, k, n, offset),
+						coordinate(k + 1, n), zigzagY(j, k + 1, n, offset),
+						alternate(j)));
+			}
+		}
+		for (int k = 1; k < n; k++) {
+			// transverse creases. At each vertex, the one on the side of the
+			// acute angles is the minority.
+			var x = coordinate(k, n);
+			for (int j = 0; j < n; j++) {
+				lines.add(new OriLine(
+						x, zigzagY(j, k, n, offset),
+						x, zigzagY(j + 1, k, n, offset),
+						alternate(j + k + 1)));
+			}
+		}
+		return lines;
+	}
+
+	private static double zigzagY(final int j, final int k, final int n, final double offset) {
+		if (j == 0 || j == n) {
+			return coordinate(j, n);
+		}
+		return coordinate(j, n) + (k % 2 == 0 ? 0 : offset);
+	}
+}
@@ -0,0 +1,159 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import oripa.domain.cptool.AnalyticOverlappingLineMerger;
+import oripa.domain.cptool.CrossingLineSplitter;
+import oripa.domain.cptool.PointsMerger;
+import oripa.domain.creasepattern.CreasePattern;
+import oripa.domain.creasepattern.CreasePatternFactory;
+import oripa.domain.fold.condfac.StackConditionFactoryFacade;
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.halfedge.OrigamiModelFactory;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.subface.FacesToCreasePatternConverter;
+import oripa.domain.fold.subface.ParentFacesCollector;
+import oripa.domain.fold.subface.SplitFacesToSubFacesConverter;
+import oripa.domain.fold.subface.SubFace;
+import oripa.domain.fold.subface.SubFacesFactory;
+import oripa.geom.GeomUtil;
+
+/**
+ * Benchmarks for each stage of folding. Every stage takes the outputs of the
+ * previous stages, which are prepared once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FoldingPipelineBenchmark {
+	private static final double EPS = GeomUtil.pointEps();
+
+	/**
+	 * See {@link CreasePatternCorpus} for the names.
+	 */
+	@Param({ "pleat-16", "pleat-64", "map-4", "map-8", "miura-4", "miura-8", "miura-16" })
+	public String pattern;
+
+	private CreasePattern creasePattern;
+	private OrigamiModel origamiModel;
+	private SubFacesFactory subfacesFactory;
+	private List<SubFace> subfaces;
+	private FaceBoundingBoxIndex faceIndex;
+	private OverlapRelation initialOverlapRelation;
+	private DeterministicLayerOrderEstimator estimator;
+
+	private final LayerOrderSearchExecutor searchExecutor = new LayerOrderSearchExecutor();
+
+	@Setup(Level.Trial)
+	public void setUpTrial() {
+		creasePattern = CreasePatternCorpus.create(pattern);
+
+		origamiModel = new TestedOrigamiModelFactory().createOrigamiModels(creasePattern, EPS).get(0);
+		new SimpleFolder().simpleFoldWithoutZorder(origamiModel, EPS);
+		new FaceDisplayModifier().setCurrentPositionsToDisplayPositions(origamiModel);
+
+		var faces = origamiModel.getFaces();
+
+		subfacesFactory = new SubFacesFactory(
+				new FacesToCreasePatternConverter(
+						new CreasePatternFactory(),
+						new CrossingLineSplitter(),
+						new PointsMerger(),
+						new AnalyticOverlappingLineMerger()),
+				new OrigamiModelFactory(),
+				new SplitFacesToSubFacesConverter(),
+				new ParentFacesCollector());
+		subfaces = subfacesFactory.createSubFaces(faces, origamiModel.getPaperSize(), EPS);
+
+		faceIndex = new FaceBoundingBoxIndex(faces, EPS);
+		initialOverlapRelation = new OverlapRelationFactory()
+				.createOverlapRelationByLineType(faces, faceIndex, EPS)
+				.getOverlapRelation();
+
+		var conditionFactory = createStackConditionFactory();
+		estimator = new DeterministicLayerOrderEstimator(
+				faces, subfaces,
+				conditionFactory.getOverlappingFaceIndexIntersections(),
+				conditionFactory.getFaceIndicesOnHalfedge(),
+				conditionFactory.create4FaceCondtions());
+	}
+
+	/**
+	 * The estimation modifies the overlap relation, so a fresh copy is made
+	 * before each call. This is a separate state in order not to charge the
+	 * copy to the other stages.
+	 */
+	@State(Scope.Thread)
+	public static class EstimationState {
+		private OverlapRelation overlapRelation;
+
+		@Setup(Level.Invocation)
+		public void setUpInvocation(final FoldingPipelineBenchmark benchmark) {
+			overlapRelation = benchmark.initialOverlapRelation.clone();
+		}
+	}
+
+	private StackConditionFactoryFacade createStackConditionFactory() {
+		return new StackConditionFactoryFacade(
+				origamiModel.getFaces(), origamiModel.getEdges(), initialOverlapRelation, subfaces, faceIndex, EPS);
+	}
+
+	@Benchmark
+	public List<OrigamiModel> createOrigamiModels() {
+		return new OrigamiModelFactory().createOrigamiModels(creasePattern, EPS);
+	}
+
+	@Benchmark
+	public List<SubFace> createSubFaces() {
+		return subfacesFactory.createSubFaces(origamiModel.getFaces(), origamiModel.getPaperSize(), EPS);
+	}
+
+	@Benchmark
+	public void createStackConditions(final Blackhole blackhole) {
+		var conditionFactory = createStackConditionFactory();
+		blackhole.consume(conditionFactory.create3FaceConditions());
+		blackhole.consume(conditionFactory.create4FaceCondtions());
+	}
+
+	@Benchmark
+	public EstimationResultRules estimate(final EstimationState state) {
+		return estimator.estimate(state.overlapRelation, EPS);
+	}
+
+	@Benchmark
+	public int enumerate(final Blackhole blackhole) {
+		var enumerator = new LayerOrderEnumerator(subfacesFactory, searchExecutor, false);
+		return enumerator.enumerate(origamiModel, EPS, false, blackhole::consume).getAnswerCount();
+	}
+}
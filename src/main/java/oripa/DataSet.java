@@ -83,6 +83,10 @@ public class DataSet {
 		var oriLines = new ArrayList<OriLine>();
 
 		for (int i = 0; i < lines.length; i++) {
+			// a skipped index of the file is left null.
+			if (lines[i] == null) {
+				continue;
+			}
 			oriLines.add(lines[i].getLine());
 		}
 
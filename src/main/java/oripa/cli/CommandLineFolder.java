@@ -18,21 +18,29 @@
  */
 package oripa.cli;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import jakarta.inject.Inject;
 import oripa.application.FileAccessService;
+import oripa.domain.fold.FoldedModel;
 import oripa.domain.fold.Folder;
 import oripa.domain.fold.FolderFactory;
 import oripa.domain.fold.TestedOrigamiModelFactory;
 import oripa.domain.fold.halfedge.OrigamiModel;
 import oripa.persistence.doc.Doc;
 import oripa.persistence.entity.FoldedModelEntity;
-import oripa.persistence.entity.exporter.FoldedModelAllExporterFOLD;
 import oripa.persistence.entity.exporter.FoldedModelSingleExporterFOLD;
+import oripa.persistence.entity.exporter.FoldedModelStreamWriterArchive;
+import oripa.persistence.entity.exporter.FoldedModelStreamWriterFOLD;
 
 /**
  * @author OUCHI Koji
@@ -52,8 +60,12 @@ public class CommandLineFolder {
 	public void fold(final String inputFilePath, final boolean any, final boolean split, final String outputFilePath,
 			final double pointEps) {
 
-		if (!outputFilePath.endsWith(".fold")) {
-			throw new IllegalArgumentException("Output format is not supported. acceptable format: fold");
+		var archive = outputFilePath.endsWith(".ofa");
+		if (!outputFilePath.endsWith(".fold") && !archive) {
+			throw new IllegalArgumentException("Output format is not supported. acceptable format: fold, ofa");
+		}
+		if (split && archive) {
+			throw new IllegalArgumentException("Split output is available only for fold.");
 		}
 
 		try {
@@ -73,28 +85,88 @@ public class CommandLineFolder {
 			}
 
 			var folder = new FolderFactory().create(origamiModel.getModelType());
-			var foldedModel = any
-					? folder.fold(origamiModel, pointEps, Folder.EstimationType.FIRST_ONLY).foldedModel()
-					: folder.fold(origamiModel, pointEps, Folder.EstimationType.FULL).foldedModel();
+			var estimationType = any
+					? Folder.EstimationType.FIRST_ONLY
+					: Folder.EstimationType.FULL;
 
+			// Each folded state is written as soon as it is found
+			// so that the states don't have to be kept in memory.
 			if (split) {
-				var digitLength = Integer.toString(foldedModel.getFoldablePatternCount()).length();
-				for (int i = 0; i < foldedModel.getFoldablePatternCount(); i++) {
-					var paddedNumber = "0".repeat(digitLength - Integer.toString(i).length()) + i;
-					var outputName = outputFilePath.replaceFirst("[.]fold$", "." + paddedNumber + ".fold");
-
-					var foldedModelExporter = new FoldedModelSingleExporterFOLD();
-					foldedModelExporter.export(
-							new FoldedModelEntity(foldedModel, i), outputName, null);
-				}
+				foldIntoSingleFrameFiles(folder, origamiModel, estimationType, outputFilePath, pointEps);
+			} else if (archive) {
+				foldIntoArchive(folder, origamiModel, estimationType, outputFilePath, pointEps);
 			} else {
-				var foldedModelExporter = new FoldedModelAllExporterFOLD();
-				foldedModelExporter.export(
-						new FoldedModelEntity(foldedModel), outputFilePath, null);
+				foldIntoMultipleFrameFile(folder, origamiModel, estimationType, outputFilePath, pointEps);
 			}
 
 		} catch (Exception e) {
 			logger.error("folding error", e);
 		}
 	}
+
+	private void foldIntoSingleFrameFiles(final Folder folder, final OrigamiModel origamiModel,
+			final Folder.EstimationType estimationType, final String outputFilePath, final double pointEps)
+			throws IOException {
+		var foldedModelExporter = new FoldedModelSingleExporterFOLD();
+		var count = new AtomicInteger();
+
+		folder.fold(origamiModel, pointEps, estimationType, overlapRelation -> {
+			var index = count.getAndIncrement();
+			var foldedModel = new FoldedModel(origamiModel, List.of(overlapRelation), List.of());
+			try {
+				foldedModelExporter.export(
+						new FoldedModelEntity(foldedModel, 0),
+						createSingleFrameFilePath(outputFilePath, Integer.toString(index)), null);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		// the number of digits is known after folding.
+		var digitLength = Integer.toString(count.get()).length();
+		for (int i = 0; i < count.get(); i++) {
+			var number = Integer.toString(i);
+			var paddedNumber = "0".repeat(digitLength - number.length()) + number;
+			if (number.equals(paddedNumber)) {
+				continue;
+			}
+			Files.move(
+					Path.of(createSingleFrameFilePath(outputFilePath, number)),
+					Path.of(createSingleFrameFilePath(outputFilePath, paddedNumber)),
+					StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private String createSingleFrameFilePath(final String outputFilePath, final String number) {
+		return outputFilePath.replaceFirst("[.]fold$", "." + number + ".fold");
+	}
+
+	private void foldIntoMultipleFrameFile(final Folder folder, final OrigamiModel origamiModel,
+			final Folder.EstimationType estimationType, final String outputFilePath, final double pointEps)
+			throws IOException {
+		try (var writer = new FoldedModelStreamWriterFOLD(origamiModel,
+				Files.newBufferedWriter(Path.of(outputFilePath)))) {
+			folder.fold(origamiModel, pointEps, estimationType, overlapRelation -> {
+				try {
+					writer.write(overlapRelation);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+	}
+
+	private void foldIntoArchive(final Folder folder, final OrigamiModel origamiModel,
+			final Folder.EstimationType estimationType, final String outputFilePath, final double pointEps)
+			throws IOException {
+		try (var writer = new FoldedModelStreamWriterArchive(origamiModel, Path.of(outputFilePath))) {
+			folder.fold(origamiModel, pointEps, estimationType, overlapRelation -> {
+				try {
+					writer.write(overlapRelation);
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+		}
+	}
 }
@@ -65,7 +65,7 @@ public class CommandLineInterfaceMain {
 				.longOpt(IMAGE)
 				.hasArg()
 				.argName(IMAGE_FILE)
-				.desc("Output image file (svg, jpg, png) of folded forms in multiple frame FOLD format. "
+				.desc("Output image file (svg, jpg, png) of folded forms in multiple frame FOLD format or .ofa archive. "
 						+ "The argument is output file path."
 						+ "This option requires --" + INDEX + " option.")
 				.build();
@@ -75,7 +75,10 @@ public class CommandLineInterfaceMain {
 				.longOpt(INDEX)
 				.hasArg()
 				.argName(FRAME_INDEX)
-				.desc("0-start Index of face order matrices. This option is to be used with --" + IMAGE + " option.")
+				.desc("0-start Index of face order matrices. This option is to be used with --" + IMAGE + " option. "
+						+ "A range \"from-to\" (inclusive) or \"all\" is also acceptable; "
+						+ "then the index will be inserted into output file name as \"givenName.0123.png\", "
+						+ "padded with zeros to the digit count of the last index of all states.")
 				.build();
 		options.addOption(indexOption);
 
@@ -97,7 +100,8 @@ public class CommandLineInterfaceMain {
 				.argName(FOLD_FILE)
 				.desc("Fold crease pattern file (opx, fold, cp) and save as a multipule frame FOLD format. "
 						+ "The argument is output file path. If you specify --" + SPLIT + " option, "
-						+ "the output will be single frame FOLD files and index will be inserted into file name as \"givenName.123.fold\".")
+						+ "the output will be single frame FOLD files and index will be inserted into file name as \"givenName.123.fold\". "
+						+ "If the output file path ends with .ofa, the output will be a compact binary archive of the folded states.")
 				.build();
 		options.addOption(foldOption);
 
@@ -110,7 +114,7 @@ public class CommandLineInterfaceMain {
 
 		var countOption = Option.builder("C")
 				.longOpt(COUNT)
-				.desc("Count the folded models in the given FOLD format file and print it. -1 if something is wrong.")
+				.desc("Count the folded models in the given FOLD format file or .ofa archive and print it. -1 if something is wrong.")
 				.build();
 		options.addOption(countOption);
 
@@ -157,10 +161,24 @@ public class CommandLineInterfaceMain {
 					throw new IllegalArgumentException("Need --" + indexOption.getLongOpt() + " option.");
 				}
 				var outputFilePath = line.getOptionValue(imageOption);
-				var index = Integer.parseInt(line.getOptionValue(indexOption));
+				var indexValue = line.getOptionValue(indexOption);
 				var reverse = line.hasOption(reverseOption);
-				var converter = new FoldedModelImageExporter();
-				converter.export(inputFilePath, index, reverse, outputFilePath, pointEps);
+				if (indexValue.equals("all")) {
+					var exporter = new FoldedModelBatchImageExporter();
+					exporter.export(inputFilePath, 0, -1, reverse, outputFilePath, pointEps);
+				} else if (indexValue.contains("-")) {
+					var range = indexValue.split("-");
+					if (range.length != 2) {
+						throw new IllegalArgumentException("Wrong index range: " + indexValue);
+					}
+					var exporter = new FoldedModelBatchImageExporter();
+					exporter.export(inputFilePath, Integer.parseInt(range[0]), Integer.parseInt(range[1]) + 1,
+							reverse, outputFilePath, pointEps);
+				} else {
+					var index = Integer.parseInt(indexValue);
+					var converter = new FoldedModelImageExporter();
+					converter.export(inputFilePath, index, reverse, outputFilePath, pointEps);
+				}
 
 			} else if (line.hasOption(foldOption)) {
 				var outputFilePath = line.getOptionValue(foldOption);
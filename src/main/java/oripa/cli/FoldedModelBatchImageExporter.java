@@ -0,0 +1,200 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.cli;
+
+import java.awt.Color;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+import javax.imageio.ImageIO;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import oripa.domain.fold.FoldedModel;
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.entity.FoldedModelEntity;
+import oripa.persistence.entity.exporter.FoldedModelExporterSVG;
+import oripa.persistence.entity.exporter.FoldedModelPictureConfig;
+import oripa.persistence.entity.exporter.FoldedModelPictureRenderer;
+import oripa.persistence.entity.loader.FoldedModelFrameReaderFactory;
+
+/**
+ * Exports the images of the folded states in the given range. The states are
+ * read in one pass and rendered on a worker pool. The model is prepared only
+ * once for all states. The number of states waiting for rendering is bounded
+ * so that the memory usage doesn't depend on the size of the range.
+ *
+ * The index of each state is inserted into the output file name as
+ * "givenName.0123.png". The index is padded with zeros to the digit count of
+ * the last index of all states, so that the names don't depend on the range
+ * and the files of different ranges are sorted together.
+ */
+public class FoldedModelBatchImageExporter {
+	private static final Logger logger = LoggerFactory.getLogger(FoldedModelBatchImageExporter.class);
+
+	/**
+	 *
+	 * @param fromIndex
+	 *            the first index of the states, inclusive.
+	 * @param toIndex
+	 *            the last index of the states, exclusive. Negative value
+	 *            means the number of states.
+	 */
+	public void export(final String inputFilePath, final int fromIndex, final int toIndex, final boolean reverse,
+			final String outputFilePath, final double eps) {
+
+		final var lowerInputFilePath = inputFilePath.toLowerCase();
+		final var lowerOutputFilePath = outputFilePath.toLowerCase();
+
+		if (!lowerInputFilePath.endsWith(".fold") && !lowerInputFilePath.endsWith(".ofa")) {
+			throw new IllegalArgumentException("Input format is not supported. acceptable format: .fold,.ofa");
+		}
+
+		if (FoldedModelImageExporter.AVAILABLE_EXTENSIONS.stream().noneMatch(lowerOutputFilePath::endsWith)) {
+			throw new IllegalArgumentException("Output format is not supported. acceptable format: "
+					+ String.join(",", FoldedModelImageExporter.AVAILABLE_EXTENSIONS));
+		}
+
+		var threadCount = Runtime.getRuntime().availableProcessors();
+		var executor = Executors.newFixedThreadPool(threadCount);
+
+		try (var reader = new FoldedModelFrameReaderFactory().create(inputFilePath)) {
+			var origamiModel = reader.getOrigamiModel();
+			var count = reader.getOverlapRelationCount();
+			var to = toIndex < 0 ? count : toIndex;
+
+			var writer = createStateWriter(origamiModel, reverse, outputFilePath, eps);
+			var digitLength = Integer.toString(Math.max(count - 1, 0)).length();
+
+			// bounds the states read but not written yet.
+			var permits = new Semaphore(threadCount * 2);
+			var futures = new ArrayList<Future<?>>();
+
+			// each task records its result since the finished futures are
+			// dropped on the way.
+			var exportedCount = new AtomicInteger();
+			var failedIndices = new ConcurrentSkipListSet<Integer>();
+
+			reader.readOverlapRelations(fromIndex, to, (index, overlapRelation) -> {
+				try {
+					permits.acquire();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					throw new InterruptedIOException("interrupted at state " + index);
+				}
+				var path = createFilePath(outputFilePath, index, digitLength);
+				futures.add(executor.submit(() -> {
+					try {
+						writer.write(overlapRelation, path);
+						exportedCount.incrementAndGet();
+					} catch (IOException | RuntimeException e) {
+						logger.error("failed to write {}", path, e);
+						failedIndices.add(index);
+					} finally {
+						permits.release();
+					}
+				}));
+				futures.removeIf(Future::isDone);
+			});
+
+			for (var future : futures) {
+				future.get();
+			}
+			logger.info("{} images are exported.", exportedCount.get());
+			if (!failedIndices.isEmpty()) {
+				logger.error("{} images are not exported. failed indices: {}", failedIndices.size(), failedIndices);
+			}
+
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			logger.error("image error", e);
+		} catch (ExecutionException e) {
+			logger.error("image error", e.getCause());
+		} catch (Exception e) {
+			logger.error("image error", e);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@FunctionalInterface
+	private interface StateWriter {
+		void write(OverlapRelation overlapRelation, String filePath) throws IOException;
+	}
+
+	private StateWriter createStateWriter(final OrigamiModel origamiModel, final boolean reverse,
+			final String outputFilePath, final double eps) {
+		var outputExtension = findExtension(outputFilePath);
+
+		if (outputExtension.equals(FoldedModelImageExporter.SVG_EXTENSION)) {
+			// the exporter holds the style of the current output.
+			var exporters = ThreadLocal.withInitial(() -> new FoldedModelExporterSVG(reverse));
+			return (overlapRelation, filePath) -> {
+				var foldedModel = new FoldedModel(origamiModel, List.of(overlapRelation), List.of());
+				exporters.get().export(new FoldedModelEntity(foldedModel, 0), filePath, null);
+			};
+		}
+
+		var config = new FoldedModelPictureConfig()
+				.setAmbientOcclusion(false)
+				.setColors(Color.GRAY.brighter(), Color.WHITE)
+				.setDrawEdges(true)
+				.setFaceOrderFlipped(reverse)
+				.setFillFaces(true)
+				.setEps(eps);
+		var renderer = new FoldedModelPictureRenderer(origamiModel, config);
+		var formatName = outputExtension.substring(1);
+
+		return (overlapRelation, filePath) -> {
+			var image = renderer.render(overlapRelation);
+			var file = new File(filePath);
+			if (!ImageIO.write(image, formatName, file)) {
+				throw new IOException("no writer for " + formatName);
+			}
+		};
+	}
+
+	private String createFilePath(final String outputFilePath, final int index, final int digitLength) {
+		var number = Integer.toString(index);
+		var paddedNumber = "0".repeat(Math.max(digitLength - number.length(), 0)) + number;
+		return outputFilePath.replaceFirst("([.][\\w]+)$", "." + paddedNumber + "$1");
+	}
+
+	private String findExtension(final String filePath) {
+		var regex = Pattern.compile("[.][\\w]+$");
+		var matcher = regex.matcher(filePath);
+		if (!matcher.find()) {
+			throw new RuntimeException("Wrong implementation.");
+		}
+
+		return matcher.toMatchResult().group().toLowerCase();
+	}
+}
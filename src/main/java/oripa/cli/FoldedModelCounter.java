@@ -21,7 +21,7 @@ package oripa.cli;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import oripa.persistence.entity.loader.FoldedModelLoaderFOLD;
+import oripa.persistence.entity.loader.FoldedModelFrameReaderFactory;
 
 /**
  * @author OUCHI Koji
@@ -31,11 +31,8 @@ public class FoldedModelCounter {
 	private static final Logger logger = LoggerFactory.getLogger(FoldedModelCounter.class);
 
 	public int count(final String inputFilePath) {
-		var inputFileLoader = new FoldedModelLoaderFOLD();
-		try {
-			var inputModelEntityOpt = inputFileLoader.load(inputFilePath);
-
-			return inputModelEntityOpt.orElseThrow().getOverlapRelations().size();
+		try (var reader = new FoldedModelFrameReaderFactory().create(inputFilePath)) {
+			return reader.getOverlapRelationCount();
 		} catch (Exception e) {
 			logger.error("count error.", e);
 		}
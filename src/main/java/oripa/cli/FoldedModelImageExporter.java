@@ -25,11 +25,12 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import oripa.domain.fold.FoldedModel;
 import oripa.persistence.entity.FoldedModelEntity;
 import oripa.persistence.entity.exporter.FoldedModelExporterSVG;
 import oripa.persistence.entity.exporter.FoldedModelPictureConfig;
 import oripa.persistence.entity.exporter.FoldedModelPictureExporter;
-import oripa.persistence.entity.loader.FoldedModelLoaderFOLD;
+import oripa.persistence.entity.loader.FoldedModelFrameReaderFactory;
 
 /**
  * @author OUCHI Koji
@@ -50,8 +51,8 @@ public class FoldedModelImageExporter {
 		final var lowerInputFilePath = inputFilePath.toLowerCase();
 		final var lowerOutputFilePath = outputFilePath.toLowerCase();
 
-		if (!lowerInputFilePath.endsWith(".fold")) {
-			throw new IllegalArgumentException("Input format is not supported. acceptable format: .fold");
+		if (!lowerInputFilePath.endsWith(".fold") && !lowerInputFilePath.endsWith(".ofa")) {
+			throw new IllegalArgumentException("Input format is not supported. acceptable format: .fold,.ofa");
 		}
 
 		if (AVAILABLE_EXTENSIONS.stream().noneMatch(lowerOutputFilePath::endsWith)) {
@@ -59,8 +60,6 @@ public class FoldedModelImageExporter {
 					+ String.join(",", AVAILABLE_EXTENSIONS));
 		}
 
-		var inputFileLoader = new FoldedModelLoaderFOLD();
-
 		var outputExtension = findExtension(outputFilePath);
 
 		var outputFileExporter = switch (outputExtension) {
@@ -69,9 +68,13 @@ public class FoldedModelImageExporter {
 		};
 
 		try {
-			var inputModelEntityOpt = inputFileLoader.load(inputFilePath);
-
-			var entity = new FoldedModelEntity(inputModelEntityOpt.orElseThrow().toFoldedModel(), index);
+			FoldedModelEntity entity;
+			try (var reader = new FoldedModelFrameReaderFactory().create(inputFilePath)) {
+				// reads only the requested state.
+				var foldedModel = new FoldedModel(reader.getOrigamiModel(),
+						List.of(reader.readOverlapRelation(index)), List.of());
+				entity = new FoldedModelEntity(foldedModel, 0);
+			}
 
 			Object config = switch (outputExtension) {
 			case (SVG_EXTENSION) -> null;
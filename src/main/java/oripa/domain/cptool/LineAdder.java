@@ -3,10 +3,12 @@ package oripa.domain.cptool;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.function.Consumer;
@@ -16,9 +18,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import oripa.domain.creasepattern.CreasePattern;
+import oripa.domain.creasepattern.OriLineClip;
 import oripa.geom.GeomUtil;
 import oripa.geom.RectangleDomain;
+import oripa.geom.Segment;
 import oripa.util.StopWatch;
+import oripa.util.collection.CollectionUtil;
 import oripa.value.OriLine;
 import oripa.value.OriPoint;
 import oripa.vecmath.Vector2d;
@@ -299,6 +304,153 @@ public class LineAdder {
 		inputLines.forEach(line -> addLine(line, currentLines, pointEps));
 	}
 
+	/**
+	 * Adds all of {@code inputLines} to {@code currentLines} at once. Unlike
+	 * {@link #addAll(Collection, Collection, double)}, which divides the lines
+	 * for each input line, this method collects the cross points of the input
+	 * lines and the current lines in the area of the input lines in one pass
+	 * and then splits each line only once. The current lines are divided only
+	 * by the input lines as {@link #addLine(OriLine, Collection, double)}
+	 * does. The overlaps are resolved as {@link LineTypeOverwriter} does: a
+	 * part covered by input lines takes the type of the last such input line,
+	 * and other parts keep the type of current line.
+	 *
+	 * @param inputLines
+	 *            lines to be added
+	 * @param currentLines
+	 *            collection as a destination.
+	 */
+	public void addAllAtOnce(final Collection<OriLine> inputLines,
+			final Collection<OriLine> currentLines, final double pointEps) {
+		if (inputLines.isEmpty()) {
+			return;
+		}
+		StopWatch watch = new StopWatch(true);
+
+		var inputLineList = List.copyOf(inputLines);
+		var inputDomain = RectangleDomain.createFromSegments(inputLineList);
+
+		// input domain can limit the current lines to be divided.
+		RectangleClipper inputDomainClipper = new RectangleClipper(
+				inputDomain,
+				pointEps);
+
+		HashSet<OriLine> crossingCurrentLines;
+		if (currentLines instanceof CreasePattern cp) {
+			crossingCurrentLines = new HashSet<>(inputDomainClipper.selectByArea(cp.clip(inputDomain, pointEps)));
+		} else {
+			crossingCurrentLines = new HashSet<>(inputDomainClipper.selectByArea(currentLines));
+		}
+		currentLines.removeAll(crossingCurrentLines);
+
+		// the index in this list is the priority on overlap.
+		var allLines = new ArrayList<OriLine>(crossingCurrentLines);
+		var currentLineCount = allLines.size();
+		allLines.addAll(inputLineList);
+
+		var inputClip = OriLineClip.create(inputLineList);
+		var allClip = OriLineClip.create(allLines);
+
+		var rawPointLists = IntStream.range(0, allLines.size()).parallel()
+				.mapToObj(i -> collectSplitPoints(allLines.get(i),
+						i < currentLineCount ? inputClip : allClip, pointEps))
+				.toList();
+		logger.trace("addAllAtOnce() cross points: {}[ms]", watch.getMilliSec());
+
+		// share the points among lines so that the split lines on an overlap
+		// have exactly the same end points. end points come first not to move
+		// them.
+		var foundPoints = new TreeSet<OriPoint>();
+		allLines.forEach(line -> line.pointStream().forEach(p -> getAndAdd(p, foundPoints, pointEps)));
+		var pointLists = rawPointLists.stream()
+				.map(points -> points.stream()
+						.<Vector2d>map(p -> getAndAdd(p, foundPoints, pointEps))
+						.toList())
+				.toList();
+
+		// from a split line to the index of the line it comes from.
+		var sources = new HashMap<SplitLineKey, Integer>();
+		for (int i = 0; i < allLines.size(); i++) {
+			var points = pointSorter.sortPointsOnLine(pointLists.get(i), allLines.get(i));
+			for (int j = 1; j < points.size(); j++) {
+				var p0 = (OriPoint) points.get(j - 1);
+				var p1 = (OriPoint) points.get(j);
+				if (p0.equals(p1)) {
+					continue;
+				}
+				sources.merge(SplitLineKey.create(p0, p1), i, Math::max);
+			}
+		}
+
+		var splitLines = sources.entrySet().stream()
+				.map(entry -> {
+					var source = allLines.get(entry.getValue());
+					var key = entry.getKey();
+					var line = new OriLine(key.p0(), key.p1(), source.getType());
+
+					if (entry.getValue() >= currentLineCount) {
+						return line;
+					}
+					if (line.equals((Segment) source, pointEps)) {
+						return source;
+					}
+					// keep selection not to change the target of copy.
+					line.setSelected(source.isSelected());
+					return line;
+				})
+				.toList();
+
+		currentLines.addAll(splitLines);
+
+		logger.debug("addAllAtOnce() {} lines: {}[ms]", inputLineList.size(), watch.getMilliSec());
+	}
+
+	private record SplitLineKey(OriPoint p0, OriPoint p1) {
+		static SplitLineKey create(final OriPoint p0, final OriPoint p1) {
+			return p0.compareTo(p1) <= 0 ? new SplitLineKey(p0, p1) : new SplitLineKey(p1, p0);
+		}
+	}
+
+	/**
+	 * @return end points of {@code line} and the points where the lines in
+	 *         {@code clip} cross or touch {@code line}.
+	 */
+	private List<Vector2d> collectSplitPoints(final OriLine line, final OriLineClip clip,
+			final double pointEps) {
+		var points = new ArrayList<Vector2d>(List.of(line.getP0(), line.getP1()));
+
+		var lineDomain = RectangleDomain.createFromSegments(List.of(line));
+
+		for (var other : clip.clip(lineDomain, pointEps)) {
+			if (other == line) {
+				continue;
+			}
+			GeomUtil.getCrossPoint(line, other).ifPresent(points::add);
+
+			// overlap or touch
+			other.pointStream()
+					.filter(p -> GeomUtil.distancePointToSegment(p, line) < pointEps)
+					.forEach(points::add);
+		}
+
+		return points;
+	}
+
+	private OriPoint getAndAdd(final Vector2d point, final TreeSet<OriPoint> foundPoints, final double pointEps) {
+		var range = CollectionUtil.rangeSetInclusive(foundPoints,
+				new OriPoint(point.getX() - pointEps, point.getY() - pointEps),
+				new OriPoint(point.getX() + pointEps, point.getY() + pointEps));
+
+		return range.stream()
+				.filter(p -> p.equals(point, pointEps))
+				.findFirst()
+				.orElseGet(() -> {
+					var p = new OriPoint(point);
+					foundPoints.add(p);
+					return p;
+				});
+	}
+
 	/**
 	 * Splitting the {@code nonExistingNewLines} on all the points in
 	 * {@code pointLists}
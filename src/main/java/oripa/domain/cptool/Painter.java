@@ -96,15 +96,14 @@ public class Painter {
 	}
 
 	/**
-	 * Add all given lines to crease pattern. Each line in {@code lines} and
-	 * crease pattern is divided at the cross points. However, if the crossing
-	 * lines are both in the same {@code lines} or crease pattern, such a
-	 * division won't be done.
+	 * Add all given lines to crease pattern. The given lines and the lines of
+	 * crease pattern around them are divided at the cross points at once.
+	 * Where lines overlap, the given lines overwrite the types.
 	 *
 	 * @param lines
 	 */
 	public void addLines(final Collection<OriLine> lines) {
-		lineAdder.addAll(lines, creasePattern, getPointEps());
+		lineAdder.addAllAtOnce(lines, creasePattern, getPointEps());
 		elementRemover.removeMeaninglessVertices(creasePattern, getPointEps());
 	}
 
@@ -3,6 +3,7 @@ package oripa.domain.cptool;
 import java.util.Collection;
 import java.util.LinkedList;
 
+import oripa.domain.creasepattern.CreasePattern;
 import oripa.geom.GeomUtil;
 import oripa.geom.Ray;
 import oripa.geom.Segment;
@@ -91,6 +92,14 @@ public class SymmetricLineFactory {
 		Vector2d v3 = GeomUtil.getSymmetricPoint(v0, v1, v2);
 		Ray ray = new Ray(v1, v3.subtract(v1));
 
+		if (creasePattern instanceof CreasePattern cp) {
+			cp.findFirstHit(ray, pointEps).ifPresent(line -> {
+				bestPair.setBestLine(line);
+				GeomUtil.getCrossPoint(ray, line).ifPresent(bestPair::setBestPoint);
+			});
+			return bestPair;
+		}
+
 		double minDist = Double.MAX_VALUE;
 		for (var l : creasePattern) {
 			var crossPointOpt = GeomUtil.getCrossPoint(ray, l);
@@ -19,9 +19,12 @@
 package oripa.domain.creasepattern;
 
 import java.util.Collection;
+import java.util.Optional;
 
+import oripa.geom.Ray;
 import oripa.geom.RectangleDomain;
 import oripa.value.OriLine;
+import oripa.vecmath.Vector2d;
 
 /**
  * @author OUCHI Koji
@@ -33,4 +36,34 @@ public interface Clippable<T> {
 
 	Collection<OriLine> clipAlong(final OriLine line, final double eps);
 
+	/**
+	 * Finds the line nearest to the given point within the given distance.
+	 *
+	 * @param point
+	 *            the point to measure the distance from.
+	 * @param maxDistance
+	 *            lines farther than or as far as this value are ignored.
+	 * @return the nearest line, or empty if no line is close enough.
+	 */
+	Optional<OriLine> findNearest(Vector2d point, double maxDistance);
+
+	/**
+	 * Finds the line which the given ray hits first.
+	 *
+	 * @param ray
+	 *            the ray to be cast.
+	 * @param pointEps
+	 *            hits closer to the end point of the ray than this value are
+	 *            ignored.
+	 * @return the line crossing the ray at the nearest point, or empty if the
+	 *         ray hits nothing.
+	 */
+	Optional<OriLine> findFirstHit(Ray ray, double pointEps);
+
+	/**
+	 * Returns the lines which may cross or overlap the given ray. The result
+	 * can contain lines which don't.
+	 */
+	Collection<OriLine> clipAlong(Ray ray, double eps);
+
 }
@@ -52,4 +52,13 @@ public interface CreasePattern
 	void refresh(double pointEps);
 
 	boolean cleanDuplicatedLines(final double pointEps);
+
+	/**
+	 * Returns a value which changes whenever a line is added or removed.
+	 * Different instances never share the same value, so the stamp alone
+	 * tells whether the content seen before is still the same.
+	 *
+	 * @return modification stamp.
+	 */
+	long getModificationStamp();
 }
\ No newline at end of file
@@ -4,10 +4,13 @@ import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import oripa.geom.Ray;
 import oripa.geom.RectangleDomain;
 import oripa.value.OriLine;
 import oripa.vecmath.Vector2d;
@@ -56,6 +59,7 @@ class CreasePatternImpl implements CreasePattern {
 		@Override
 		public void remove() {
 			lineIter.remove();
+			updateModificationStamp();
 			vertices.remove(current.getP0());
 			vertices.remove(current.getP1());
 			clip.remove(current);
@@ -69,10 +73,17 @@ class CreasePatternImpl implements CreasePattern {
 	@SuppressWarnings("unused")
 	private static final long serialVersionUID = -6919017534440930379L;
 
+	/**
+	 * Source of modification stamps shared by all instances.
+	 */
+	private static final AtomicLong STAMPS = new AtomicLong();
+
 	private final LineManager lines;
 	private VerticesManager vertices;
 	private OriLineClip clip;
 
+	private volatile long modificationStamp = STAMPS.incrementAndGet();
+
 	/**
 	 * @param paperDomain
 	 *            rectangle domain of paper.
@@ -106,12 +117,16 @@ class CreasePatternImpl implements CreasePattern {
 	@Override
 	public boolean add(final OriLine e) {
 		if (lines.add(e)) {
+			updateModificationStamp();
 			vertices.add(e.getP0());
 			vertices.add(e.getP1());
 
 			if (!getPaperDomain().contains(e)) {
 				clip = OriLineClip.createWithMargin(this);
 				logger.info("recreate clip");
+			} else if (clip.isTooCoarseFor(size())) {
+				clip = clip.createFiner(this);
+				logger.debug("make clip finer for {} lines", size());
 			}
 
 			clip.add(e);
@@ -125,6 +140,7 @@ class CreasePatternImpl implements CreasePattern {
 		OriLine l = (OriLine) o;
 
 		if (lines.remove(o)) {
+			updateModificationStamp();
 			vertices.remove(l.getP0());
 			vertices.remove(l.getP1());
 			clip.remove(l);
@@ -136,6 +152,7 @@ class CreasePatternImpl implements CreasePattern {
 
 	@Override
 	public void clear() {
+		updateModificationStamp();
 		lines.clear();
 		vertices.clear();
 		clip.clear();
@@ -215,6 +232,7 @@ class CreasePatternImpl implements CreasePattern {
 			}
 		}
 
+		updateModificationStamp();
 		return lines.retainAll(c);
 	}
 
@@ -240,6 +258,21 @@ class CreasePatternImpl implements CreasePattern {
 		return clip.clipAlong(line, eps);
 	}
 
+	@Override
+	public Optional<OriLine> findNearest(final Vector2d point, final double maxDistance) {
+		return clip.findNearest(point, maxDistance);
+	}
+
+	@Override
+	public Optional<OriLine> findFirstHit(final Ray ray, final double pointEps) {
+		return clip.findFirstHit(ray, pointEps);
+	}
+
+	@Override
+	public Collection<OriLine> clipAlong(final Ray ray, final double eps) {
+		return clip.clipAlong(ray, eps);
+	}
+
 	@Deprecated
 	public NearVerticesGettable getVerticesManager() {
 		return vertices;
@@ -286,6 +319,15 @@ class CreasePatternImpl implements CreasePattern {
 		return true;
 	}
 
+	@Override
+	public long getModificationStamp() {
+		return modificationStamp;
+	}
+
+	private void updateModificationStamp() {
+		modificationStamp = STAMPS.incrementAndGet();
+	}
+
 	@Override
 	public String toString() {
 		return lines.toString();
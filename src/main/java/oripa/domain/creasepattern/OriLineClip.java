@@ -21,15 +21,20 @@ package oripa.domain.creasepattern;
 import java.lang.invoke.MethodHandles;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.BiPredicate;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import oripa.geom.GeomUtil;
+import oripa.geom.Ray;
 import oripa.geom.RectangleDomain;
 import oripa.util.collection.CollectionUtil;
 import oripa.value.OriLine;
+import oripa.vecmath.Vector2d;
 
 /**
  * @author OUCHI Koji
@@ -38,10 +43,21 @@ import oripa.value.OriLine;
 public class OriLineClip implements Clippable<OriLine> {
 	private static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-	private static final int divNum = 16;
+	private static final int DEFAULT_DIV_NUM = 16;
+	private static final int MAX_DIV_NUM = 128;
+
+	/**
+	 * The grid becomes finer if an area holds more lines than this on
+	 * average.
+	 */
+	private static final int LINES_PER_AREA = 4;
+
+	private final int divNum;
 	private final double interval;
 	private final double domainSize;
 
+	private final RectangleDomain domain;
+
 	private final double minX, minY;
 
 	private final Set<OriLine>[][] areas;
@@ -99,9 +115,10 @@ public class OriLineClip implements Clippable<OriLine> {
 	}
 
 	public static OriLineClip createWithMargin(final Collection<OriLine> lines) {
+		var divNum = computeDivNum(lines.size());
 		var domain = RectangleDomain.createFromSegments(lines);
 		domain.enlarge(0.1 * domain.maxWidthHeight() / divNum);
-		var clip = new OriLineClip(domain);
+		var clip = new OriLineClip(domain, divNum);
 
 		lines.forEach(line -> clip.add(line));
 
@@ -109,8 +126,33 @@ public class OriLineClip implements Clippable<OriLine> {
 
 	}
 
-	@SuppressWarnings("unchecked")
+	/**
+	 * Returns the number of division on one axis which is enough for the
+	 * given number of lines.
+	 */
+	private static int computeDivNum(final int lineCount) {
+		var divNum = DEFAULT_DIV_NUM;
+		while (divNum < MAX_DIV_NUM && lineCount > divNum * divNum * LINES_PER_AREA) {
+			divNum *= 2;
+		}
+		return divNum;
+	}
+
 	public OriLineClip(final RectangleDomain domain) {
+		this(domain, DEFAULT_DIV_NUM);
+	}
+
+	/**
+	 *
+	 * @param domain
+	 *            area to be divided.
+	 * @param divNum
+	 *            the number of division on one axis.
+	 */
+	@SuppressWarnings("unchecked")
+	public OriLineClip(final RectangleDomain domain, final int divNum) {
+		this.domain = new RectangleDomain(domain);
+		this.divNum = divNum;
 		this.domainSize = domain.maxWidthHeight();
 		this.minX = domain.getLeft();
 		this.minY = domain.getTop();
@@ -130,6 +172,34 @@ public class OriLineClip implements Clippable<OriLine> {
 
 	}
 
+	/**
+	 * Whether the areas hold too many lines to search quickly. The grid
+	 * doesn't become finer by itself; use {@link #createFiner(Collection)}.
+	 *
+	 * @param lineCount
+	 *            the number of lines in this clip.
+	 * @return true if a finer grid is available for the lines.
+	 */
+	public boolean isTooCoarseFor(final int lineCount) {
+		return computeDivNum(lineCount) > divNum;
+	}
+
+	/**
+	 * Creates a clip with the same domain and a grid fitting to the number of
+	 * given lines.
+	 *
+	 * @param lines
+	 *            all lines to be held.
+	 * @return new clip holding the lines.
+	 */
+	public OriLineClip createFiner(final Collection<OriLine> lines) {
+		var clip = new OriLineClip(domain, computeDivNum(lines.size()));
+
+		lines.forEach(line -> clip.add(line));
+
+		return clip;
+	}
+
 	public void add(final OriLine line) {
 		apply(line, (position, line_) -> areas[position.x][position.y].add(line));
 	}
@@ -210,6 +280,35 @@ public class OriLineClip implements Clippable<OriLine> {
 		return lines;
 	}
 
+	/**
+	 * Looks into only the areas around the given point, so the cost doesn't
+	 * depend on the number of lines far from the point.
+	 */
+	@Override
+	public Optional<OriLine> findNearest(final Vector2d point, final double maxDistance) {
+		var p0Div = new AreaPosition(point.getX() - maxDistance, point.getY() - maxDistance);
+		var p1Div = new AreaPosition(point.getX() + maxDistance, point.getY() + maxDistance);
+
+		double minDistance = maxDistance;
+		OriLine nearest = null;
+
+		// a line crossing some areas is tested for each area, which is cheaper
+		// than collecting the lines into a set.
+		for (var xDiv = p0Div.x; xDiv <= p1Div.x; xDiv++) {
+			for (var yDiv = p0Div.y; yDiv <= p1Div.y; yDiv++) {
+				for (var line : areas[xDiv][yDiv]) {
+					var distance = GeomUtil.distancePointToSegment(point, line);
+					if (distance < minDistance) {
+						minDistance = distance;
+						nearest = line;
+					}
+				}
+			}
+		}
+
+		return Optional.ofNullable(nearest);
+	}
+
 	@Override
 	public Collection<OriLine> clipAlong(final OriLine line, final double eps) {
 
@@ -240,6 +339,176 @@ public class OriLineClip implements Clippable<OriLine> {
 		return lines;
 	}
 
+	/**
+	 * Walks the areas along the ray and stops at the area where the nearest
+	 * hit is found. The cost depends on the number of areas on the way, not on
+	 * the number of all lines.
+	 */
+	@Override
+	public Optional<OriLine> findFirstHit(final Ray ray, final double pointEps) {
+		var hit = new RayHit();
+
+		walkAlong(ray, pointEps, (lines, exitParameter) -> {
+			for (var line : lines) {
+				var crossPointOpt = GeomUtil.getCrossPoint(ray, line);
+				if (crossPointOpt.isEmpty()) {
+					continue;
+				}
+				// the direction of ray is a unit vector.
+				var distance = crossPointOpt.get().distance(ray.getEndPoint());
+				if (distance >= pointEps && distance < hit.distance) {
+					hit.distance = distance;
+					hit.line = line;
+				}
+			}
+			// a hit in the following areas is farther than the one found.
+			return hit.distance > exitParameter;
+		});
+
+		return Optional.ofNullable(hit.line);
+	}
+
+	private static class RayHit {
+		private OriLine line = null;
+		private double distance = Double.MAX_VALUE;
+	}
+
+	@Override
+	public Collection<OriLine> clipAlong(final Ray ray, final double eps) {
+		var lines = new HashSet<OriLine>();
+
+		walkAlong(ray, eps, (areaLines, exitParameter) -> {
+			lines.addAll(areaLines);
+			return true;
+		});
+
+		return lines;
+	}
+
+	/**
+	 * Range of the parameter t of ray p + t * d.
+	 */
+	private record ParameterRange(double min, double max) {
+		private static final ParameterRange EMPTY = new ParameterRange(1, 0);
+
+		boolean isEmpty() {
+			return min > max;
+		}
+
+		/**
+		 * Narrows this range to where p + t * d is in [low, high] on one axis.
+		 */
+		ParameterRange clip(final double p, final double d, final double low, final double high) {
+			if (d == 0) {
+				return p < low || p > high ? EMPTY : this;
+			}
+			var t0 = (low - p) / d;
+			var t1 = (high - p) / d;
+			return new ParameterRange(Math.max(min, Math.min(t0, t1)), Math.min(max, Math.max(t0, t1)));
+		}
+	}
+
+	private ParameterRange clipRay(final Ray ray, final double left, final double top,
+			final double right, final double bottom) {
+		var p = ray.getEndPoint();
+		var d = ray.getDirection();
+
+		return new ParameterRange(0, Double.POSITIVE_INFINITY)
+				.clip(p.getX(), d.getX(), left, right)
+				.clip(p.getY(), d.getY(), top, bottom);
+	}
+
+	private boolean passesNear(final Ray ray, final int xDiv, final int yDiv, final double eps) {
+		var left = minX + xDiv * interval;
+		var top = minY + yDiv * interval;
+
+		return !clipRay(ray, left - eps, top - eps, left + interval + eps, top + interval + eps).isEmpty();
+	}
+
+	/**
+	 * Visits the areas which the ray passes through in the order along the ray
+	 * (DDA). The areas within {@code eps} from the ray are also visited so that
+	 * lines on the boundary of areas are not missed.
+	 *
+	 * @param visitor
+	 *            receives the lines in an area and the parameter of ray where
+	 *            the ray leaves the area. The walk stops after the current
+	 *            neighborhood if it returns false.
+	 */
+	private void walkAlong(final Ray ray, final double eps,
+			final BiPredicate<Set<OriLine>, Double> visitor) {
+		var range = clipRay(ray, minX - eps, minY - eps, minX + domainSize + eps, minY + domainSize + eps);
+		if (range.isEmpty()) {
+			return;
+		}
+
+		var p = ray.getEndPoint();
+		var d = ray.getDirection();
+
+		var start = p.add(d.multiply(range.min()));
+		var xDiv = toDiv(start.getX(), minX);
+		var yDiv = toDiv(start.getY(), minY);
+
+		var xStep = (int) Math.signum(d.getX());
+		var yStep = (int) Math.signum(d.getY());
+
+		// parameters where the ray crosses the next boundary on each axis.
+		var xNext = xStep == 0 ? Double.POSITIVE_INFINITY
+				: (minX + (xDiv + (xStep > 0 ? 1 : 0)) * interval - p.getX()) / d.getX();
+		var yNext = yStep == 0 ? Double.POSITIVE_INFINITY
+				: (minY + (yDiv + (yStep > 0 ? 1 : 0)) * interval - p.getY()) / d.getY();
+		var xDelta = xStep == 0 ? Double.POSITIVE_INFINITY : interval / Math.abs(d.getX());
+		var yDelta = yStep == 0 ? Double.POSITIVE_INFINITY : interval / Math.abs(d.getY());
+
+		var visited = new HashSet<Integer>();
+
+		while (true) {
+			var exitParameter = Math.min(Math.min(xNext, yNext), range.max());
+			var goesOn = true;
+
+			// all neighbors should be visited before stopping since a closer
+			// hit can be in any of them.
+			for (var i = -1; i <= 1; i++) {
+				for (var j = -1; j <= 1; j++) {
+					var x = xDiv + i;
+					var y = yDiv + j;
+					if (x < 0 || x >= divNum || y < 0 || y >= divNum) {
+						continue;
+					}
+					if ((i != 0 || j != 0) && !passesNear(ray, x, y, eps)) {
+						continue;
+					}
+					if (!visited.add(x * divNum + y)) {
+						continue;
+					}
+					goesOn &= visitor.test(areas[x][y], exitParameter);
+				}
+			}
+
+			if (!goesOn || exitParameter >= range.max() || (xStep == 0 && yStep == 0)) {
+				return;
+			}
+
+			// the ray within eps outside of the domain stays in the areas on
+			// the edge.
+			if (xNext < yNext) {
+				if (xDiv + xStep < 0 || xDiv + xStep >= divNum) {
+					xNext = Double.POSITIVE_INFINITY;
+				} else {
+					xDiv += xStep;
+					xNext += xDelta;
+				}
+			} else {
+				if (yDiv + yStep < 0 || yDiv + yStep >= divNum) {
+					yNext = Double.POSITIVE_INFINITY;
+				} else {
+					yDiv += yStep;
+					yNext += yDelta;
+				}
+			}
+		}
+	}
+
 	public void clear() {
 		for (int i = 0; i < divNum; i++) {
 			for (int j = 0; j < divNum; j++) {
@@ -18,9 +18,12 @@
 
 package oripa.domain.fold;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
 
 class AssignedModelFolder implements Folder {
 	// helper object
@@ -38,6 +41,18 @@ class AssignedModelFolder implements Folder {
 
 	@Override
 	public Result fold(final OrigamiModel origamiModel, final double eps, final EstimationType estimationType) {
+		var overlapRelations = new ArrayList<OverlapRelation>();
+
+		var result = fold(origamiModel, eps, estimationType, overlapRelations::add);
+
+		return new Result(
+				new FoldedModel(origamiModel, overlapRelations, result.foldedModel().subfaces()),
+				result.estimationRules());
+	}
+
+	@Override
+	public Result fold(final OrigamiModel origamiModel, final double eps, final EstimationType estimationType,
+			final Consumer<OverlapRelation> answerConsumer) {
 		simpleFolder.simpleFoldWithoutZorder(origamiModel, eps);
 		faceDisplayModifier.setCurrentPositionsToDisplayPositions(origamiModel);
 
@@ -46,10 +61,10 @@ class AssignedModelFolder implements Folder {
 			return new Result(new FoldedModel(origamiModel, List.of(), List.of()), new EstimationResultRules());
 		}
 
-		var enumerationResult = enumerator.enumerate(origamiModel, eps, estimationType == EstimationType.FIRST_ONLY);
+		var enumerationResult = enumerator.enumerate(origamiModel, eps, estimationType == EstimationType.FIRST_ONLY,
+				answerConsumer);
 
-		var foldedModel = new FoldedModel(origamiModel, enumerationResult.getOverlapRelations(),
-				enumerationResult.getSubfaces());
+		var foldedModel = new FoldedModel(origamiModel, List.of(), enumerationResult.getSubfaces());
 
 		if (enumerationResult.isEmpty()) {
 			return new Result(foldedModel, enumerationResult.getRules());
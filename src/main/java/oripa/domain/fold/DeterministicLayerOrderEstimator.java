@@ -26,6 +26,7 @@ import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import oripa.domain.fold.condfac.OverlappingFaceIndexIntersections;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OriHalfedge;
 import oripa.domain.fold.origeom.EstimationResult;
@@ -43,7 +44,7 @@ class DeterministicLayerOrderEstimator {
 
 	private final List<OriFace> faces;
 	private final List<SubFace> subfaces;
-	private final List<Integer>[][] overlappingFaceIndexIntersections;
+	private final OverlappingFaceIndexIntersections overlappingFaceIndexIntersections;
 	private final Map<OriHalfedge, Set<Integer>> faceIndicesOnHalfedge;
 	private final List<StackConditionOf4Faces> condition4s;
 
@@ -54,7 +55,7 @@ class DeterministicLayerOrderEstimator {
 	 * @param faces
 	 * @param subFaces
 	 * @param overlappingFaceIndexIntersections
-	 *            [FaceID1][FaceID2]
+	 *            faces overlapping both of two faces.
 	 * @param faceIndicesOnHalfEdge
 	 *            Key: halfedge, value: set of indices of faces that are on the
 	 *            halfedge.
@@ -63,7 +64,7 @@ class DeterministicLayerOrderEstimator {
 	public DeterministicLayerOrderEstimator(
 			final List<OriFace> faces,
 			final List<SubFace> subFaces,
-			final List<Integer>[][] overlappingFaceIndexIntersections,
+			final OverlappingFaceIndexIntersections overlappingFaceIndexIntersections,
 			final Map<OriHalfedge, Set<Integer>> faceIndicesOnHalfedge,
 			final List<StackConditionOf4Faces> condition4s) {
 		this.faces = faces;
@@ -276,7 +277,7 @@ class DeterministicLayerOrderEstimator {
 				var f_j = pairOpt.get().getFace();
 				var j = f_j.getFaceID();
 
-				var indices = overlappingFaceIndexIntersections[i][j];
+				var indices = overlappingFaceIndexIntersections.get(i, j);
 
 				for (int k : indices) {
 					if (i == k || j == k) {
@@ -509,7 +510,7 @@ class DeterministicLayerOrderEstimator {
 
 			int index_j = pairOpt.get().getFace().getFaceID();
 
-			var indices = overlappingFaceIndexIntersections[index_i][index_j];
+			var indices = overlappingFaceIndexIntersections.get(index_i, index_j);
 			for (var index_k : indices) {
 				if (index_i == index_k || index_j == index_k) {
 					continue;
@@ -18,7 +18,11 @@
  */
 package oripa.domain.fold;
 
+import java.util.List;
+import java.util.function.Consumer;
+
 import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
 
 /**
  * @author OUCHI Koji
@@ -59,4 +63,35 @@ public interface Folder {
 	 *         the given {@code origamiModel}.
 	 */
 	Result fold(OrigamiModel origamiModel, double eps, EstimationType estimationType);
+
+	/**
+	 * Computes folded states and passes each of them to
+	 * {@code answerConsumer} as soon as it is found. The folded states are not
+	 * kept in the result, so the memory usage doesn't grow with the number of
+	 * the states. The calls of {@code answerConsumer} are serialized.
+	 *
+	 * @param origamiModel
+	 *            half-edge based data structure before folding. It will be
+	 *            affected by this method.
+	 * @param eps
+	 *            error upper-bound for point equality measured by distance.
+	 * @param estimationType
+	 *            Specify the algorithm.
+	 * @param answerConsumer
+	 *            receives each folded state.
+	 * @return folded model without overlap relations, whose
+	 *         {@link FoldedModel#getOrigamiModel()} returns the given
+	 *         {@code origamiModel}.
+	 */
+	default Result fold(final OrigamiModel origamiModel, final double eps, final EstimationType estimationType,
+			final Consumer<OverlapRelation> answerConsumer) {
+		var result = fold(origamiModel, eps, estimationType);
+		var foldedModel = result.foldedModel();
+
+		foldedModel.overlapRelations().forEach(answerConsumer);
+
+		return new Result(
+				new FoldedModel(foldedModel.origamiModel(), List.of(), foldedModel.subfaces()),
+				result.estimationRules());
+	}
 }
\ No newline at end of file
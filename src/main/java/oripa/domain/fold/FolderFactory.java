@@ -37,6 +37,27 @@ import oripa.domain.fold.subface.SubFacesFactory;
  *
  */
 public class FolderFactory {
+	private static final LayerOrderSearchExecutor DEFAULT_SEARCH_EXECUTOR = new LayerOrderSearchExecutor();
+
+	private final LayerOrderSearchExecutor searchExecutor;
+
+	/**
+	 * Uses an executor shared by all factories created by this constructor.
+	 */
+	public FolderFactory() {
+		this(DEFAULT_SEARCH_EXECUTOR);
+	}
+
+	/**
+	 *
+	 * @param searchExecutor
+	 *            executor for layer order search. Specify this to control the
+	 *            parallelism of folding, for example, on a server folding
+	 *            several models at once.
+	 */
+	public FolderFactory(final LayerOrderSearchExecutor searchExecutor) {
+		this.searchExecutor = searchExecutor;
+	}
 
 	/**
 	 *
@@ -71,7 +92,7 @@ public class FolderFactory {
 
 		return new AssignedModelFolder(
 				new SimpleFolder(),
-				new LayerOrderEnumerator(subfacesFactory, true));
+				new LayerOrderEnumerator(subfacesFactory, searchExecutor, true));
 	}
 
 	private Folder createUnassigned() {
@@ -87,7 +108,7 @@ public class FolderFactory {
 
 		return new UnassignedModelFolder(
 				new SimpleFolder(),
-				new LayerOrderEnumerator(subfacesFactory, false));
+				new LayerOrderEnumerator(subfacesFactory, searchExecutor, false));
 	}
 
 	private Folder createErrorContaining() {
@@ -19,12 +19,12 @@
 package oripa.domain.fold;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.List;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,13 +33,15 @@ import oripa.domain.fold.condfac.StackConditionFactoryFacade;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OrigamiModel;
 import oripa.domain.fold.origeom.EstimationResult;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.origeom.OverlapRelationValues;
 import oripa.domain.fold.stackcond.StackConditionOf3Faces;
 import oripa.domain.fold.stackcond.StackConditionOf4Faces;
+import oripa.domain.fold.subface.StackConditionScores;
 import oripa.domain.fold.subface.SubFace;
 import oripa.domain.fold.subface.SubFacesFactory;
 import oripa.util.IntPair;
-import oripa.util.Pair;
 import oripa.util.StopWatch;
 
 /**
@@ -49,19 +51,24 @@ import oripa.util.StopWatch;
 class LayerOrderEnumerator {
 
 	public static class Result {
-		private final List<OverlapRelation> overlapRelations;
+		private final int answerCount;
 		private final List<SubFace> subfaces;
 		private final EstimationResultRules rules;
 
-		private Result(final List<OverlapRelation> overlapRelations, final List<SubFace> subfaces,
+		private Result(final int answerCount, final List<SubFace> subfaces,
 				final EstimationResultRules rules) {
-			this.overlapRelations = overlapRelations;
+			this.answerCount = answerCount;
 			this.subfaces = subfaces;
 			this.rules = rules;
 		}
 
-		public List<OverlapRelation> getOverlapRelations() {
-			return overlapRelations;
+		/**
+		 *
+		 * @return the number of the overlap relations passed to the answer
+		 *         consumer.
+		 */
+		public int getAnswerCount() {
+			return answerCount;
 		}
 
 		public List<SubFace> getSubfaces() {
@@ -73,25 +80,36 @@ class LayerOrderEnumerator {
 		}
 
 		public boolean isEmpty() {
-			return overlapRelations.isEmpty();
+			return answerCount == 0;
 		}
 	}
 
 	private final static Logger logger = LoggerFactory.getLogger(LayerOrderEnumerator.class);
 
+	/**
+	 * The search uses copy-on-write overlap relation if the number of faces
+	 * exceeds this value. Small models don't need it since copying the whole
+	 * matrix is cheap enough.
+	 */
+	static final int COPY_ON_WRITE_FACE_COUNT_THRESHOLD = 256;
+
 	private AtomicInteger callCount;
 	private AtomicInteger localLayerOrderCount;
 
 	private final SubFacesFactory subfacesFactory;
 
+	private final LayerOrderSearchExecutor searchExecutor;
+
 	private final boolean shouldLogStats;
 
 	private boolean firstOnly;
 
 	private final TransitivityChecker transitivityChecker = new TransitivityChecker();
 
-	public LayerOrderEnumerator(final SubFacesFactory subfacesFactory, final boolean shouldLogStats) {
+	public LayerOrderEnumerator(final SubFacesFactory subfacesFactory,
+			final LayerOrderSearchExecutor searchExecutor, final boolean shouldLogStats) {
 		this.subfacesFactory = subfacesFactory;
+		this.searchExecutor = searchExecutor;
 		this.shouldLogStats = shouldLogStats;
 	}
 
@@ -102,8 +120,12 @@ class LayerOrderEnumerator {
 	 *            max value of computation error.
 	 * @param firstOnly
 	 *            true for only one state.
+	 * @param answerConsumer
+	 *            receives each overlap relation of a folded state as soon as
+	 *            it is found. The calls are serialized.
 	 */
-	public Result enumerate(final OrigamiModel origamiModel, final double eps, final boolean firstOnly) {
+	public Result enumerate(final OrigamiModel origamiModel, final double eps, final boolean firstOnly,
+			final Consumer<OverlapRelation> answerConsumer) {
 		var faces = origamiModel.getFaces();
 		var edges = origamiModel.getEdges();
 
@@ -120,17 +142,19 @@ class LayerOrderEnumerator {
 
 		// Set overlap relations based on valley/mountain folds information
 		OverlapRelation overlapRelation;
-		var result = new OverlapRelationFactory().createOverlapRelationByLineType(faces, eps);
+		var faceIndex = new FaceBoundingBoxIndex(faces, eps);
+		var result = new OverlapRelationFactory().createOverlapRelationByLineType(faces, faceIndex, eps);
 		overlapRelation = result.getOverlapRelation();
 		var rules = result.getRules();
 
 		if (rules.isUnfoldable()) {
-			return new Result(List.of(), List.of(), rules);
+			return new Result(0, List.of(), rules);
 		}
 
 		var watch = new StopWatch(true);
 
-		var conditionFactory = new StackConditionFactoryFacade(faces, edges, overlapRelation, subfaces, eps);
+		var conditionFactory = new StackConditionFactoryFacade(faces, edges, overlapRelation, subfaces,
+				faceIndex, eps);
 
 		var overlappingFaceIndexIntersections = conditionFactory.getOverlappingFaceIndexIntersections();
 		var faceIndicesOnHalfedge = conditionFactory.getFaceIndicesOnHalfedge();
@@ -152,43 +176,43 @@ class LayerOrderEnumerator {
 
 		if (estimationResult.isUnfoldable()) {
 			logger.info("found unfoldable before searching.");
-			return new Result(List.of(), List.of(), estimationResult);
+			return new Result(0, List.of(), estimationResult);
 		}
 
 		var undefinedRelationCount = countUndefinedRelations(overlapRelation);
 		logger.debug("#undefined = {}", undefinedRelationCount);
 
+		if (faces.size() > COPY_ON_WRITE_FACE_COUNT_THRESHOLD) {
+			logger.debug("use copy-on-write matrix for overlap relation.");
+			overlapRelation.switchToCopyOnWriteMatrix();
+		}
+
 		watch.start();
 
 		// heuristic: apply the heuristic in local layer ordering to global
 		// subface ordering.
-		var scores2Faces = new HashMap<SubFace, Double>();
-		var scores3Faces = new HashMap<SubFace, Double>();
-		var scores4Faces = new HashMap<SubFace, Double>();
-		for (var sub : subfaces) {
-			scores2Faces.put(sub, sub.getAllCountOfConditionsOf2Faces(overlapRelation)
-					/ (double) sub.getParentFaceCount());
-			scores3Faces.put(sub, sub.getAllCountOfConditionsOf3Faces(overlapRelation)
-					/ (double) sub.getParentFaceCount());
-			scores4Faces.put(sub, sub.getAllCountOfConditionsOf4Faces(overlapRelation)
-					/ (double) sub.getParentFaceCount());
-		}
+		// The scores are computed once per subface.
+		var scores = subfaces.parallelStream()
+				.collect(Collectors.toMap(Function.identity(),
+						sub -> sub.computeStackConditionScores(overlapRelation)));
 		var sortedSubfaces = subfaces.stream()
-				.sorted(Comparator
-						.comparingDouble((final SubFace sub) -> scores2Faces.get(sub))
-						.thenComparingDouble((final SubFace sub) -> scores3Faces.get(sub))
-						.thenComparingDouble((final SubFace sub) -> scores4Faces.get(sub))
-						.reversed())
+				.sorted(Comparator.comparing(scores::get, StackConditionScores.DESCENDING_ORDER))
 				.toList();
 		logger.debug("subface ordering = {}[ms]", watch.getMilliSec());
 
-		var overlapRelations = new ConcurrentLinkedQueue<OverlapRelation>();
+		var answerLock = new Object();
+		Consumer<OverlapRelation> serializedAnswerConsumer = answer -> {
+			synchronized (answerLock) {
+				answerConsumer.accept(answer);
+			}
+		};
 
 		watch.start();
 
 		callCount = new AtomicInteger();
 		localLayerOrderCount = new AtomicInteger();
-		findAnswer(faces, sortedSubfaces, overlapRelation, overlapRelations);
+		var answerCount = searchExecutor.search(
+				search -> findAnswer(faces, sortedSubfaces, overlapRelation, serializedAnswerConsumer, search));
 		var time = watch.getMilliSec();
 
 		logger.debug("#call = {}", callCount);
@@ -199,7 +223,7 @@ class LayerOrderEnumerator {
 			logStats(sortedSubfaces, overlapRelation);
 		}
 
-		return new Result(new ArrayList<>(overlapRelations), sortedSubfaces,
+		return new Result(answerCount, sortedSubfaces,
 				new EstimationResultRules());
 	}
 
@@ -208,11 +232,7 @@ class LayerOrderEnumerator {
 
 		int count = 0;
 		for (int i = 0; i < size; i++) {
-			for (int j = 0; j < size; j++) {
-				if (overlapRelation.isUndefined(i, j)) {
-					count++;
-				}
-			}
+			count += overlapRelation.count(i, OverlapRelationValues.UNDEFINED);
 		}
 
 		return count;
@@ -228,23 +248,32 @@ class LayerOrderEnumerator {
 	 *            the subfaces to be used.
 	 * @param overlapRelation
 	 *            overlap relation matrix.
-	 * @param overlapRelations
-	 *            an object to store the result.
+	 * @param answerConsumer
+	 *            an object to receive the result.
+	 * @param search
+	 *            the handle of the running search.
 	 */
 	private int findAnswer(
 			final List<OriFace> faces,
 			final List<SubFace> subfaces,
 			final OverlapRelation overlapRelation,
-			final Collection<OverlapRelation> overlapRelations) {
+			final Consumer<OverlapRelation> answerConsumer,
+			final LayerOrderSearchExecutor.Search search) {
 		callCount.incrementAndGet();
 
-		if (firstOnly && !overlapRelations.isEmpty()) {
+		if (search.isCanceled()) {
 			return 0;
 		}
 
 		if (subfaces.isEmpty()) {
+			// only the branch which cancels the search delivers the first
+			// answer.
+			if (firstOnly && !search.tryCancel()) {
+				return 0;
+			}
+
 			var answer = overlapRelation.clone();
-			overlapRelations.add(answer);
+			answerConsumer.accept(answer);
 
 			return 1;
 		}
@@ -258,19 +287,19 @@ class LayerOrderEnumerator {
 		var localLayerOrders = sub.createLocalLayerOrders(faces, overlapRelation, false);
 
 		if (localLayerOrders == null) {
-			var nextSubfaces = popAndSort(subfaces);
-			return findAnswer(faces, nextSubfaces, overlapRelation, overlapRelations);
+			var nextSubfaces = popAndSelectNext(subfaces);
+			return findAnswer(faces, nextSubfaces, overlapRelation, answerConsumer, search);
 		}
 
 		localLayerOrderCount.addAndGet(localLayerOrders.size());
 
-		var successCount = new AtomicInteger();
-
-		// Parallel search. It is fast but can exceed memory for
-		// complex model because of copying overlapRelation (a large matrix).
-		localLayerOrders.parallelStream().forEach(localLayerOrder -> {
+		// Parallel search. Copying overlapRelation (a large matrix) can exceed
+		// memory for complex model. The matrix becomes copy-on-write for such
+		// model so that each branch holds only the rows it changes. The
+		// executor bounds the number of branches searched in parallel.
+		var successCount = search.branch(localLayerOrders, localLayerOrder -> {
 			int size = localLayerOrder.size();
-			var nextSubfaces = popAndSort(subfaces);
+			var nextSubfaces = popAndSelectNext(subfaces);
 			var nextOverlapRelation = overlapRelation.clone();
 
 			// determine overlap relations according to local layer order
@@ -286,32 +315,53 @@ class LayerOrderEnumerator {
 					// layer order.
 					var result = nextOverlapRelation.setUpperIfPossible(index_i, index_j);
 					if (result == EstimationResult.UNFOLDABLE) {
-						return;
+						return 0;
 					}
 				}
 			}
 
 			sub.incrementCallCount();
-			successCount.addAndGet(findAnswer(faces, nextSubfaces, nextOverlapRelation, overlapRelations));
+			return findAnswer(faces, nextSubfaces, nextOverlapRelation, answerConsumer, search);
 		});
 
-		sub.addSuccessCount(successCount.get());
+		sub.addSuccessCount(successCount);
 
-		return successCount.get();
+		return successCount;
 	}
 
-	private List<SubFace> popAndSort(final List<SubFace> subfaces) {
-		return subfaces.subList(1, subfaces.size()).stream()
-				// parallel processing causes different score values on the same
-				// subface.
-				// copy the pairs of subface and score to the temporary to fix
-				// the score.
-				.map(subface -> new Pair<Double, SubFace>(score(subface), subface))
-				// sort sublist for speeding up
-				.sorted(Comparator.comparing((final Pair<Double, SubFace> pair) -> pair.v1())
-						.reversed())
-				.map(Pair::v2)
-				.toList();
+	/**
+	 * Removes the head of the given list and moves the remaining subface with
+	 * the best score to the head. Only the head is used for the next search
+	 * step, so that the other subfaces are left in the current order instead
+	 * of being sorted.
+	 */
+	private List<SubFace> popAndSelectNext(final List<SubFace> subfaces) {
+		int size = subfaces.size();
+		if (size <= 1) {
+			return List.of();
+		}
+
+		// parallel processing changes the scores during this selection.
+		// each score is read only once to keep the selection consistent.
+		int bestIndex = 1;
+		double bestScore = score(subfaces.get(1));
+		for (int i = 2; i < size; i++) {
+			var score = score(subfaces.get(i));
+			if (score > bestScore) {
+				bestIndex = i;
+				bestScore = score;
+			}
+		}
+
+		var nextSubfaces = new ArrayList<SubFace>(size - 1);
+		nextSubfaces.add(subfaces.get(bestIndex));
+		for (int i = 1; i < size; i++) {
+			if (i != bestIndex) {
+				nextSubfaces.add(subfaces.get(i));
+			}
+		}
+
+		return nextSubfaces;
 	}
 
 	private double score(final SubFace subface) {
@@ -0,0 +1,210 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToIntFunction;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs layer order search on a dedicated work-stealing pool. The number of
+ * branches running in parallel is bounded; a branch is searched depth-first
+ * in the current thread when the bound is reached. This keeps the memory
+ * usage and the CPU usage under control even when several models are folded
+ * at once with the same executor.
+ *
+ * A search stops cooperatively when it is canceled by
+ * {@link Search#cancel()} or when the thread waiting for the search is
+ * interrupted.
+ */
+public class LayerOrderSearchExecutor {
+	private static final Logger logger = LoggerFactory.getLogger(LayerOrderSearchExecutor.class);
+
+	private static final int DEFAULT_MAX_LIVE_BRANCH_COUNT_PER_THREAD = 64;
+
+	private final ForkJoinPool pool;
+	private final int maxLiveBranchCount;
+	private final AtomicInteger liveBranchCount = new AtomicInteger();
+
+	/**
+	 * A handle of a search running on the executor.
+	 */
+	public final class Search {
+		private final AtomicBoolean canceled = new AtomicBoolean();
+
+		private Search() {
+		}
+
+		/**
+		 * Requests the search to stop. Branches which have been started finish
+		 * at their next check of {@link #isCanceled()}.
+		 */
+		public void cancel() {
+			canceled.set(true);
+		}
+
+		/**
+		 * Cancels the search if it is not canceled yet. Only one of the callers
+		 * racing on this method gets true.
+		 *
+		 * @return true if this call cancels the search.
+		 */
+		public boolean tryCancel() {
+			return canceled.compareAndSet(false, true);
+		}
+
+		public boolean isCanceled() {
+			return canceled.get();
+		}
+
+		/**
+		 * Runs the given job for each branch and returns the sum of the
+		 * results. A branch is forked if the number of live branches is under
+		 * the limit, otherwise it runs in the current thread.
+		 *
+		 * @param branches
+		 *            the inputs of the branches.
+		 * @param job
+		 *            a search for a branch which returns the number of the
+		 *            answers found in the branch.
+		 * @return the sum of the numbers of the answers.
+		 */
+		public <T> int branch(final List<T> branches, final ToIntFunction<T> job) {
+			var forkedTasks = new ArrayList<ForkJoinTask<Integer>>();
+			int count = 0;
+
+			for (int k = 0; k < branches.size(); k++) {
+				if (isCanceled()) {
+					break;
+				}
+				var input = branches.get(k);
+
+				// the current thread takes the last branch.
+				var isLast = k == branches.size() - 1;
+				if (!isLast && ForkJoinTask.getPool() == pool && tryAcquireBranch()) {
+					var task = ForkJoinTask.adapt(() -> {
+						try {
+							return job.applyAsInt(input);
+						} finally {
+							liveBranchCount.decrementAndGet();
+						}
+					});
+					forkedTasks.add(task.fork());
+				} else {
+					count += job.applyAsInt(input);
+				}
+			}
+
+			for (var task : forkedTasks) {
+				count += task.join();
+			}
+
+			return count;
+		}
+	}
+
+	/**
+	 * Creates an executor with the parallelism of the number of available
+	 * processors.
+	 */
+	public LayerOrderSearchExecutor() {
+		this(Runtime.getRuntime().availableProcessors());
+	}
+
+	private LayerOrderSearchExecutor(final int parallelism) {
+		this(parallelism, parallelism * DEFAULT_MAX_LIVE_BRANCH_COUNT_PER_THREAD);
+	}
+
+	/**
+	 *
+	 * @param parallelism
+	 *            the number of threads for searching.
+	 * @param maxLiveBranchCount
+	 *            the upper bound of the number of forked branches which are
+	 *            not finished yet.
+	 */
+	public LayerOrderSearchExecutor(final int parallelism, final int maxLiveBranchCount) {
+		if (parallelism < 1) {
+			throw new IllegalArgumentException("parallelism should be positive.");
+		}
+		if (maxLiveBranchCount < 0) {
+			throw new IllegalArgumentException("maxLiveBranchCount should not be negative.");
+		}
+		pool = new ForkJoinPool(parallelism);
+		this.maxLiveBranchCount = maxLiveBranchCount;
+	}
+
+	private boolean tryAcquireBranch() {
+		while (true) {
+			int count = liveBranchCount.get();
+			if (count >= maxLiveBranchCount) {
+				return false;
+			}
+			if (liveBranchCount.compareAndSet(count, count + 1)) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Runs the given search on this executor and waits for it. If the
+	 * current thread is interrupted, the search is canceled and this method
+	 * returns after the running branches stop. The interrupt status is kept
+	 * in that case.
+	 *
+	 * @param job
+	 *            a search which returns the number of answers.
+	 * @return the number of answers found by the search.
+	 */
+	public int search(final ToIntFunction<Search> job) {
+		var search = new Search();
+		var task = pool.submit(() -> job.applyAsInt(search));
+
+		try {
+			return task.get();
+		} catch (InterruptedException e) {
+			logger.info("layer order search is canceled.");
+			search.cancel();
+			var count = task.join();
+			Thread.currentThread().interrupt();
+			return count;
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException runtimeException) {
+				throw runtimeException;
+			}
+			throw new RuntimeException(e.getCause());
+		}
+	}
+
+	public int getParallelism() {
+		return pool.getParallelism();
+	}
+
+	public int getMaxLiveBranchCount() {
+		return maxLiveBranchCount;
+	}
+}
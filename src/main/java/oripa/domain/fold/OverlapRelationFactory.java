@@ -26,6 +26,7 @@ import org.slf4j.LoggerFactory;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OriHalfedge;
 import oripa.domain.fold.origeom.EstimationResult;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 import oripa.domain.fold.origeom.OriGeomUtil;
 import oripa.domain.fold.origeom.OverlapRelation;
 
@@ -70,7 +71,22 @@ class OverlapRelationFactory {
 	 */
 	public Result createOverlapRelationByLineType(
 			final List<OriFace> faces, final double eps) throws IllegalArgumentException {
-		var overlapRelation = createOverlapRelation(faces, eps);
+		return createOverlapRelationByLineType(faces, new FaceBoundingBoxIndex(faces, eps), eps);
+	}
+
+	/**
+	 * Determines the overlap relations by mountain/valley.
+	 *
+	 * @param faceIndex
+	 *            index of the faces for testing overlaps only among faces
+	 *            close to each other.
+	 * @throws IllegalArgumentException
+	 *             when there is a contradiction of face order.
+	 */
+	public Result createOverlapRelationByLineType(
+			final List<OriFace> faces, final FaceBoundingBoxIndex faceIndex, final double eps)
+			throws IllegalArgumentException {
+		var overlapRelation = createOverlapRelation(faces, faceIndex, eps);
 		for (OriFace face : faces) {
 			for (OriHalfedge he : face.halfedgeIterable()) {
 				var pairOpt = he.getPair();
@@ -114,21 +130,29 @@ class OverlapRelationFactory {
 	 * @return initialized overlap relation matrix
 	 */
 	private OverlapRelation createOverlapRelation(
-			final List<OriFace> faces, final double eps) {
+			final List<OriFace> faces, final FaceBoundingBoxIndex faceIndex, final double eps) {
 
 		int size = faces.size();
 		OverlapRelation overlapRelation = new OverlapRelation(size);
 
-		int countOfZeros = 0;
 		for (int i = 0; i < size; i++) {
-			overlapRelation.setNoOverlap(i, i);
-			countOfZeros++;
-			for (int j = i + 1; j < size; j++) {
-				if (OriGeomUtil.isFaceOverlap(faces.get(i), faces.get(j), eps)) {
+			for (int j = i; j < size; j++) {
+				overlapRelation.setNoOverlap(i, j);
+			}
+		}
+
+		// only the faces with intersecting bounding boxes can overlap.
+		int countOfZeros = size * size;
+		for (int i = 0; i < size; i++) {
+			var face_i = faces.get(i);
+			for (var face_j : faceIndex.query(face_i)) {
+				int j = face_j.getFaceID();
+				if (j <= i) {
+					continue;
+				}
+				if (OriGeomUtil.isFaceOverlap(face_i, face_j, eps)) {
 					overlapRelation.setUndefined(i, j);
-				} else {
-					overlapRelation.setNoOverlap(i, j);
-					countOfZeros += 2;
+					countOfZeros -= 2;
 				}
 			}
 		}
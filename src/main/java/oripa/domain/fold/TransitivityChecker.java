@@ -19,12 +19,14 @@
 package oripa.domain.fold;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Collection;
 import java.util.List;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.origeom.OverlapRelationValues;
 import oripa.domain.fold.subface.SubFace;
 
 /**
@@ -44,21 +46,11 @@ public class TransitivityChecker {
 
 		var parentFaceIndices = subface.getParentFaceIndices();
 
-		var undefined = false;
-		for (var i : parentFaceIndices) {
-			for (var j : parentFaceIndices) {
-				if (i == j) {
-					continue;
-				}
-				if (overlapRelation.isUndefined(i, j)) {
-					undefined = true;
-					break;
-				}
-			}
-			if (undefined) {
-				break;
-			}
-		}
+		var parentFaceMask = createMask(overlapRelation.getSize(), parentFaceIndices);
+
+		// [i][i] is never undefined.
+		var undefined = parentFaceIndices.stream()
+				.anyMatch(i -> overlapRelation.contains(i, OverlapRelationValues.UNDEFINED, parentFaceMask));
 		if (undefined) {
 			logger.trace("skip: {}", parentFaceIndices);
 			return null;
@@ -91,20 +83,27 @@ public class TransitivityChecker {
 	 * @return true if valid
 	 */
 	private boolean checkTransitivity(final OverlapRelation overlapRelation, final List<Integer> order) {
-		var length = order.size();
-		for (int a = 0; a < length - 1; a++) {
-			int f1 = order.get(a);
-			for (int b = a + 1; b < length; b++) {
-				int f2 = order.get(b);
-
-				if (overlapRelation.isLower(f1, f2)) {
-					logger.trace("wrong: ({},{})", f1, f2);
-					return false;
-				}
+		// faces below the current one.
+		var belowMask = createMask(overlapRelation.getSize(), order);
+
+		for (int f1 : order) {
+			belowMask[f1 >>> 6] &= ~(1L << f1);
+
+			if (overlapRelation.contains(f1, OverlapRelationValues.LOWER, belowMask)) {
+				logger.trace("wrong: {} is lower than some of the following faces", f1);
+				return false;
 			}
 		}
 
 		return true;
 	}
 
+	private long[] createMask(final int faceCount, final Collection<Integer> faceIndices) {
+		var mask = new long[(faceCount + Long.SIZE - 1) / Long.SIZE];
+		for (int i : faceIndices) {
+			mask[i >>> 6] |= 1L << i;
+		}
+		return mask;
+	}
+
 }
@@ -20,8 +20,10 @@ package oripa.domain.fold;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
 
 /**
  * @author OUCHI Koji
@@ -40,6 +42,18 @@ class UnassignedModelFolder implements Folder {
 
 	@Override
 	public Result fold(final OrigamiModel origamiModel, final double eps, final EstimationType estimationType) {
+		var overlapRelations = new ArrayList<OverlapRelation>();
+
+		var result = fold(origamiModel, eps, estimationType, overlapRelations::add);
+
+		return new Result(
+				new FoldedModel(origamiModel, overlapRelations, result.foldedModel().subfaces()),
+				result.estimationRules());
+	}
+
+	@Override
+	public Result fold(final OrigamiModel origamiModel, final double eps, final EstimationType estimationType,
+			final Consumer<OverlapRelation> answerConsumer) {
 		simpleFolder.simpleFoldWithoutZorder(origamiModel, eps);
 		faceDisplayModifier.setCurrentPositionsToDisplayPositions(origamiModel);
 
@@ -59,17 +73,13 @@ class UnassignedModelFolder implements Folder {
 					if (firstOnly && results.stream().anyMatch(result -> !result.isEmpty())) {
 						return;
 					}
-					results.add(layerOrderEnumerator.enumerate(assignedModel, eps, firstOnly));
+					results.add(layerOrderEnumerator.enumerate(assignedModel, eps, firstOnly, answerConsumer));
 				});
 
 		origamiModel.setFolded(true);
 
 		return new Result(
-				new FoldedModel(origamiModel,
-						results.stream()
-								.flatMap(result -> result.getOverlapRelations().stream())
-								.toList(),
-						results.get(0).getSubfaces()),
+				new FoldedModel(origamiModel, List.of(), results.get(0).getSubfaces()),
 				results.stream()
 						.map(result -> result.getRules())
 						.reduce(new EstimationResultRules(), (a, b) -> a.or(b)));
@@ -31,7 +31,9 @@ import org.slf4j.LoggerFactory;
 
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OriHalfedge;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 import oripa.domain.fold.origeom.OriGeomUtil;
+import oripa.geom.Segment;
 
 /**
  * @author OUCHI Koji
@@ -43,6 +45,22 @@ public class FaceIndicesOnHalfEdgeFactory {
 	public Map<OriHalfedge, Set<Integer>> create(
 			final List<OriFace> faces,
 			final double eps) {
+		return create(faces, new FaceBoundingBoxIndex(faces, eps), eps);
+	}
+
+	/**
+	 *
+	 * @param faces
+	 *            all faces of the model.
+	 * @param faceIndex
+	 *            index of the faces for testing only the faces around each
+	 *            halfedge.
+	 * @return mapping halfedge to the IDs of faces crossing the halfedge.
+	 */
+	public Map<OriHalfedge, Set<Integer>> create(
+			final List<OriFace> faces,
+			final FaceBoundingBoxIndex faceIndex,
+			final double eps) {
 
 		Map<OriHalfedge, Set<Integer>> indices = new HashMap<>();
 
@@ -57,7 +75,8 @@ public class FaceIndicesOnHalfEdgeFactory {
 		}
 
 		halfedges.parallelStream().forEach(halfedge -> {
-			for (var face : faces) {
+			var segment = new Segment(halfedge.getPosition(), halfedge.getNext().getPosition());
+			for (var face : faceIndex.query(segment)) {
 				var indexSet = indices.get(halfedge);
 				if (OriGeomUtil.isHalfedgeCrossFace(face, halfedge, eps)) {
 					indexSet.add(face.getFaceID());
@@ -45,4 +45,29 @@ public class FaceToSubfacesFactory {
 
 		return subFacesOfEachFace;
 	}
+
+	/**
+	 * Creates bit masks of subfaces for each face. The i-th bit of
+	 * {@code masks[faceID]} is 1 if the face is a parent of the i-th subface.
+	 * All masks have the same length so that they can be combined word by
+	 * word.
+	 *
+	 * @param faces
+	 *            all faces of the model.
+	 * @param subfaces
+	 *            all subfaces of the model.
+	 * @return masks indexed by face ID.
+	 */
+	public long[][] createMasks(final List<OriFace> faces, final List<SubFace> subfaces) {
+		var wordCount = (subfaces.size() + Long.SIZE - 1) / Long.SIZE;
+		var masks = new long[faces.size()][wordCount];
+
+		for (int i = 0; i < subfaces.size(); i++) {
+			for (var face : subfaces.get(i).ParentFacesIterable()) {
+				masks[face.getFaceID()][i >>> 6] |= 1L << i;
+			}
+		}
+
+		return masks;
+	}
 }
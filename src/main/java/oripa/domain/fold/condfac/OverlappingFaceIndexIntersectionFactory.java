@@ -19,7 +19,6 @@
 package oripa.domain.fold.condfac;
 
 import java.lang.invoke.MethodHandles;
-import java.util.HashSet;
 import java.util.List;
 import java.util.stream.IntStream;
 
@@ -36,58 +35,35 @@ import oripa.domain.fold.origeom.OverlapRelation;
 public class OverlappingFaceIndexIntersectionFactory {
 	private static Logger logger = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-	@SuppressWarnings("unchecked")
-	public List<Integer>[][] create(
+	public OverlappingFaceIndexIntersections create(
 			final List<OriFace> faces,
 			final OverlapRelation overlapRelation) {
-		var indices = IntStream.range(0, faces.size())
-				.mapToObj(i -> new HashSet<Integer>())
-				.toList();
+		var faceCount = faces.size();
+		var wordCount = (faceCount + Long.SIZE - 1) / Long.SIZE;
+		var masks = new long[faceCount][wordCount];
 
-		// prepare pair indices of overlapping faces.
-		for (var face : faces) {
-			for (var other : faces) {
-				var index_i = face.getFaceID();
-				var index_j = other.getFaceID();
-				if (!overlapRelation.isNoOverlap(index_i, index_j)) {
-					indices.get(index_i).add(index_j);
-				}
-			}
-		}
-
-		// extract overlapping-face indices shared by face pair.
-		var indexIntersections = new List[faces.size()][faces.size()];
+		// prepare indices of overlapping faces.
 		faces.parallelStream().forEach(face -> {
+			var index_i = face.getFaceID();
+			var mask = masks[index_i];
 			for (var other : faces) {
-				var index_i = face.getFaceID();
 				var index_j = other.getFaceID();
-
-				if (index_i == index_j) {
-					continue;
+				if (!overlapRelation.isNoOverlap(index_i, index_j)) {
+					mask[index_j >>> 6] |= 1L << index_j;
 				}
-
-				var overlappingFaces_i = indices.get(index_i);
-				var overlappingFaces_j = indices.get(index_j);
-
-				indexIntersections[index_i][index_j] = overlappingFaces_i.stream()
-						.filter(index -> overlappingFaces_j.contains(index))
-						.toList();
 			}
 		});
 
-		int count = 0;
-		for (var intersectionLists : indexIntersections) {
-			if (intersectionLists == null) {
-				continue;
-			}
-			for (var intersections : intersectionLists) {
-				if (intersections == null) {
-					continue;
-				}
-				count += intersections.size();
-			}
+		var indexIntersections = new OverlappingFaceIndexIntersections(masks);
+
+		if (logger.isDebugEnabled()) {
+			long count = IntStream.range(0, faceCount).parallel()
+					.mapToLong(i -> IntStream.range(0, faceCount)
+							.map(j -> indexIntersections.count(i, j))
+							.sum())
+					.sum();
+			logger.debug("#overlappingIntersection = {}", count);
 		}
-		logger.debug("#overlappingIntersection = {}", count);
 
 		return indexIntersections;
 	}
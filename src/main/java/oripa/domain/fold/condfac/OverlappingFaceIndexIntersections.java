@@ -0,0 +1,107 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.condfac;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Sets of faces overlapping both of two faces. Each face has a bit mask of
+ * overlapping faces and the intersection for a pair of faces is computed by
+ * word-wise AND when it is requested for the first time. Only the pairs
+ * actually requested are kept.
+ */
+public class OverlappingFaceIndexIntersections {
+	private static final int[] EMPTY = new int[0];
+
+	private final long[][] overlappingFaceMasks;
+	private final int faceCount;
+
+	private final Map<Long, int[]> intersections = new ConcurrentHashMap<>();
+
+	/**
+	 *
+	 * @param overlappingFaceMasks
+	 *            [i] is the mask whose k-th bit is 1 if face i and face k
+	 *            overlap.
+	 */
+	OverlappingFaceIndexIntersections(final long[][] overlappingFaceMasks) {
+		this.overlappingFaceMasks = overlappingFaceMasks;
+		this.faceCount = overlappingFaceMasks.length;
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            face ID.
+	 * @param j
+	 *            face ID.
+	 * @return IDs of faces overlapping both of face i and face j in ascending
+	 *         order. The returned array should not be modified.
+	 */
+	public int[] get(final int i, final int j) {
+		if (i == j) {
+			return EMPTY;
+		}
+		return intersections.computeIfAbsent((long) i * faceCount + j, key -> intersect(i, j));
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            face ID.
+	 * @param j
+	 *            face ID.
+	 * @return the number of faces overlapping both of face i and face j.
+	 */
+	public int count(final int i, final int j) {
+		if (i == j) {
+			return 0;
+		}
+		var mask_i = overlappingFaceMasks[i];
+		var mask_j = overlappingFaceMasks[j];
+
+		int count = 0;
+		for (int w = 0; w < mask_i.length; w++) {
+			count += Long.bitCount(mask_i[w] & mask_j[w]);
+		}
+		return count;
+	}
+
+	private int[] intersect(final int i, final int j) {
+		var count = count(i, j);
+		if (count == 0) {
+			return EMPTY;
+		}
+
+		var mask_i = overlappingFaceMasks[i];
+		var mask_j = overlappingFaceMasks[j];
+
+		var indices = new int[count];
+		int n = 0;
+		for (int w = 0; w < mask_i.length; w++) {
+			var word = mask_i[w] & mask_j[w];
+			while (word != 0) {
+				indices[n++] = w * Long.SIZE + Long.numberOfTrailingZeros(word);
+				word &= word - 1;
+			}
+		}
+		return indices;
+	}
+}
@@ -0,0 +1,175 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.condfac;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import oripa.geom.GeomUtil;
+import oripa.geom.Segment;
+import oripa.util.IntPair;
+import oripa.util.MathUtil;
+
+/**
+ * Finds overlapping pairs of segments without testing all pairs. Segments are
+ * grouped by their supporting lines, i.e., the angle and the signed distance
+ * from the center, and only the pairs in a group are tested by
+ * {@link GeomUtil#isOverlap(Segment, Segment, double)}.
+ *
+ * Unlike a hash with fixed buckets, the groups are made by chaining angles
+ * closer than the tolerance and the pairs are searched with a window on the
+ * distance. Therefore no pair is lost at the boundary of buckets.
+ */
+class OverlappingSegmentPairsFactory {
+
+	/**
+	 * Supporting line of a segment. A shadow is a copy whose angle is shifted
+	 * by PI for finding pairs across the angle 0.
+	 */
+	private record SupportLineKey(
+			int index,
+			double angle,
+			double distance,
+			boolean isShadow) {
+	}
+
+	/**
+	 *
+	 * @param segments
+	 *            segments to be tested. {@code null} item is ignored.
+	 * @param eps
+	 *            eps for point equality.
+	 * @return the pairs of indices of overlapping segments. For each pair
+	 *         {@code v1 < v2}.
+	 */
+	public List<IntPair> create(final List<Segment> segments, final double eps) {
+		// isOverlap() requires the angle difference to be smaller than
+		// angleRadianEps.
+		final double angleTolerance = 2 * MathUtil.angleRadianEps();
+
+		double minX = Double.POSITIVE_INFINITY, minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY, maxY = Double.NEGATIVE_INFINITY;
+		for (var segment : segments) {
+			if (segment == null) {
+				continue;
+			}
+			for (var p : List.of(segment.getP0(), segment.getP1())) {
+				minX = Math.min(minX, p.getX());
+				minY = Math.min(minY, p.getY());
+				maxX = Math.max(maxX, p.getX());
+				maxY = Math.max(maxY, p.getY());
+			}
+		}
+
+		if (minX > maxX) {
+			return List.of();
+		}
+
+		var centerX = (minX + maxX) / 2;
+		var centerY = (minY + maxY) / 2;
+		var maxRadius = Math.hypot(maxX - minX, maxY - minY) / 2;
+
+		// a point within eps from both lines makes the difference of the
+		// distances at most eps + |point| * (angle difference).
+		final double distanceTolerance = 2 * (eps + maxRadius * angleTolerance);
+
+		var keys = new ArrayList<SupportLineKey>();
+		for (int i = 0; i < segments.size(); i++) {
+			var segment = segments.get(i);
+			if (segment == null) {
+				continue;
+			}
+			var p0 = segment.getP0();
+			var p1 = segment.getP1();
+
+			// limit the angle 0 to PI.
+			var angle = Math.atan2(p1.getY() - p0.getY(), p1.getX() - p0.getX());
+			if (angle < 0) {
+				angle += Math.PI;
+			}
+			if (angle >= Math.PI) {
+				angle -= Math.PI;
+			}
+
+			// signed distance along the normal (-sin, cos).
+			var distance = -Math.sin(angle) * (p0.getX() - centerX) + Math.cos(angle) * (p0.getY() - centerY);
+
+			keys.add(new SupportLineKey(i, angle, distance, false));
+
+			// a line with angle PI is the same as one with angle 0.
+			if (angle < angleTolerance) {
+				keys.add(new SupportLineKey(i, angle + Math.PI, -distance, true));
+			}
+		}
+
+		var pairs = new ConcurrentLinkedQueue<IntPair>();
+
+		createGroups(keys, angleTolerance).parallelStream().forEach(group -> {
+			group.sort(Comparator.comparing(SupportLineKey::distance));
+
+			for (int i = 0; i < group.size(); i++) {
+				var key0 = group.get(i);
+				for (int j = i + 1; j < group.size(); j++) {
+					var key1 = group.get(j);
+					if (key1.distance() - key0.distance() > distanceTolerance) {
+						break;
+					}
+					if (key0.index() == key1.index() || (key0.isShadow() && key1.isShadow())) {
+						continue;
+					}
+					if (Math.abs(key1.angle() - key0.angle()) > angleTolerance) {
+						continue;
+					}
+					if (GeomUtil.isOverlap(segments.get(key0.index()), segments.get(key1.index()), eps)) {
+						pairs.add(new IntPair(
+								Math.min(key0.index(), key1.index()),
+								Math.max(key0.index(), key1.index())));
+					}
+				}
+			}
+		});
+
+		return new ArrayList<>(pairs);
+	}
+
+	/**
+	 * Splits keys into groups where the angle gap between neighbors in a group
+	 * is at most the tolerance.
+	 */
+	private List<List<SupportLineKey>> createGroups(final List<SupportLineKey> keys,
+			final double angleTolerance) {
+		keys.sort(Comparator.comparing(SupportLineKey::angle));
+
+		var groups = new ArrayList<List<SupportLineKey>>();
+		List<SupportLineKey> group = null;
+		double previousAngle = Double.NEGATIVE_INFINITY;
+		for (var key : keys) {
+			if (key.angle() - previousAngle > angleTolerance) {
+				group = new ArrayList<>();
+				groups.add(group);
+			}
+			group.add(key);
+			previousAngle = key.angle();
+		}
+
+		return groups;
+	}
+}
@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 import oripa.domain.fold.halfedge.OriEdge;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OriHalfedge;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 import oripa.domain.fold.origeom.OverlapRelation;
 import oripa.domain.fold.stackcond.StackConditionOf3Faces;
 import oripa.domain.fold.stackcond.StackConditionOf4Faces;
@@ -41,8 +42,8 @@ import oripa.util.StopWatch;
 public class StackConditionFactoryFacade {
 	private static final Logger logger = LoggerFactory.getLogger(StackConditionFactoryFacade.class);
 
-	private final Map<OriFace, Set<SubFace>> subFacesOfEachFace;
-	private final List<Integer>[][] overlappingFaceIndexIntersections;
+	private final long[][] subfaceMasksOfEachFace;
+	private final OverlappingFaceIndexIntersections overlappingFaceIndexIntersections;
 	private final Map<OriHalfedge, Set<Integer>> faceIndicesOnHalfedge;
 
 	private final List<OriFace> faces;
@@ -53,6 +54,18 @@ public class StackConditionFactoryFacade {
 	public StackConditionFactoryFacade(final List<OriFace> faces, final List<OriEdge> edges,
 			final OverlapRelation overlapRelation,
 			final List<SubFace> subfaces, final double eps) {
+		this(faces, edges, overlapRelation, subfaces, new FaceBoundingBoxIndex(faces, eps), eps);
+	}
+
+	/**
+	 *
+	 * @param faceIndex
+	 *            index of the faces shared with other computations on the
+	 *            same model.
+	 */
+	public StackConditionFactoryFacade(final List<OriFace> faces, final List<OriEdge> edges,
+			final OverlapRelation overlapRelation,
+			final List<SubFace> subfaces, final FaceBoundingBoxIndex faceIndex, final double eps) {
 
 		this.faces = faces;
 		this.edges = edges;
@@ -60,8 +73,8 @@ public class StackConditionFactoryFacade {
 		this.eps = eps;
 
 		var watch = new StopWatch(true);
-		subFacesOfEachFace = new FaceToSubfacesFactory().create(faces, subfaces);
-		logger.debug("create subfacesOfEachFace {}[ms]", watch.getMilliSec());
+		subfaceMasksOfEachFace = new FaceToSubfacesFactory().createMasks(faces, subfaces);
+		logger.debug("create subfaceMasksOfEachFace {}[ms]", watch.getMilliSec());
 
 		watch.start();
 		overlappingFaceIndexIntersections = new OverlappingFaceIndexIntersectionFactory().create(
@@ -69,7 +82,7 @@ public class StackConditionFactoryFacade {
 		logger.debug("create overlappingFaceIndexIntersections {}[ms]", watch.getMilliSec());
 
 		watch.start();
-		faceIndicesOnHalfedge = new FaceIndicesOnHalfEdgeFactory().create(faces, eps);
+		faceIndicesOnHalfedge = new FaceIndicesOnHalfEdgeFactory().create(faces, faceIndex, eps);
 		logger.debug("create faceIndicesOnHalfedge {}[ms]", watch.getMilliSec());
 
 	}
@@ -81,10 +94,10 @@ public class StackConditionFactoryFacade {
 
 	public List<StackConditionOf4Faces> create4FaceCondtions() {
 		return new StackConditionOf4FaceFactory().createAll(
-				faces, edges, overlapRelation, subFacesOfEachFace, eps);
+				faces, edges, overlapRelation, subfaceMasksOfEachFace, eps);
 	}
 
-	public List<Integer>[][] getOverlappingFaceIndexIntersections() {
+	public OverlappingFaceIndexIntersections getOverlappingFaceIndexIntersections() {
 		return overlappingFaceIndexIntersections;
 	}
 
@@ -19,10 +19,7 @@
 package oripa.domain.fold.condfac;
 
 import java.util.List;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,8 +28,6 @@ import oripa.domain.fold.halfedge.OriEdge;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.origeom.OverlapRelation;
 import oripa.domain.fold.stackcond.StackConditionOf4Faces;
-import oripa.domain.fold.subface.SubFace;
-import oripa.geom.GeomUtil;
 import oripa.util.StopWatch;
 
 /**
@@ -51,12 +46,13 @@ public class StackConditionOf4FaceFactory {
 	 *            all edges of the model
 	 * @param overlapRelation
 	 *            overlap relation matrix
-	 * @param subFacesOfEachFace
-	 *            mapping face to subface set
+	 * @param subfaceMasksOfEachFace
+	 *            bit masks of subfaces for each face ID. See
+	 *            {@link FaceToSubfacesFactory#createMasks(List, List)}.
 	 */
 	public List<StackConditionOf4Faces> createAll(final List<OriFace> faces,
 			final List<OriEdge> edges, final OverlapRelation overlapRelation,
-			final Map<OriFace, Set<SubFace>> subFacesOfEachFace,
+			final long[][] subfaceMasksOfEachFace,
 			final double eps) {
 		var condition4s = new ConcurrentLinkedQueue<StackConditionOf4Faces>();
 
@@ -65,66 +61,51 @@ public class StackConditionOf4FaceFactory {
 
 		var watch = new StopWatch(true);
 
-		IntStream.range(0, edgeNum).parallel().forEach(i -> {
-			OriEdge e0 = edges.get(i);
-			var e0LeftOpt = e0.getLeft();
-			var e0RightOpt = e0.getRight();
+		// edges on the boundary of the model are not needed.
+		var segments = edges.stream()
+				.map(e -> e.getLeft().isEmpty() || e.getRight().isEmpty() ? null : e.toSegment())
+				.toList();
 
-			if (e0LeftOpt.isEmpty() || e0RightOpt.isEmpty()) {
+		// only the edges on the same line can overlap.
+		var overlappingPairs = new OverlappingSegmentPairsFactory().create(segments, eps);
+
+		logger.debug("#overlapping edge pairs = {}", overlappingPairs.size());
+
+		overlappingPairs.parallelStream().forEach(pair -> {
+			OriEdge e0 = edges.get(pair.v1());
+			OriEdge e1 = edges.get(pair.v2());
+
+			var e0LeftFaceID = e0.getLeft().get().getFace().getFaceID();
+			var e0RightFaceID = e0.getRight().get().getFace().getFaceID();
+			var e1LeftFaceID = e1.getLeft().get().getFace().getFaceID();
+			var e1RightFaceID = e1.getRight().get().getFace().getFaceID();
+
+			if (!shareSubface(
+					subfaceMasksOfEachFace[e0LeftFaceID],
+					subfaceMasksOfEachFace[e0RightFaceID],
+					subfaceMasksOfEachFace[e1LeftFaceID],
+					subfaceMasksOfEachFace[e1RightFaceID])) {
 				return;
 			}
 
-			for (int j = i + 1; j < edgeNum; j++) {
-				OriEdge e1 = edges.get(j);
-				var e1LeftOpt = e1.getLeft();
-				var e1RightOpt = e1.getRight();
-				if (e1LeftOpt.isEmpty() || e1RightOpt.isEmpty()) {
-					continue;
-				}
-
-				if (!GeomUtil.isOverlap(e0.toSegment(), e1.toSegment(), eps)) {
-					continue;
-				}
-
-				var e0LeftFace = e0LeftOpt.get().getFace();
-				var e0RightFace = e0RightOpt.get().getFace();
-				var e1LeftFace = e1LeftOpt.get().getFace();
-				var e1RightFace = e1RightOpt.get().getFace();
-
-				var intersectionSubfaces = subFacesOfEachFace.get(e0LeftFace).stream()
-						.filter(s -> subFacesOfEachFace.get(e0RightFace).contains(s))
-						.filter(s -> subFacesOfEachFace.get(e1LeftFace).contains(s))
-						.filter(s -> subFacesOfEachFace.get(e1RightFace).contains(s))
-						.toList();
-
-				if (intersectionSubfaces.isEmpty()) {
-					continue;
-				}
-
-				var e0LeftFaceID = e0LeftFace.getFaceID();
-				var e0RightFaceID = e0RightFace.getFaceID();
-				var e1LeftFaceID = e1LeftFace.getFaceID();
-				var e1RightFaceID = e1RightFace.getFaceID();
-
-				int upper1, lower1, upper2, lower2;
-
-				if (overlapRelation.isUpper(e0LeftFaceID, e0RightFaceID)) {
-					upper1 = e0RightFaceID;
-					lower1 = e0LeftFaceID;
-				} else {
-					upper1 = e0LeftFaceID;
-					lower1 = e0RightFaceID;
-				}
-				if (overlapRelation.isUpper(e1LeftFaceID, e1RightFaceID)) {
-					upper2 = e1RightFaceID;
-					lower2 = e1LeftFaceID;
-				} else {
-					upper2 = e1LeftFaceID;
-					lower2 = e1RightFaceID;
-				}
-
-				condition4s.add(new StackConditionOf4Faces(upper1, lower1, upper2, lower2));
+			int upper1, lower1, upper2, lower2;
+
+			if (overlapRelation.isUpper(e0LeftFaceID, e0RightFaceID)) {
+				upper1 = e0RightFaceID;
+				lower1 = e0LeftFaceID;
+			} else {
+				upper1 = e0LeftFaceID;
+				lower1 = e0RightFaceID;
+			}
+			if (overlapRelation.isUpper(e1LeftFaceID, e1RightFaceID)) {
+				upper2 = e1RightFaceID;
+				lower2 = e1LeftFaceID;
+			} else {
+				upper2 = e1LeftFaceID;
+				lower2 = e1RightFaceID;
 			}
+
+			condition4s.add(new StackConditionOf4Faces(upper1, lower1, upper2, lower2));
 		});
 
 		logger.debug("#condition4 = {}", condition4s.size());
@@ -133,4 +114,17 @@ public class StackConditionOf4FaceFactory {
 		return condition4s.stream().toList();
 	}
 
+	/**
+	 *
+	 * @return {@code true} if the intersection of the given masks is not
+	 *         empty.
+	 */
+	private boolean shareSubface(final long[] mask0, final long[] mask1, final long[] mask2, final long[] mask3) {
+		for (int i = 0; i < mask0.length; i++) {
+			if ((mask0[i] & mask1[i] & mask2[i] & mask3[i]) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
 }
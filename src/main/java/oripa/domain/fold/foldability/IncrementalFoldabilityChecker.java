@@ -0,0 +1,213 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.foldability;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import oripa.domain.creasepattern.CreasePattern;
+import oripa.domain.fold.halfedge.LocalOriVertexFactory;
+import oripa.domain.fold.halfedge.OriVertex;
+import oripa.util.StopWatch;
+import oripa.util.collection.CollectionUtil;
+import oripa.value.OriLine;
+import oripa.value.OriPoint;
+
+/**
+ * Keeps the vertices violating local flat foldability up to date with a crease
+ * pattern. Each update compares the crease pattern with the lines seen at the
+ * previous update and tests only the vertices at the end points of the added
+ * or removed lines. The vertex rules depend only on the edges around the
+ * vertex, so each vertex is tested on its own edges built from the lines
+ * ending at it.
+ *
+ * The convexity of faces is not tested since it needs the whole faces.
+ *
+ * An instance is shared among the windows showing the crease pattern, so the
+ * public methods are synchronized.
+ */
+public class IncrementalFoldabilityChecker {
+	private static final Logger logger = LoggerFactory.getLogger(IncrementalFoldabilityChecker.class);
+
+	private final FoldabilityChecker checker = new FoldabilityChecker();
+	private final LocalOriVertexFactory vertexFactory = new LocalOriVertexFactory();
+
+	private final Set<OriLine> lines = new HashSet<>();
+	private final TreeMap<OriPoint, OriVertex> violatingVertices = new TreeMap<>();
+
+	private List<OriLine> addedLines = List.of();
+	private List<OriLine> removedLines = List.of();
+
+	private long modificationStamp;
+	private double pointEps = -1;
+
+	/**
+	 * Tests the vertices touched since the previous update. All vertices are
+	 * tested at the first time or if {@code pointEps} is changed.
+	 *
+	 * @param creasePattern
+	 *            the crease pattern to be tested.
+	 * @param pointEps
+	 *            the tolerance to identify vertices.
+	 * @return true if some vertices are tested, false if the crease pattern is
+	 *         the same as the previous update.
+	 */
+	public synchronized boolean update(final CreasePattern creasePattern, final double pointEps) {
+		if (this.pointEps != pointEps) {
+			clear();
+			this.pointEps = pointEps;
+		} else if (modificationStamp == creasePattern.getModificationStamp()) {
+			return false;
+		}
+
+		var watch = new StopWatch(true);
+
+		var changedPoints = new TreeSet<OriPoint>();
+
+		removedLines = lines.stream()
+				.filter(line -> !creasePattern.contains(line))
+				.toList();
+		removedLines.forEach(lines::remove);
+		removedLines.forEach(line -> addEndPoints(line, changedPoints));
+
+		addedLines = creasePattern.stream()
+				.filter(lines::add)
+				.toList();
+		addedLines.forEach(line -> addEndPoints(line, changedPoints));
+
+		var results = distinct(changedPoints).parallelStream()
+				.map(p -> new TestResult(p, createVertex(creasePattern, p)
+						.filter(vertex -> !checker.testLocalFlatFoldability(vertex))))
+				.toList();
+
+		results.forEach(result -> {
+			var p = result.point();
+			CollectionUtil.rangeMapInclusive(violatingVertices,
+					new OriPoint(p.getX() - pointEps, p.getY() - pointEps),
+					new OriPoint(p.getX() + pointEps, p.getY() + pointEps))
+					.keySet()
+					.removeIf(key -> key.equals(p, pointEps));
+		});
+		results.forEach(result -> result.violatingVertex()
+				.ifPresent(vertex -> violatingVertices.put(result.point(), vertex)));
+
+		modificationStamp = creasePattern.getModificationStamp();
+
+		logger.debug("update(): {} vertices tested in {}[ms]", changedPoints.size(), watch.getMilliSec());
+
+		return true;
+	}
+
+	/**
+	 * Drops the points which are the same as preceding ones within eps.
+	 */
+	private List<OriPoint> distinct(final TreeSet<OriPoint> points) {
+		var registered = new TreeSet<OriPoint>();
+
+		for (var p : points) {
+			var neighbors = CollectionUtil.rangeSetInclusive(registered,
+					new OriPoint(p.getX() - pointEps, p.getY() - pointEps),
+					new OriPoint(p.getX() + pointEps, p.getY() + pointEps));
+			if (neighbors.stream().noneMatch(q -> q.equals(p, pointEps))) {
+				registered.add(p);
+			}
+		}
+
+		return List.copyOf(registered);
+	}
+
+	private record TestResult(OriPoint point, Optional<OriVertex> violatingVertex) {
+	}
+
+	private void addEndPoints(final OriLine line, final Set<OriPoint> points) {
+		if (line.isAux()) {
+			return;
+		}
+		points.add(line.getOriPoint0());
+		points.add(line.getOriPoint1());
+	}
+
+	/**
+	 * Builds the vertex at {@code p} with the edges of the lines ending at it.
+	 *
+	 * @return the vertex, or empty if no line ends at {@code p} or if the
+	 *         vertex is removed on building origami model since it just joins
+	 *         two lines.
+	 */
+	private Optional<OriVertex> createVertex(final CreasePattern creasePattern, final OriPoint p) {
+		return vertexFactory.create(creasePattern, p, pointEps)
+				.filter(vertex -> !isMeaningless(vertex));
+	}
+
+	private boolean isMeaningless(final OriVertex vertex) {
+		if (vertex.edgeCount() != 2) {
+			return false;
+		}
+		var e0 = vertex.getEdge(0);
+		var e1 = vertex.getEdge(1);
+		var p = vertex.getPositionBeforeFolding();
+		var dir0 = e0.oppositeVertex(vertex).getPositionBeforeFolding().subtract(p);
+		var dir1 = e1.oppositeVertex(vertex).getPositionBeforeFolding().subtract(p);
+
+		return e0.getType() == e1.getType() && dir0.isParallel(dir1);
+	}
+
+	/**
+	 * @return the vertices violating some rule at the last update. Each vertex
+	 *         holds only the edges incident to it.
+	 */
+	public synchronized Collection<OriVertex> getViolatingVertices() {
+		return List.copyOf(violatingVertices.values());
+	}
+
+	/**
+	 * @return the lines which were not seen before the last update, including
+	 *         auxiliary ones.
+	 */
+	public synchronized Collection<OriLine> getAddedLines() {
+		return addedLines;
+	}
+
+	/**
+	 * @return the lines which disappeared at the last update, including
+	 *         auxiliary ones.
+	 */
+	public synchronized Collection<OriLine> getRemovedLines() {
+		return removedLines;
+	}
+
+	/**
+	 * Forgets the tested lines so that the next update tests all vertices.
+	 */
+	public synchronized void clear() {
+		lines.clear();
+		addedLines = List.of();
+		removedLines = List.of();
+		violatingVertices.clear();
+		modificationStamp = 0;
+	}
+}
@@ -59,6 +59,13 @@ public class KawasakiTheorem extends AbstractRule<OriVertex> {
 			return true;
 		}
 
+		// the alternating sum depends on the first edge for odd count, and
+		// such a vertex is never flat foldable.
+		if (vertex.edgeCount() % 2 != 0) {
+			logger.trace("odd number of edges");
+			return false;
+		}
+
 		double oddSum = 0;
 
 		for (int i = 0; i < vertex.edgeCount(); i++) {
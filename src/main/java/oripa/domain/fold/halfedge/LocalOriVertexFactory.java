@@ -0,0 +1,80 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.halfedge;
+
+import java.util.Comparator;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import oripa.domain.creasepattern.CreasePattern;
+import oripa.geom.RectangleDomain;
+import oripa.vecmath.Vector2d;
+
+/**
+ * Creates a vertex with the edges incident to it directly from the lines of
+ * crease pattern, without building the whole {@link OrigamiModel}. The
+ * opposite vertices of the edges hold no edges.
+ */
+public class LocalOriVertexFactory {
+
+	/**
+	 *
+	 * @param creasePattern
+	 *            whose line index is used to find the lines ending at
+	 *            {@code position}.
+	 * @param position
+	 *            the position near the vertex.
+	 * @param pointEps
+	 *            the tolerance to identify the end points of lines with
+	 *            {@code position}.
+	 * @return the vertex at the end point of lines nearest to
+	 *         {@code position}, or empty if no line except auxiliary ones ends
+	 *         at {@code position}.
+	 */
+	public Optional<OriVertex> create(final CreasePattern creasePattern, final Vector2d position,
+			final double pointEps) {
+		var domain = new RectangleDomain(position.getX() - pointEps, position.getY() - pointEps,
+				position.getX() + pointEps, position.getY() + pointEps);
+
+		var sharedLines = creasePattern.clip(domain, pointEps).stream()
+				.filter(line -> !line.isAux())
+				.filter(line -> line.length() >= pointEps)
+				.filter(line -> line.getP0().equals(position, pointEps) || line.getP1().equals(position, pointEps))
+				.toList();
+
+		if (sharedLines.isEmpty()) {
+			return Optional.empty();
+		}
+
+		// the edges should start from a shared end point as model vertices do.
+		var vertexPosition = sharedLines.stream()
+				.flatMap(line -> Stream.of(line.getP0(), line.getP1()))
+				.filter(p -> p.equals(position, pointEps))
+				.min(Comparator.comparing(p -> p.distance(position)))
+				.get();
+
+		var vertex = new OriVertex(vertexPosition);
+		for (var line : sharedLines) {
+			var opposite = line.getP0().equals(position, pointEps) ? line.getP1() : line.getP0();
+			vertex.addEdge(new OriEdge(vertex, new OriVertex(opposite), line.getType().toInt()));
+		}
+
+		return Optional.of(vertex);
+	}
+}
@@ -0,0 +1,249 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.origeom;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import oripa.domain.fold.halfedge.OriFace;
+import oripa.geom.Segment;
+import oripa.vecmath.Vector2d;
+
+/**
+ * Uniform grid of the bounding boxes of faces at the current positions (after
+ * folding). This is a broad phase for geometric tests among faces: a query
+ * returns faces whose bounding boxes intersect the given box, and the caller
+ * runs the exact test only for them. The boxes are enlarged by eps so that
+ * no face which the exact tests with the same eps would accept is missed.
+ *
+ * Faces without vertices are not indexed. The positions should not be
+ * changed after the construction.
+ */
+public class FaceBoundingBoxIndex {
+	private static final int MAX_DIVISION = 1024;
+
+	private final List<OriFace> faces;
+
+	private final double[] minXs;
+	private final double[] minYs;
+	private final double[] maxXs;
+	private final double[] maxYs;
+
+	private final double left;
+	private final double top;
+	private final double cellWidth;
+	private final double cellHeight;
+	private final int division;
+
+	/**
+	 * [cell index] is the indices of faces (in the given list) whose boxes
+	 * intersect the cell.
+	 */
+	private final int[][] cells;
+
+	/**
+	 *
+	 * @param faces
+	 *            faces to be indexed. The positions are read from the
+	 *            half-edges.
+	 * @param eps
+	 *            eps for enlarging the boxes.
+	 */
+	public FaceBoundingBoxIndex(final List<OriFace> faces, final double eps) {
+		this.faces = faces;
+
+		int faceCount = faces.size();
+		minXs = new double[faceCount];
+		minYs = new double[faceCount];
+		maxXs = new double[faceCount];
+		maxYs = new double[faceCount];
+
+		double left = Double.POSITIVE_INFINITY, top = Double.POSITIVE_INFINITY;
+		double right = Double.NEGATIVE_INFINITY, bottom = Double.NEGATIVE_INFINITY;
+
+		for (int i = 0; i < faceCount; i++) {
+			var positions = faces.get(i).halfedgeStream()
+					.map(he -> he.getPosition())
+					.toList();
+
+			minXs[i] = positions.stream().mapToDouble(Vector2d::getX).min().orElse(Double.POSITIVE_INFINITY) - eps;
+			minYs[i] = positions.stream().mapToDouble(Vector2d::getY).min().orElse(Double.POSITIVE_INFINITY) - eps;
+			maxXs[i] = positions.stream().mapToDouble(Vector2d::getX).max().orElse(Double.NEGATIVE_INFINITY) + eps;
+			maxYs[i] = positions.stream().mapToDouble(Vector2d::getY).max().orElse(Double.NEGATIVE_INFINITY) + eps;
+
+			if (isIndexed(i)) {
+				left = Math.min(left, minXs[i]);
+				top = Math.min(top, minYs[i]);
+				right = Math.max(right, maxXs[i]);
+				bottom = Math.max(bottom, maxYs[i]);
+			}
+		}
+
+		if (left > right) {
+			// nothing to be indexed.
+			left = top = 0;
+			right = bottom = 1;
+		}
+
+		this.left = left;
+		this.top = top;
+
+		// about one face per cell.
+		division = (int) Math.max(1, Math.min(MAX_DIVISION, Math.ceil(Math.sqrt(faceCount))));
+		cellWidth = Math.max((right - left) / division, Double.MIN_NORMAL);
+		cellHeight = Math.max((bottom - top) / division, Double.MIN_NORMAL);
+
+		var counts = new int[division * division];
+		for (int i = 0; i < faceCount; i++) {
+			if (!isIndexed(i)) {
+				continue;
+			}
+			forEachCell(minXs[i], minYs[i], maxXs[i], maxYs[i], cell -> counts[cell]++);
+		}
+
+		cells = new int[division * division][];
+		for (int cell = 0; cell < cells.length; cell++) {
+			cells[cell] = new int[counts[cell]];
+		}
+
+		Arrays.fill(counts, 0);
+		for (int i = 0; i < faceCount; i++) {
+			if (!isIndexed(i)) {
+				continue;
+			}
+			final int faceIndex = i;
+			forEachCell(minXs[i], minYs[i], maxXs[i], maxYs[i],
+					cell -> cells[cell][counts[cell]++] = faceIndex);
+		}
+	}
+
+	private boolean isIndexed(final int i) {
+		return minXs[i] <= maxXs[i];
+	}
+
+	private int toColumn(final double x) {
+		return Math.clamp((long) Math.floor((x - left) / cellWidth), 0, division - 1);
+	}
+
+	private int toRow(final double y) {
+		return Math.clamp((long) Math.floor((y - top) / cellHeight), 0, division - 1);
+	}
+
+	private void forEachCell(final double minX, final double minY, final double maxX, final double maxY,
+			final IntConsumer action) {
+		int column0 = toColumn(minX);
+		int column1 = toColumn(maxX);
+		int row0 = toRow(minY);
+		int row1 = toRow(maxY);
+
+		for (int row = row0; row <= row1; row++) {
+			for (int column = column0; column <= column1; column++) {
+				action.accept(row * division + column);
+			}
+		}
+	}
+
+	/**
+	 * Returns the faces whose bounding boxes intersect the given box.
+	 *
+	 * @return candidate faces in the order of the list given to the
+	 *         constructor.
+	 */
+	public List<OriFace> query(final double minX, final double minY, final double maxX, final double maxY) {
+		return Arrays.stream(queryIndices(minX, minY, maxX, maxY))
+				.mapToObj(faces::get)
+				.toList();
+	}
+
+	/**
+	 * Returns the indices of the faces whose bounding boxes intersect the
+	 * given box.
+	 *
+	 * @return ascending indices of candidate faces in the list given to the
+	 *         constructor.
+	 */
+	public int[] queryIndices(final double minX, final double minY, final double maxX, final double maxY) {
+		if (minX > maxX || minY > maxY) {
+			return new int[0];
+		}
+
+		var builder = IntStream.builder();
+		forEachCell(minX, minY, maxX, maxY, cell -> {
+			for (int i : cells[cell]) {
+				if (minXs[i] <= maxX && minX <= maxXs[i] && minYs[i] <= maxY && minY <= maxYs[i]) {
+					builder.add(i);
+				}
+			}
+		});
+
+		return builder.build()
+				.sorted()
+				.distinct()
+				.toArray();
+	}
+
+	/**
+	 *
+	 * @return candidate faces which may include the given points.
+	 */
+	public List<OriFace> query(final List<Vector2d> points) {
+		return query(
+				points.stream().mapToDouble(Vector2d::getX).min().orElse(Double.POSITIVE_INFINITY),
+				points.stream().mapToDouble(Vector2d::getY).min().orElse(Double.POSITIVE_INFINITY),
+				points.stream().mapToDouble(Vector2d::getX).max().orElse(Double.NEGATIVE_INFINITY),
+				points.stream().mapToDouble(Vector2d::getY).max().orElse(Double.NEGATIVE_INFINITY));
+	}
+
+	/**
+	 *
+	 * @return candidate faces which may intersect the given segment.
+	 */
+	public List<OriFace> query(final Segment segment) {
+		return query(List.of(segment.getP0(), segment.getP1()));
+	}
+
+	/**
+	 *
+	 * @return candidate faces which may overlap the given face, including the
+	 *         face itself if it is indexed.
+	 */
+	public List<OriFace> query(final OriFace face) {
+		return query(face.halfedgeStream()
+				.map(he -> he.getPosition())
+				.toList());
+	}
+
+	/**
+	 *
+	 * @return ascending indices of candidate faces which may overlap the given
+	 *         face, including the face itself if it is indexed.
+	 */
+	public int[] queryIndices(final OriFace face) {
+		var points = face.halfedgeStream()
+				.map(he -> he.getPosition())
+				.toList();
+		return queryIndices(
+				points.stream().mapToDouble(Vector2d::getX).min().orElse(Double.POSITIVE_INFINITY),
+				points.stream().mapToDouble(Vector2d::getY).min().orElse(Double.POSITIVE_INFINITY),
+				points.stream().mapToDouble(Vector2d::getX).max().orElse(Double.NEGATIVE_INFINITY),
+				points.stream().mapToDouble(Vector2d::getY).max().orElse(Double.NEGATIVE_INFINITY));
+	}
+}
@@ -18,10 +18,13 @@
  */
 package oripa.domain.fold.origeom;
 
+import java.util.function.IntConsumer;
+
 import oripa.util.AtomicByteDenseMatrix;
 import oripa.util.BitBlockByteMatrix;
 import oripa.util.ByteMatrix;
 import oripa.util.ByteSparseMatrix;
+import oripa.util.CopyOnWriteBitBlockByteMatrix;
 
 /**
  * A wrapper of integer matrix for overlap relation operations.
@@ -103,6 +106,14 @@ public class OverlapRelation {
 	}
 
 	public void copyTo(final OverlapRelation o) {
+		if (overlapRelation instanceof BitBlockByteMatrix source
+				&& o.overlapRelation instanceof BitBlockByteMatrix destination
+				&& destination.hasSameShape(source)) {
+			for (int i = 0; i < getSize(); i++) {
+				destination.copyRowFrom(i, source);
+			}
+			return;
+		}
 		for (int i = 0; i < getSize(); i++) {
 			for (int j = i; j < getSize(); j++) {
 				o.set(i, j, get(i, j));
@@ -120,6 +131,29 @@ public class OverlapRelation {
 		overlapRelation = sparse;
 	}
 
+	/**
+	 * Switches the internal matrix to the one whose {@link #clone()} shares
+	 * the rows with the original until they are written. This reduces the
+	 * memory usage and the cost of cloning when each clone modifies only a
+	 * part of the relation, such as the branches of layer order search.
+	 */
+	public void switchToCopyOnWriteMatrix() {
+		if (overlapRelation instanceof CopyOnWriteBitBlockByteMatrix) {
+			return;
+		}
+		if (overlapRelation instanceof BitBlockByteMatrix bitBlockMatrix) {
+			overlapRelation = new CopyOnWriteBitBlockByteMatrix(bitBlockMatrix);
+			return;
+		}
+		var copyOnWrite = new CopyOnWriteBitBlockByteMatrix(getSize(), getSize(), 2);
+		for (int i = 0; i < overlapRelation.rowCount(); i++) {
+			for (int j = 0; j < overlapRelation.columnCount(); j++) {
+				copyOnWrite.set(i, j, overlapRelation.get(i, j));
+			}
+		}
+		overlapRelation = copyOnWrite;
+	}
+
 	/**
 	 *
 	 * @param i
@@ -284,6 +318,62 @@ public class OverlapRelation {
 		return overlapRelation.get(i, j) == NO_OVERLAP;
 	}
 
+	/**
+	 *
+	 * @param i
+	 *            row index
+	 * @param value
+	 *            a value of {@link OverlapRelationValues}
+	 * @return the number of j such that {@code overlapRelation[i][j]} is equal
+	 *         to {@code value}.
+	 */
+	public int count(final int i, final byte value) {
+		return overlapRelation.countInRow(i, toInternal(value));
+	}
+
+	/**
+	 * Calls {@code action} for each j such that {@code overlapRelation[i][j]}
+	 * is equal to {@code value}, in ascending order of j.
+	 *
+	 * @param i
+	 *            row index
+	 * @param value
+	 *            a value of {@link OverlapRelationValues}
+	 */
+	public void forEachIndexOf(final int i, final byte value, final IntConsumer action) {
+		overlapRelation.forEachColumnInRow(i, toInternal(value), action);
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            row index
+	 * @param value
+	 *            a value of {@link OverlapRelationValues}
+	 * @return a bit set whose j-th bit is 1 if {@code overlapRelation[i][j]} is
+	 *         equal to {@code value}. The length is
+	 *         {@code ceil(getSize() / 64)}.
+	 */
+	public long[] createMask(final int i, final byte value) {
+		return overlapRelation.createRowMask(i, toInternal(value));
+	}
+
+	/**
+	 *
+	 * @param i
+	 *            row index
+	 * @param value
+	 *            a value of {@link OverlapRelationValues}
+	 * @param indexMask
+	 *            a bit set of face indices in the same format as
+	 *            {@link #createMask(int, byte)}.
+	 * @return {@code true} if {@code overlapRelation[i][j]} is equal to
+	 *         {@code value} for some j in the mask.
+	 */
+	public boolean contains(final int i, final byte value, final long[] indexMask) {
+		return overlapRelation.anyInRow(i, toInternal(value), indexMask);
+	}
+
 	public EstimationResult setLowerIfPossible(final int i, final int j) {
 
 		return setIfPossible(i, j, OverlapRelationValues.LOWER);
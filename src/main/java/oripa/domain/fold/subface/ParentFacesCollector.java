@@ -21,6 +21,7 @@ package oripa.domain.fold.subface;
 import java.util.List;
 
 import oripa.domain.fold.halfedge.OriFace;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 
 /**
  * @author OUCHI Koji
@@ -35,4 +36,20 @@ public class ParentFacesCollector {
 				.filter(face -> innerPoints.stream().anyMatch(innerPoint -> face.includesExclusively(innerPoint, eps)))
 				.toList();
 	}
+
+	/**
+	 * Collects parent faces by testing only the faces whose bounding boxes
+	 * contain the inner points of the subface.
+	 *
+	 * @param faceIndex
+	 *            index of all faces of the model.
+	 */
+	public List<OriFace> collect(final FaceBoundingBoxIndex faceIndex, final SubFace sub,
+			final double eps) {
+		var innerPoints = sub.getInnerPoints(eps);
+
+		return faceIndex.query(innerPoints).stream()
+				.filter(face -> innerPoints.stream().anyMatch(innerPoint -> face.includesExclusively(innerPoint, eps)))
+				.toList();
+	}
 }
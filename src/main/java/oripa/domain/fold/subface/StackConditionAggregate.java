@@ -18,10 +18,8 @@
  */
 package oripa.domain.fold.subface;
 
-import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import oripa.domain.fold.halfedge.OriFace;
@@ -34,139 +32,260 @@ import oripa.domain.fold.stackcond.StackConditionOf4Faces;
  * shared among processes running in parallel for ordering with a certain
  * overlap relation.
  *
+ * Parent faces are remapped to local indices 0..k-1 in the order of the given
+ * list and all conditions are held in primitive arrays of local indices. The
+ * ordering state is expected to be a bit mask of the placed faces (see
+ * {@link #createPlacedMask()}) and an int array of the positions on the
+ * ordering, which keeps the tests allocation-free.
+ *
  * @author OUCHI Koji
  *
  */
 class StackConditionAggregate {
-	private final HashMap<OriFace, List<Integer>> stackConditionsOf2Faces = new HashMap<>();
-	private final HashMap<OriFace, List<StackConditionOf3Faces>> stackConditionsOf3Faces = new HashMap<>();
-	private final HashMap<OriFace, List<StackConditionOf4Faces>> stackConditionsOf4Faces = new HashMap<>();
+	private static final int[] EMPTY = new int[0];
+
+	private final List<OriFace> parentFaces;
+	private final int[] localIndexOfFaceID;
+	private final int wordCount;
+
+	/**
+	 * [i] is the mask of faces which should be placed before face i.
+	 */
+	private long[][] stackConditionsOf2Faces;
+	private int[] countsOfConditionsOf2Faces;
+
+	/**
+	 * [i][j] is the lower/upper face of j-th condition where face i is the
+	 * other.
+	 */
+	private int[][] lowersOf3Faces;
+	private int[][] uppersOf3Faces;
+
+	/**
+	 * [i][j] describes j-th condition where face i is one of the upper faces:
+	 * face i cannot be placed if both of first and second are placed, partner
+	 * is not placed and first is placed before second.
+	 */
+	private int[][] firstsOf4Faces;
+	private int[][] secondsOf4Faces;
+	private int[][] partnersOf4Faces;
+	private int[] countsOfConditionsOf4Faces;
 
 	private final AtomicInteger failureCountOf2Faces = new AtomicInteger();
 	private final AtomicInteger failureCountOf3Faces = new AtomicInteger();
 	private final AtomicInteger failureCountOf4Faces = new AtomicInteger();
 
 	/**
-	 * Creates stack conditions of 2 faces for a subface and stores in
-	 * conditions in a style for efficient computation.
 	 *
 	 * @param parentFaces
 	 *            faces containing the subface.
+	 */
+	StackConditionAggregate(final List<OriFace> parentFaces) {
+		this.parentFaces = parentFaces;
+
+		var maxFaceID = parentFaces.stream().mapToInt(OriFace::getFaceID).max().orElse(-1);
+		localIndexOfFaceID = new int[maxFaceID + 1];
+		Arrays.fill(localIndexOfFaceID, -1);
+		for (int i = 0; i < parentFaces.size(); i++) {
+			localIndexOfFaceID[parentFaces.get(i).getFaceID()] = i;
+		}
+
+		wordCount = (parentFaces.size() + Long.SIZE - 1) / Long.SIZE;
+	}
+
+	/**
+	 *
+	 * @return the local index of the given face. -1 if the face is not a
+	 *         parent face.
+	 */
+	int getLocalIndex(final OriFace face) {
+		var faceID = face.getFaceID();
+		return faceID < localIndexOfFaceID.length ? localIndexOfFaceID[faceID] : -1;
+	}
+
+	/**
+	 *
+	 * @return an empty mask for the placed faces.
+	 */
+	long[] createPlacedMask() {
+		return new long[wordCount];
+	}
+
+	static boolean isPlaced(final long[] placedMask, final int localIndex) {
+		return (placedMask[localIndex >>> 6] & (1L << localIndex)) != 0;
+	}
+
+	static void setPlaced(final long[] placedMask, final int localIndex) {
+		placedMask[localIndex >>> 6] |= 1L << localIndex;
+	}
+
+	static void clearPlaced(final long[] placedMask, final int localIndex) {
+		placedMask[localIndex >>> 6] &= ~(1L << localIndex);
+	}
+
+	/**
+	 * Creates stack conditions of 2 faces for a subface and stores in
+	 * conditions in a style for efficient computation.
+	 *
 	 * @param overlapRelation
 	 *            overlap relation matrix.
 	 */
 	void prepareConditionsOf2Faces(
-			final List<OriFace> parentFaces,
 			final OverlapRelation overlapRelation) {
-		for (OriFace f : parentFaces) {
-			stackConditionsOf2Faces.put(f, new ArrayList<Integer>());
+		var faceCount = parentFaces.size();
 
-			var faceID = f.getFaceID();
-			for (OriFace ff : parentFaces) {
-				var anotherFaceID = ff.getFaceID();
+		stackConditionsOf2Faces = new long[faceCount][wordCount];
+		countsOfConditionsOf2Faces = new int[faceCount];
+
+		for (int i = 0; i < faceCount; i++) {
+			var faceID = parentFaces.get(i).getFaceID();
+			for (int j = 0; j < faceCount; j++) {
+				var anotherFaceID = parentFaces.get(j).getFaceID();
 				if (overlapRelation.isLower(faceID, anotherFaceID)) {
-					stackConditionsOf2Faces.get(f).add(anotherFaceID);
+					setPlaced(stackConditionsOf2Faces[i], j);
+					countsOfConditionsOf2Faces[i]++;
 				}
 			}
 		}
-
 	}
 
 	/**
 	 * Stores given stack conditions of 3 faces for a subface in a style for
 	 * efficient computation.
 	 *
-	 * @param parentFaces
-	 *            faces containing the subface.
-	 * @param overlapRelation
-	 *            overlap relation matrix.
 	 * @param condition3s
-	 *            stack conditions of 3 faces.
+	 *            stack conditions of 3 faces. All faces in the conditions
+	 *            should be parent faces.
 	 */
 	void prepareConditionsOf3Faces(
-			final List<OriFace> parentFaces,
-			final OverlapRelation overlapRelation,
 			final List<StackConditionOf3Faces> condition3s) {
-		for (OriFace f : parentFaces) {
-			stackConditionsOf3Faces.put(f, new ArrayList<StackConditionOf3Faces>());
+		var faceCount = parentFaces.size();
 
-			var faceID = f.getFaceID();
-			for (StackConditionOf3Faces cond : condition3s) {
-				if (faceID == cond.other()) {
-					stackConditionsOf3Faces.get(f).add(cond);
-				}
-			}
+		var counts = new int[faceCount];
+		for (var cond : condition3s) {
+			counts[localIndexOfFaceID[cond.other()]]++;
+		}
+
+		lowersOf3Faces = new int[faceCount][];
+		uppersOf3Faces = new int[faceCount][];
+		for (int i = 0; i < faceCount; i++) {
+			lowersOf3Faces[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+			uppersOf3Faces[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
 		}
 
+		Arrays.fill(counts, 0);
+		for (var cond : condition3s) {
+			var i = localIndexOfFaceID[cond.other()];
+			lowersOf3Faces[i][counts[i]] = localIndexOfFaceID[cond.lower()];
+			uppersOf3Faces[i][counts[i]] = localIndexOfFaceID[cond.upper()];
+			counts[i]++;
+		}
 	}
 
 	/**
 	 * Stores given stack conditions of 4 faces for a subface in a style for
 	 * efficient computation.
 	 *
-	 * @param parentFaces
-	 *            faces containing the subface.
-	 * @param overlapRelation
-	 *            overlap relation matrix.
-	 * @param condition3s
-	 *            stack conditions of 4 faces.
+	 * @param condition4s
+	 *            stack conditions of 4 faces. All faces in the conditions
+	 *            should be parent faces.
 	 */
 	void prepareConditionsOf4Faces(
-			final List<OriFace> parentFaces,
-			final OverlapRelation overlapRelation,
 			final List<StackConditionOf4Faces> condition4s) {
-		for (OriFace f : parentFaces) {
-			stackConditionsOf4Faces.put(f, new ArrayList<StackConditionOf4Faces>());
-
-			var faceID = f.getFaceID();
-			for (StackConditionOf4Faces cond : condition4s) {
-				if (faceID == cond.upper1() || faceID == cond.upper2()) {
-					stackConditionsOf4Faces.get(f).add(cond);
-				}
+		var faceCount = parentFaces.size();
+
+		// a condition is tested from both of upper faces.
+		var counts = new int[faceCount];
+		countsOfConditionsOf4Faces = new int[faceCount];
+		for (var cond : condition4s) {
+			var upper1 = localIndexOfFaceID[cond.upper1()];
+			var upper2 = localIndexOfFaceID[cond.upper2()];
+			counts[upper1]++;
+			counts[upper2]++;
+			countsOfConditionsOf4Faces[upper1]++;
+			if (upper1 != upper2) {
+				countsOfConditionsOf4Faces[upper2]++;
 			}
 		}
+
+		firstsOf4Faces = new int[faceCount][];
+		secondsOf4Faces = new int[faceCount][];
+		partnersOf4Faces = new int[faceCount][];
+		for (int i = 0; i < faceCount; i++) {
+			firstsOf4Faces[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+			secondsOf4Faces[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+			partnersOf4Faces[i] = counts[i] == 0 ? EMPTY : new int[counts[i]];
+		}
+
+		// stack lower2 < lower1, without upper1 being stacked, dont stack
+		// upper2
+		// stack lower1 < lower2, without upper2 being stacked, dont stack
+		// upper1
+		Arrays.fill(counts, 0);
+		for (var cond : condition4s) {
+			var lower1 = localIndexOfFaceID[cond.lower1()];
+			var lower2 = localIndexOfFaceID[cond.lower2()];
+			var upper1 = localIndexOfFaceID[cond.upper1()];
+			var upper2 = localIndexOfFaceID[cond.upper2()];
+
+			addConditionOf4Faces(upper2, lower2, lower1, upper1, counts);
+			addConditionOf4Faces(upper1, lower1, lower2, upper2, counts);
+		}
+	}
+
+	private void addConditionOf4Faces(final int face, final int first, final int second, final int partner,
+			final int[] counts) {
+		var j = counts[face]++;
+		firstsOf4Faces[face][j] = first;
+		secondsOf4Faces[face][j] = second;
+		partnersOf4Faces[face][j] = partner;
 	}
 
 	/**
 	 * Test whether the given face can be put at the last position of the
 	 * ordering.
 	 *
-	 * @param alreadyInLocalLayerOrder
-	 *            a boolean array where [i] is whether a face with face ID i has
-	 *            been used in local layer order.
-	 * @param f
-	 *            a face to be tested.
-	 * @return {@code true} if {@code f} satisfies the condition of 2 faces.
+	 * @param placedMask
+	 *            a bit mask where bit i is whether a face with local index i
+	 *            has been used in local layer order.
+	 * @param face
+	 *            local index of a face to be tested.
+	 * @return {@code true} if {@code face} satisfies the condition of 2 faces.
 	 */
 	boolean satisfiesConditionsOf2Faces(
-			final boolean[] alreadyInLocalLayerOrder,
-			final OriFace f) {
-		if (stackConditionsOf2Faces.get(f).stream()
-				.allMatch(i -> alreadyInLocalLayerOrder[i])) {
-			return true;
+			final long[] placedMask,
+			final int face) {
+		var condition = stackConditionsOf2Faces[face];
+		for (int w = 0; w < wordCount; w++) {
+			if ((condition[w] & ~placedMask[w]) != 0) {
+				failureCountOf2Faces.incrementAndGet();
+				return false;
+			}
 		}
-		failureCountOf2Faces.incrementAndGet();
-		return false;
+		return true;
 	}
 
 	/**
 	 * Test whether the given face can be put at the last position of the
 	 * ordering.
 	 *
-	 * @param alreadyInLocalLayerOrder
-	 *            a boolean array where [i] is whether a face with face ID i has
-	 *            been used in local layer order.
-	 * @param f
-	 *            a face to be tested.
-	 * @return {@code true} if {@code f} satisfies the condition of 3 faces.
+	 * @param placedMask
+	 *            a bit mask where bit i is whether a face with local index i
+	 *            has been used in local layer order.
+	 * @param face
+	 *            local index of a face to be tested.
+	 * @return {@code true} if {@code face} satisfies the condition of 3 faces.
 	 */
 	boolean satisfiesConditionsOf3Faces(
-			final boolean[] alreadyInLocalLayerOrder,
-			final OriFace face) {
-		if (stackConditionsOf3Faces.get(face).stream().anyMatch(cond -> alreadyInLocalLayerOrder[cond.lower()]
-				&& !alreadyInLocalLayerOrder[cond.upper()])) {
-			failureCountOf3Faces.incrementAndGet();
-			return false;
+			final long[] placedMask,
+			final int face) {
+		var lowers = lowersOf3Faces[face];
+		var uppers = uppersOf3Faces[face];
+		for (int j = 0; j < lowers.length; j++) {
+			if (isPlaced(placedMask, lowers[j]) && !isPlaced(placedMask, uppers[j])) {
+				failureCountOf3Faces.incrementAndGet();
+				return false;
+			}
 		}
 
 		return true;
@@ -176,48 +295,36 @@ class StackConditionAggregate {
 	 * Test whether the given face can be put at the last position of the
 	 * ordering.
 	 *
-	 * @param modelFaces
-	 *            all faces of origami model.
-	 * @param alreadyInLocalLayerOrder
-	 *            a boolean array where [i] is whether a face with face ID i has
-	 *            been used in local layer order.
+	 * @param placedMask
+	 *            a bit mask where bit i is whether a face with local index i
+	 *            has been used in local layer order.
 	 * @param indexOnOrdering
-	 *            a mapping face to index on local layer order.
-	 * @param f
-	 *            a face to be tested.
-	 * @return {@code true} if {@code f} satisfies the condition of 2 faces.
+	 *            an array where [i] is the index of face i on local layer
+	 *            order.
+	 * @param face
+	 *            local index of a face to be tested.
+	 * @return {@code true} if {@code face} satisfies the condition of 4 faces.
 	 */
 	boolean satisfiesConditionsOf4Faces(
-			final List<OriFace> modelFaces,
-			final boolean[] alreadyInLocalLayerOrder,
-			final Map<OriFace, Integer> indexOnOrdering,
-			final OriFace face) {
+			final long[] placedMask,
+			final int[] indexOnOrdering,
+			final int face) {
 		// check condition4
 		// aabb or abba or baab are good, but aba or bab are impossible
 
-		// stack lower2 < lower1, without upper1 being stacked, dont stack
-		// upper2
-		// stack lower1 < lower2, without upper2 being stacked, dont stack
-		// upper1
-
-		if (stackConditionsOf4Faces.get(face).stream().anyMatch(cond -> face.getFaceID() == cond.upper2()
-				&& alreadyInLocalLayerOrder[cond.lower2()]
-				&& alreadyInLocalLayerOrder[cond.lower1()]
-				&& !alreadyInLocalLayerOrder[cond.upper1()]
-				&& indexOnOrdering.get(modelFaces.get(cond.lower2())) < indexOnOrdering
-						.get(modelFaces.get(cond.lower1())))) {
-			failureCountOf4Faces.incrementAndGet();
-			return false;
-		}
-
-		if (stackConditionsOf4Faces.get(face).stream().anyMatch(cond -> face.getFaceID() == cond.upper1()
-				&& alreadyInLocalLayerOrder[cond.lower2()]
-				&& alreadyInLocalLayerOrder[cond.lower1()]
-				&& !alreadyInLocalLayerOrder[cond.upper2()]
-				&& indexOnOrdering.get(modelFaces.get(cond.lower1())) < indexOnOrdering.get(modelFaces
-						.get(cond.lower2())))) {
-			failureCountOf4Faces.incrementAndGet();
-			return false;
+		var firsts = firstsOf4Faces[face];
+		var seconds = secondsOf4Faces[face];
+		var partners = partnersOf4Faces[face];
+		for (int j = 0; j < firsts.length; j++) {
+			var first = firsts[j];
+			var second = seconds[j];
+			if (isPlaced(placedMask, first)
+					&& isPlaced(placedMask, second)
+					&& !isPlaced(placedMask, partners[j])
+					&& indexOnOrdering[first] < indexOnOrdering[second]) {
+				failureCountOf4Faces.incrementAndGet();
+				return false;
+			}
 		}
 
 		return true;
@@ -226,31 +333,31 @@ class StackConditionAggregate {
 	/**
 	 *
 	 * @param face
-	 *            target face.
+	 *            local index of target face.
 	 * @return the number of conditions of 2 faces for given face.
 	 */
-	int getCountOfConditionsOf2Faces(final OriFace face) {
-		return stackConditionsOf2Faces.get(face).size();
+	int getCountOfConditionsOf2Faces(final int face) {
+		return countsOfConditionsOf2Faces[face];
 	}
 
-	int getCountOfConditionsOf3Faces(final OriFace face) {
-		return stackConditionsOf3Faces.get(face).size();
+	int getCountOfConditionsOf3Faces(final int face) {
+		return lowersOf3Faces[face].length;
 	}
 
-	int getCountOfConditionsOf4Faces(final OriFace face) {
-		return stackConditionsOf4Faces.get(face).size();
+	int getCountOfConditionsOf4Faces(final int face) {
+		return countsOfConditionsOf4Faces[face];
 	}
 
 	int getAllCountOfConditionsOf2Faces() {
-		return stackConditionsOf2Faces.values().stream().mapToInt(List::size).sum();
+		return Arrays.stream(countsOfConditionsOf2Faces).sum();
 	}
 
 	int getAllCountOfConditionsOf3Faces() {
-		return stackConditionsOf3Faces.values().stream().mapToInt(List::size).sum();
+		return Arrays.stream(lowersOf3Faces).mapToInt(lowers -> lowers.length).sum();
 	}
 
 	int getAllCountOfConditionsOf4Faces() {
-		return stackConditionsOf4Faces.values().stream().mapToInt(List::size).sum();
+		return Arrays.stream(countsOfConditionsOf4Faces).sum();
 	}
 
 	int getFailureCountOf2Faces() {
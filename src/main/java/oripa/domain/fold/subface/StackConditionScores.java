@@ -0,0 +1,40 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.subface;
+
+import java.util.Comparator;
+
+/**
+ * Numbers of stack conditions on a subface per parent face. A subface with
+ * larger scores is expected to fail earlier in the search.
+ */
+public record StackConditionScores(
+		double of2Faces,
+		double of3Faces,
+		double of4Faces) {
+
+	/**
+	 * Orders scores from the largest.
+	 */
+	public static final Comparator<StackConditionScores> DESCENDING_ORDER = Comparator
+			.comparingDouble(StackConditionScores::of2Faces)
+			.thenComparingDouble(StackConditionScores::of3Faces)
+			.thenComparingDouble(StackConditionScores::of4Faces)
+			.reversed();
+}
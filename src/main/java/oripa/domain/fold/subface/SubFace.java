@@ -19,16 +19,17 @@
 package oripa.domain.fold.subface;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
 
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.origeom.OverlapRelation;
@@ -49,8 +50,6 @@ public class SubFace {
 	private final List<StackConditionOf4Faces> condition4s = new ArrayList<>();
 	private final List<StackConditionOf3Faces> condition3s = new ArrayList<>();
 
-	private List<OriFace> modelFaces;
-
 	private final AtomicInteger callCount = new AtomicInteger(0);
 	private final AtomicInteger successCount = new AtomicInteger(0);
 
@@ -91,8 +90,6 @@ public class SubFace {
 			final OverlapRelation overlapRelation,
 			final boolean parallel) {
 
-		this.modelFaces = modelFaces;
-
 		// Exit if the order is already settled
 		if (isLocalLayerOrderDeterminedByGlobal(overlapRelation)) {
 			return null;
@@ -102,44 +99,43 @@ public class SubFace {
 		// order is correct on this subface but it can be wrong on other
 		// subfaces.
 		var localLayerOrders = Collections.synchronizedList(new ArrayList<List<OriFace>>());
-		var localLayerOrder = new ArrayList<OriFace>();
-		var alreadyInLocalLayerOrder = new boolean[modelFaces.size()];
-		var indexOnOrdering = new HashMap<OriFace, Integer>();
-		var stackConditionAggregate = new StackConditionAggregate();
 
-		for (int i = 0; i < parentFaces.size(); i++) {
-			localLayerOrder.add(null);
-		}
+		// The ordering works on local indices of parent faces.
+		var stackConditionAggregate = new StackConditionAggregate(parentFaces);
 
-		stackConditionAggregate.prepareConditionsOf2Faces(parentFaces, overlapRelation);
-		stackConditionAggregate.prepareConditionsOf3Faces(parentFaces, overlapRelation, condition3s);
-		stackConditionAggregate.prepareConditionsOf4Faces(parentFaces, overlapRelation, condition4s);
+		stackConditionAggregate.prepareConditionsOf2Faces(overlapRelation);
+		stackConditionAggregate.prepareConditionsOf3Faces(condition3s);
+		stackConditionAggregate.prepareConditionsOf4Faces(condition4s);
 
-		for (OriFace f : parentFaces) {
-			alreadyInLocalLayerOrder[f.getFaceID()] = false;
-			indexOnOrdering.put(f, -1);
-		}
+		var faceCount = parentFaces.size();
+
+		var localLayerOrder = new int[faceCount];
+		var indexOnOrdering = new int[faceCount];
+		var placedMask = stackConditionAggregate.createPlacedMask();
+
+		Arrays.fill(indexOnOrdering, -1);
 
 		// Heuristic: a face with many stack conditions of 2 faces should be at
 		// some place with a large index on local layer order.
 		// Trying such face in early stage reduces failures at deep positions of
 		// the search tree.
 		// (earlier failure is better.)
-		var candidateFaces = parentFaces.stream()
-				.sorted(Comparator.comparing(stackConditionAggregate::getCountOfConditionsOf2Faces)
-						.thenComparing(stackConditionAggregate::getCountOfConditionsOf3Faces)
-						.thenComparing(stackConditionAggregate::getCountOfConditionsOf4Faces)
+		var candidateFaces = IntStream.range(0, faceCount).boxed()
+				.sorted(Comparator.<Integer>comparingInt(stackConditionAggregate::getCountOfConditionsOf2Faces)
+						.thenComparingInt(stackConditionAggregate::getCountOfConditionsOf3Faces)
+						.thenComparingInt(stackConditionAggregate::getCountOfConditionsOf4Faces)
 						.reversed())
-				.toList();
+				.mapToInt(Integer::intValue)
+				.toArray();
 
-		var firstFace = candidateFaces.get(0);
+		var firstFace = parentFaces.get(candidateFaces[0]);
 		firstFaceCounts.get(firstFace).incrementAndGet();
 
 		// From the bottom
 		sort(candidateFaces,
 				localLayerOrders,
 				localLayerOrder,
-				alreadyInLocalLayerOrder,
+				placedMask,
 				indexOnOrdering,
 				stackConditionAggregate,
 				0,
@@ -166,84 +162,94 @@ public class SubFace {
 		return true;
 	}
 
+	/**
+	 * Depth-first search of local layer orders. All arguments except
+	 * {@code localLayerOrders} are local indices of parent faces and the
+	 * search state is restored on return, so that no allocation happens
+	 * except for the answers (and the copies of state for parallel branches).
+	 */
 	private void sort(
-			final List<OriFace> candidateFaces,
+			final int[] candidateFaces,
 			final List<List<OriFace>> localLayerOrders,
-			final List<OriFace> localLayerOrder,
-			final boolean[] alreadyInLocalLayerOrder,
-			final Map<OriFace, Integer> indexOnOrdering,
+			final int[] localLayerOrder,
+			final long[] placedMask,
+			final int[] indexOnOrdering,
 			final StackConditionAggregate stackConditionAggregate,
 			final int index,
 			final boolean parallel) {
 
-		if (index == parentFaces.size()) {
-			var ans = new ArrayList<>(localLayerOrder);
+		if (index == localLayerOrder.length) {
+			var ans = new ArrayList<OriFace>(localLayerOrder.length);
+			for (int face : localLayerOrder) {
+				ans.add(parentFaces.get(face));
+			}
 			localLayerOrders.add(ans);
 			return;
 		}
 
-		var facesToBePut = candidateFaces.stream()
-				.filter(f -> !alreadyInLocalLayerOrder[f.getFaceID()])
-				.toList();
-		var facesToBePutStream = facesToBePut.stream();
-
 		// Avoids overhead of insane parallelization.
 		final int PARALLELIZATION_LOWER_BOUND = 8;
-		boolean doParallel = parallel && facesToBePut.size() > PARALLELIZATION_LOWER_BOUND;
-		if (doParallel) {
-			facesToBePutStream = facesToBePutStream.parallel();
+		if (parallel && localLayerOrder.length - index > PARALLELIZATION_LOWER_BOUND) {
+			Arrays.stream(candidateFaces)
+					.filter(f -> !StackConditionAggregate.isPlaced(placedMask, f))
+					.parallel()
+					.forEach(f -> {
+						if (!canPut(stackConditionAggregate, placedMask, indexOnOrdering, f)) {
+							return;
+						}
+
+						var nextLocalLayerOrder = localLayerOrder.clone();
+						var nextPlacedMask = placedMask.clone();
+						var nextIndexOnOrdering = indexOnOrdering.clone();
+
+						nextLocalLayerOrder[index] = f;
+						StackConditionAggregate.setPlaced(nextPlacedMask, f);
+						nextIndexOnOrdering[f] = index;
+
+						sort(candidateFaces,
+								localLayerOrders,
+								nextLocalLayerOrder,
+								nextPlacedMask,
+								nextIndexOnOrdering,
+								stackConditionAggregate,
+								index + 1,
+								parallel);
+					});
+			return;
 		}
 
-		facesToBePutStream.forEach(f -> {
-			if (!stackConditionAggregate.satisfiesConditionsOf2Faces(alreadyInLocalLayerOrder, f)) {
-				return;
+		for (int f : candidateFaces) {
+			if (StackConditionAggregate.isPlaced(placedMask, f)) {
+				continue;
 			}
 
-			if (!stackConditionAggregate.satisfiesConditionsOf3Faces(alreadyInLocalLayerOrder, f)) {
-				return;
+			if (!canPut(stackConditionAggregate, placedMask, indexOnOrdering, f)) {
+				continue;
 			}
 
-			if (!stackConditionAggregate.satisfiesConditionsOf4Faces(modelFaces, alreadyInLocalLayerOrder,
-					indexOnOrdering, f)) {
-				return;
-			}
+			localLayerOrder[index] = f;
+			StackConditionAggregate.setPlaced(placedMask, f);
+			indexOnOrdering[f] = index;
+
+			sort(candidateFaces,
+					localLayerOrders,
+					localLayerOrder,
+					placedMask,
+					indexOnOrdering,
+					stackConditionAggregate,
+					index + 1,
+					parallel);
+
+			StackConditionAggregate.clearPlaced(placedMask, f);
+			indexOnOrdering[f] = -1;
+		}
+	}
 
-			if (doParallel) {
-				var nextLocalLayerOrder = new ArrayList<OriFace>(localLayerOrder);
-				var nextAlreadyInLocalLayerOrder = alreadyInLocalLayerOrder.clone();
-				var nextIndexOnOrdering = new HashMap<OriFace, Integer>(indexOnOrdering);
-
-				nextLocalLayerOrder.set(index, f);
-				nextAlreadyInLocalLayerOrder[f.getFaceID()] = true;
-				nextIndexOnOrdering.put(f, index);
-
-				sort(facesToBePut,
-						localLayerOrders,
-						nextLocalLayerOrder,
-						nextAlreadyInLocalLayerOrder,
-						nextIndexOnOrdering,
-						stackConditionAggregate,
-						index + 1,
-						parallel);
-			} else {
-				localLayerOrder.set(index, f);
-				alreadyInLocalLayerOrder[f.getFaceID()] = true;
-				indexOnOrdering.put(f, index);
-
-				sort(facesToBePut,
-						localLayerOrders,
-						localLayerOrder,
-						alreadyInLocalLayerOrder,
-						indexOnOrdering,
-						stackConditionAggregate,
-						index + 1,
-						parallel);
-
-				alreadyInLocalLayerOrder[localLayerOrder.get(index).getFaceID()] = false;
-				indexOnOrdering.put(localLayerOrder.get(index), -1);
-				localLayerOrder.set(index, null);
-			}
-		});
+	private boolean canPut(final StackConditionAggregate stackConditionAggregate,
+			final long[] placedMask, final int[] indexOnOrdering, final int face) {
+		return stackConditionAggregate.satisfiesConditionsOf2Faces(placedMask, face)
+				&& stackConditionAggregate.satisfiesConditionsOf3Faces(placedMask, face)
+				&& stackConditionAggregate.satisfiesConditionsOf4Faces(placedMask, indexOnOrdering, face);
 	}
 
 	/**
@@ -345,36 +351,35 @@ public class SubFace {
 		successCount.addAndGet(value);
 	}
 
-	public int getAllCountOfConditionsOf2Faces(final OverlapRelation overlapRelation) {
-		var stackConditionAggregate = new StackConditionAggregate();
-
-		stackConditionAggregate.prepareConditionsOf2Faces(parentFaces, overlapRelation);
-
-		return stackConditionAggregate.getAllCountOfConditionsOf2Faces();
-	}
-
-	public int getAllCountOfConditionsOf3Faces(final OverlapRelation overlapRelation) {
-		var stackConditionAggregate = new StackConditionAggregate();
-
-		stackConditionAggregate.prepareConditionsOf3Faces(parentFaces, overlapRelation, condition3s);
-
-		return stackConditionAggregate.getAllCountOfConditionsOf3Faces();
-	}
+	/**
+	 * Counts all stack conditions on this subface at once. The counts are
+	 * divided by the number of parent faces.
+	 *
+	 * @param overlapRelation
+	 *            overlap relation matrix.
+	 * @return the scores of this subface.
+	 */
+	public StackConditionScores computeStackConditionScores(final OverlapRelation overlapRelation) {
+		var stackConditionAggregate = new StackConditionAggregate(parentFaces);
 
-	public int getAllCountOfConditionsOf4Faces(final OverlapRelation overlapRelation) {
-		var stackConditionAggregate = new StackConditionAggregate();
+		stackConditionAggregate.prepareConditionsOf2Faces(overlapRelation);
+		stackConditionAggregate.prepareConditionsOf3Faces(condition3s);
+		stackConditionAggregate.prepareConditionsOf4Faces(condition4s);
 
-		stackConditionAggregate.prepareConditionsOf4Faces(parentFaces, overlapRelation, condition4s);
+		double parentFaceCount = parentFaces.size();
 
-		return stackConditionAggregate.getAllCountOfConditionsOf4Faces();
+		return new StackConditionScores(
+				stackConditionAggregate.getAllCountOfConditionsOf2Faces() / parentFaceCount,
+				stackConditionAggregate.getAllCountOfConditionsOf3Faces() / parentFaceCount,
+				stackConditionAggregate.getAllCountOfConditionsOf4Faces() / parentFaceCount);
 	}
 
 	public int getCountOfConditionsOf2Faces(final OriFace face, final OverlapRelation overlapRelation) {
-		var stackConditionAggregate = new StackConditionAggregate();
+		var stackConditionAggregate = new StackConditionAggregate(parentFaces);
 
-		stackConditionAggregate.prepareConditionsOf2Faces(parentFaces, overlapRelation);
+		stackConditionAggregate.prepareConditionsOf2Faces(overlapRelation);
 
-		return stackConditionAggregate.getCountOfConditionsOf2Faces(face);
+		return stackConditionAggregate.getCountOfConditionsOf2Faces(stackConditionAggregate.getLocalIndex(face));
 	}
 
 	public int getFailureCountOf2Faces() {
@@ -25,6 +25,7 @@ import org.slf4j.LoggerFactory;
 
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OrigamiModelFactory;
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 
 /**
  * A factory of subfaces.
@@ -91,9 +92,10 @@ public class SubFacesFactory {
 
 		// Stores the face reference of given crease pattern into the subface
 		// that is contained in the face.
+		var faceIndex = new FaceBoundingBoxIndex(faces, eps);
 		int i = 0;
 		for (SubFace sub : subfaces) {
-			sub.addParentFaces(parentCollector.collect(faces, sub, eps));
+			sub.addParentFaces(parentCollector.collect(faceIndex, sub, eps));
 			logger.trace("{} {} #parentFace={}", i++, sub.getOutline(), sub.getParentFaceCount());
 		}
 
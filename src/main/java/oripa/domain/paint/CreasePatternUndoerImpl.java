@@ -18,17 +18,14 @@
  */
 package oripa.domain.paint;
 
-import java.util.Collection;
-
-import oripa.util.history.AbstractUndoManager;
-import oripa.value.OriLine;
+import oripa.domain.paint.history.CreasePatternHistory;
 
 /**
  * @author Koji
  *
  */
 public class CreasePatternUndoerImpl implements CreasePatternUndoer {
-	private final AbstractUndoManager<Collection<OriLine>> undoManager = new CreasePatternUndoManager();
+	private final CreasePatternHistory history = new CreasePatternHistory();
 
 	private final CreasePatternHolder owner;
 
@@ -38,45 +35,41 @@ public class CreasePatternUndoerImpl implements CreasePatternUndoer {
 
 	@Override
 	public synchronized void pushUndoInfo() {
-		undoManager.push(owner.getCreasePattern());
+		history.push(owner.getCreasePattern());
 	}
 
 	@Override
 	public synchronized void undo() {
-		var infoOpt = undoManager.undo(owner.getCreasePattern());
-
-		infoOpt.ifPresent(info -> owner.getCreasePattern().replaceWith(info.getInfo()));
+		history.undo(owner.getCreasePattern());
 	}
 
 	@Override
 	public boolean canUndo() {
-		return undoManager.canUndo();
+		return history.canUndo();
 	}
 
 	@Override
 	public synchronized void redo() {
-		var infoOpt = undoManager.redo();
-
-		infoOpt.ifPresent(info -> owner.getCreasePattern().replaceWith(info.getInfo()));
+		history.redo(owner.getCreasePattern());
 	}
 
 	@Override
 	public boolean canRedo() {
-		return undoManager.canRedo();
+		return history.canRedo();
 	}
 
 	@Override
 	public boolean changeExists() {
-		return undoManager.isChanged();
+		return history.isChanged();
 	}
 
 	@Override
 	public void clearChanged() {
-		undoManager.clearChanged();
+		history.clearChanged();
 	}
 
 	@Override
 	public void clear() {
-		undoManager.clear();
+		history.clear();
 	}
 }
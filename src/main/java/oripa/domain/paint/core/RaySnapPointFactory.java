@@ -22,6 +22,7 @@ import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Stream;
 
+import oripa.domain.creasepattern.CreasePattern;
 import oripa.geom.GeomUtil;
 import oripa.geom.Ray;
 import oripa.geom.Segment;
@@ -36,14 +37,19 @@ public class RaySnapPointFactory {
 
 	public Collection<Vector2d> createSnapPoints(final Collection<OriLine> creasePattern, final Ray ray,
 			final double eps) {
+		// only the lines on the way of the ray can be snapped.
+		var candidates = creasePattern instanceof CreasePattern cp
+				? cp.clipAlong(ray, eps)
+				: creasePattern;
+
 		return Stream.concat(
 				// snap on cross points of line and creases.
-				creasePattern.stream()
+				candidates.stream()
 						.map(crease -> GeomUtil.getCrossPoint(ray, crease))
 						.flatMap(Optional::stream),
 
 				// snap on end points of overlapping creases.
-				creasePattern.stream()
+				candidates.stream()
 						.filter(crease -> overlapsEntirely(crease, ray, eps))
 						.flatMap(OriLine::pointStream))
 				.filter(p -> !p.equals(ray.getEndPoint(), eps))
@@ -0,0 +1,241 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.paint.history;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import oripa.value.OriLine;
+
+/**
+ * Undo history of crease pattern. The positions of the states are managed in
+ * the same way as {@link oripa.util.history.AbstractUndoManager}, while this
+ * class holds only the differences between adjacent states instead of the
+ * copies of the whole crease pattern. Undo and redo apply the difference to
+ * the given crease pattern, so that only the changed lines are removed or
+ * added.
+ *
+ * The state at the current position is kept as a map to find the difference
+ * at the next push. The oldest differences are discarded when the number of
+ * lines held by the differences exceeds the limit.
+ */
+public class CreasePatternHistory {
+	private static final Logger logger = LoggerFactory.getLogger(CreasePatternHistory.class);
+
+	/**
+	 * The default limit of the number of lines held by the differences.
+	 */
+	public static final int DEFAULT_MAX_LINE_COUNT = 1_000_000;
+
+	private final int maxLineCount;
+
+	/**
+	 * diffs[i] changes the state i to the state i + 1.
+	 */
+	private final List<LineDiff> diffs = new ArrayList<>();
+	private int lineCount = 0;
+
+	/**
+	 * a map from a line to its selection at {@code stateIndex}. null if no
+	 * state is recorded.
+	 */
+	private Map<OriLine, Boolean> state;
+	private int stateIndex = 0;
+
+	private int index = 0;
+	private int endIndex = 0;
+	private boolean changed = false;
+
+	public CreasePatternHistory() {
+		this(DEFAULT_MAX_LINE_COUNT);
+	}
+
+	/**
+	 *
+	 * @param maxLineCount
+	 *            the limit of the number of lines held by the differences. The
+	 *            state of the last push is kept even if the limit is exceeded,
+	 *            so that the last edit can be undone.
+	 */
+	public CreasePatternHistory(final int maxLineCount) {
+		this.maxLineCount = maxLineCount;
+	}
+
+	/**
+	 * Records the given lines as the state before an edit.
+	 */
+	public synchronized void push(final Collection<OriLine> lines) {
+		if (state == null) {
+			state = createState(lines);
+			stateIndex = index;
+		} else {
+			record(LineDiff.create(state, lines));
+		}
+
+		truncate(index);
+		index++;
+		endIndex = index;
+
+		changed = true;
+
+		discardOldDiffs();
+	}
+
+	/**
+	 * Sets the given lines as the state at the current position.
+	 */
+	private void record(final LineDiff diff) {
+		if (stateIndex == index - 1) {
+			truncate(stateIndex);
+			add(diff);
+		} else if (index > 0) {
+			// the lines are changed without push after undo or redo.
+			set(index - 1, diff(index - 1).then(diff));
+		}
+		diff.applyTo(state);
+		stateIndex = index;
+	}
+
+	/**
+	 * Restores the previous state of the given lines.
+	 *
+	 * @param lines
+	 *            current lines, which may be stored as the start of undo
+	 *            sequence.
+	 */
+	public synchronized void undo(final Collection<OriLine> lines) {
+		if (!canUndo()) {
+			logger.debug("can't undo: " + indexLog());
+			return;
+		}
+
+		changed = true;
+
+		var currentDiff = LineDiff.create(state, lines);
+
+		if (index == endIndex) {
+			logger.debug("set the start of undo sequence: " + indexLog());
+			record(currentDiff);
+			currentDiff = LineDiff.empty();
+		}
+
+		logger.debug("before undo: " + indexLog());
+
+		var backward = diff(index - 1).inverse();
+
+		// changes without push are discarded.
+		currentDiff.inverse().then(backward).applyTo(lines);
+
+		backward.applyTo(state);
+		stateIndex = --index;
+	}
+
+	/**
+	 * Restores the next state of the given lines.
+	 */
+	public synchronized void redo(final Collection<OriLine> lines) {
+		if (!canRedo()) {
+			logger.debug("can't redo: " + indexLog());
+			return;
+		}
+
+		changed = true;
+
+		logger.debug("before redo: " + indexLog());
+
+		var forward = diff(index);
+
+		LineDiff.create(state, lines).inverse().then(forward).applyTo(lines);
+
+		forward.applyTo(state);
+		stateIndex = ++index;
+	}
+
+	private Map<OriLine, Boolean> createState(final Collection<OriLine> lines) {
+		var map = new HashMap<OriLine, Boolean>(lines.size() * 2);
+		lines.forEach(line -> map.put(line, line.isSelected()));
+		return map;
+	}
+
+	private LineDiff diff(final int i) {
+		return diffs.get(i);
+	}
+
+	private void add(final LineDiff diff) {
+		diffs.add(diff);
+		lineCount += diff.size();
+	}
+
+	private void set(final int i, final LineDiff diff) {
+		lineCount += diff.size() - diffs.get(i).size();
+		diffs.set(i, diff);
+	}
+
+	private void truncate(final int size) {
+		while (diffs.size() > size) {
+			lineCount -= diffs.removeLast().size();
+		}
+	}
+
+	private void discardOldDiffs() {
+		while (lineCount > maxLineCount && stateIndex > 0) {
+			lineCount -= diffs.removeFirst().size();
+			stateIndex--;
+			index--;
+			endIndex--;
+			logger.debug("discard the oldest state: " + indexLog());
+		}
+	}
+
+	public boolean isChanged() {
+		return changed;
+	}
+
+	public void clearChanged() {
+		changed = false;
+	}
+
+	public synchronized void clear() {
+		clearChanged();
+		diffs.clear();
+		lineCount = 0;
+		state = null;
+		stateIndex = 0;
+		index = 0;
+		endIndex = 0;
+	}
+
+	private String indexLog() {
+		return "index = " + index + ", endIndex = " + endIndex;
+	}
+
+	public boolean canUndo() {
+		return index > 0;
+	}
+
+	public boolean canRedo() {
+		return index < endIndex;
+	}
+}
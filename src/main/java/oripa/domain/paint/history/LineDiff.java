@@ -0,0 +1,168 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.paint.history;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import oripa.value.OriLine;
+
+/**
+ * Difference between two states of crease pattern. A state is a map from a
+ * line to its selection. {@code before} holds the lines changed by this
+ * difference with their selections in the old state, and {@code after} holds
+ * them in the new state. A line only in {@code before} is removed, one only in
+ * {@code after} is added and one in both has changed its selection.
+ */
+class LineDiff {
+	private final Map<OriLine, Boolean> before;
+	private final Map<OriLine, Boolean> after;
+
+	static LineDiff empty() {
+		return new LineDiff(Map.of(), Map.of());
+	}
+
+	/**
+	 * Computes the difference from {@code state} to {@code lines}.
+	 *
+	 * @param state
+	 *            the old state.
+	 * @param lines
+	 *            the new state.
+	 */
+	static LineDiff create(final Map<OriLine, Boolean> state, final Collection<OriLine> lines) {
+		var before = new HashMap<OriLine, Boolean>();
+		var after = new HashMap<OriLine, Boolean>();
+
+		for (var line : lines) {
+			var selected = state.get(line);
+			if (selected == null) {
+				after.put(line, line.isSelected());
+			} else if (selected != line.isSelected()) {
+				before.put(line, selected);
+				after.put(line, line.isSelected());
+			}
+		}
+
+		state.forEach((line, selected) -> {
+			if (!lines.contains(line)) {
+				before.put(line, selected);
+			}
+		});
+
+		return new LineDiff(before, after);
+	}
+
+	private LineDiff(final Map<OriLine, Boolean> before, final Map<OriLine, Boolean> after) {
+		this.before = before;
+		this.after = after;
+	}
+
+	boolean isEmpty() {
+		return before.isEmpty() && after.isEmpty();
+	}
+
+	/**
+	 * @return the number of lines held by this object.
+	 */
+	int size() {
+		return before.size() + after.size();
+	}
+
+	LineDiff inverse() {
+		return new LineDiff(after, before);
+	}
+
+	/**
+	 * @return a difference which is the same as applying this difference and
+	 *         then {@code next}.
+	 */
+	LineDiff then(final LineDiff next) {
+		var composedBefore = new HashMap<>(before);
+		// a line in next.before which this difference doesn't touch has the
+		// same selection in the old state.
+		next.before.forEach((line, selected) -> {
+			if (!after.containsKey(line)) {
+				composedBefore.putIfAbsent(line, selected);
+			}
+		});
+
+		var composedAfter = new HashMap<>(after);
+		next.before.keySet().forEach(composedAfter::remove);
+		composedAfter.putAll(next.after);
+
+		// drop the lines which are back to the original state.
+		var unchanged = composedBefore.keySet().stream()
+				.filter(line -> Objects.equals(composedBefore.get(line), composedAfter.get(line)))
+				.toList();
+		unchanged.forEach(line -> {
+			composedBefore.remove(line);
+			composedAfter.remove(line);
+		});
+
+		return new LineDiff(composedBefore, composedAfter);
+	}
+
+	/**
+	 * Applies this difference to the given state.
+	 */
+	void applyTo(final Map<OriLine, Boolean> state) {
+		before.keySet().forEach(state::remove);
+		state.putAll(after);
+	}
+
+	/**
+	 * Applies this difference to the given lines. Only the changed lines are
+	 * touched. Added lines are copies so that the lines in this object are not
+	 * shared with the crease pattern.
+	 */
+	void applyTo(final Collection<OriLine> lines) {
+		var removed = before.keySet().stream()
+				.filter(line -> !after.containsKey(line))
+				.toList();
+		lines.removeAll(removed);
+
+		var reselected = new HashMap<OriLine, Boolean>();
+		after.forEach((line, selected) -> {
+			if (before.containsKey(line)) {
+				reselected.put(line, selected);
+			}
+		});
+		if (!reselected.isEmpty()) {
+			lines.forEach(line -> {
+				var selected = reselected.get(line);
+				if (selected != null) {
+					line.setSelected(selected);
+				}
+			});
+		}
+
+		var added = after.entrySet().stream()
+				.filter(entry -> !before.containsKey(entry.getKey()))
+				.map(entry -> {
+					var line = new OriLine(entry.getKey());
+					line.setSelected(entry.getValue());
+					return line;
+				})
+				.toList();
+		lines.addAll(added);
+	}
+}
@@ -18,7 +18,12 @@
  */
 package oripa.domain.paint.suggestion;
 
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Optional;
+
 import oripa.domain.creasepattern.CreasePattern;
+import oripa.domain.fold.halfedge.LocalOriVertexFactory;
 import oripa.domain.fold.halfedge.OriVertex;
 import oripa.domain.fold.halfedge.OrigamiModelFactory;
 import oripa.vecmath.Vector2d;
@@ -34,7 +39,32 @@ public class TargetOriVertexFactory {
 		public double distance = Double.MAX_VALUE;
 	}
 
+	/**
+	 * Creates the vertex nearest to the target with the edges incident to it.
+	 * The vertex is built only from the lines around it if a vertex of crease
+	 * pattern is at the target. Otherwise the whole origami model is built to
+	 * find the nearest one.
+	 */
 	public OriVertex create(final CreasePattern creasePattern, final Vector2d target, final double pointEps) {
+		return createLocally(creasePattern, target, pointEps)
+				.orElseGet(() -> createFromModel(creasePattern, target, pointEps));
+	}
+
+	private Optional<OriVertex> createLocally(final CreasePattern creasePattern, final Vector2d target,
+			final double pointEps) {
+		var vertexFactory = new LocalOriVertexFactory();
+
+		return creasePattern.getVerticesInArea(target.getX(), target.getY(), pointEps).stream()
+				.flatMap(Collection::stream)
+				.filter(v -> v.equals(target, pointEps))
+				.sorted(Comparator.comparing(v -> v.distance(target)))
+				.map(v -> vertexFactory.create(creasePattern, v, pointEps))
+				.flatMap(Optional::stream)
+				.findFirst();
+	}
+
+	private OriVertex createFromModel(final CreasePattern creasePattern, final Vector2d target,
+			final double pointEps) {
 		var origamiModelFactory = new OrigamiModelFactory();
 		var origamiModel = origamiModelFactory.createOrigamiModel(
 				creasePattern,
@@ -18,8 +18,12 @@
  */
 package oripa.gui.presenter.creasepattern;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.stream.Stream;
 
 import oripa.domain.creasepattern.CreasePattern;
 import oripa.domain.paint.PaintContext;
@@ -35,6 +39,15 @@ import oripa.vecmath.Vector2d;
  *
  */
 public class CreasePatternGraphicDrawer {
+	/**
+	 * Margin of visible area in pixel so that the lines and vertices at the
+	 * border are drawn.
+	 */
+	private static final double MARGIN = 10;
+
+	private static final List<OriLine.Type> TYPES_IN_DRAWING_ORDER = Stream.of(OriLine.Type.values())
+			.sorted(Comparator.comparing(OriLine.Type::toInt))
+			.toList();
 
 	/**
 	 * draws crease pattern according to the context of user interaction.
@@ -61,17 +74,55 @@ public class CreasePatternGraphicDrawer {
 					viewContext.getScale(), viewContext.isZeroLineWidth());
 		}
 
-		drawLines(drawer, creasePattern, viewContext.getScale(), viewContext.isZeroLineWidth(),
-				viewContext.isMVLineVisible(),
-				viewContext.isAuxLineVisible());
+		var scale = viewContext.getScale();
+		var creaseVisible = viewContext.isMVLineVisible();
+		var auxVisible = viewContext.isAuxLineVisible();
+
+		var visibleDomain = drawer.getVisibleDomain()
+				.map(domain -> enlarge(domain, MARGIN / scale))
+				.orElse(null);
+		var lines = clipVisibleLines(creasePattern, visibleDomain, paintContext.getPointEps());
+
+		drawLines(drawer, lines, scale, viewContext.isZeroLineWidth(), creaseVisible, auxVisible);
 
 		// Drawing of the vertices
 		if (viewContext.isVertexVisible() || forceShowingVertex) {
-			drawVertices(drawer, creasePattern, viewContext.getScale(), viewContext.isMVLineVisible(),
-					viewContext.isAuxLineVisible());
+			if (creaseVisible && auxVisible) {
+				drawVertices(drawer, creasePattern, visibleDomain, scale);
+			} else {
+				drawVertices(drawer, lines, scale, creaseVisible, auxVisible);
+			}
 		}
 	}
 
+	/**
+	 * Returns the lines which can be seen. The grid of the crease pattern is
+	 * used in order to avoid testing all lines when the view is zoomed in.
+	 *
+	 * @param visibleDomain
+	 *            null if all lines should be drawn.
+	 */
+	private Collection<OriLine> clipVisibleLines(final CreasePattern creasePattern,
+			final RectangleDomain visibleDomain, final double pointEps) {
+		if (visibleDomain == null) {
+			return creasePattern;
+		}
+
+		var paperDomain = creasePattern.getPaperDomain();
+		if (visibleDomain.contains(paperDomain.getLeftTop())
+				&& visibleDomain.contains(paperDomain.getRightBottom())) {
+			return creasePattern;
+		}
+
+		return creasePattern.clip(visibleDomain, pointEps);
+	}
+
+	private RectangleDomain enlarge(final RectangleDomain domain, final double diff) {
+		var enlarged = new RectangleDomain(domain);
+		enlarged.enlarge(diff);
+		return enlarged;
+	}
+
 	/**
 	 * draws each of given lines with the color and width which are determined
 	 * by the line type.
@@ -117,20 +168,37 @@ public class CreasePatternGraphicDrawer {
 			final boolean creaseVisible, final boolean auxVisible) {
 		// draw lines ordered by line type.
 		// this is aimed to make aux lines lower.
-		lines.stream()
-				.sorted(Comparator.comparing(line -> line.getType().toInt()))
-				.forEach(line -> {
-					if (line.isAux() && !auxVisible) {
-						return;
-					}
-					if (line.isFoldLine() && !creaseVisible) {
-						return;
-					}
-//					if (pickedLines != null && pickedLines.contains(line)) {
-//						return;
-//					}
-					drawLine(drawer, line, scale, zeroLineWidth);
-				});
+		for (var bucket : bucketByType(lines)) {
+			for (var line : bucket) {
+				if (line.isAux() && !auxVisible) {
+					break;
+				}
+				if (line.isFoldLine() && !creaseVisible) {
+					break;
+				}
+				drawLine(drawer, line, scale, zeroLineWidth);
+			}
+		}
+	}
+
+	/**
+	 * Distributes the lines into the lists for each type in one pass. The
+	 * lists are in the order of {@link OriLine.Type#toInt()}, which is the
+	 * same order as sorting the lines by type.
+	 */
+	private List<List<OriLine>> bucketByType(final Collection<OriLine> lines) {
+		var buckets = new ArrayList<List<OriLine>>(TYPES_IN_DRAWING_ORDER.size());
+		var bucketIndices = new EnumMap<OriLine.Type, Integer>(OriLine.Type.class);
+		for (var type : TYPES_IN_DRAWING_ORDER) {
+			bucketIndices.put(type, buckets.size());
+			buckets.add(new ArrayList<>());
+		}
+
+		for (var line : lines) {
+			buckets.get(bucketIndices.get(line.getType())).add(line);
+		}
+
+		return buckets;
 	}
 
 	/**
@@ -170,6 +238,41 @@ public class CreasePatternGraphicDrawer {
 		drawVertices(drawer, creasePattern, scale, true, false);
 	}
 
+	/**
+	 * draws the vertices of the crease pattern in the given area. Each vertex
+	 * is drawn once even if many lines share it.
+	 *
+	 * @param drawer
+	 *            a graphic object.
+	 * @param creasePattern
+	 *            crease pattern whose vertices are to be drawn.
+	 * @param visibleDomain
+	 *            the area to be drawn. null if all vertices should be drawn.
+	 * @param scale
+	 *            scale of crease pattern drawing.
+	 */
+	private void drawVertices(
+			final ObjectGraphicDrawer drawer, final CreasePattern creasePattern,
+			final RectangleDomain visibleDomain, final double scale) {
+
+		drawer.selectNormalVertexColor();
+		drawer.selectNormalVertexSize(scale);
+
+		// the areas at the border of paper also hold the vertices out of
+		// paper.
+		var domain = visibleDomain == null ? creasePattern.getPaperDomain() : visibleDomain;
+		var areas = creasePattern.getVerticesInArea(domain.getCenterX(), domain.getCenterY(),
+				domain.maxWidthHeight() / 2);
+
+		for (var area : areas) {
+			for (var vertex : area) {
+				if (visibleDomain == null || visibleDomain.contains(vertex)) {
+					drawer.drawVertex(vertex);
+				}
+			}
+		}
+	}
+
 	/**
 	 * draws the vertices of given lines.
 	 *
@@ -77,25 +77,9 @@ public class NearestItemFinder {
 	 */
 	public static Optional<OriLine> pickLine(final CreasePatternViewContext viewContext,
 			final PaintContext paintContext) {
-		var lines = paintContext.getCreasePattern();
-		var mousePoint = viewContext.getLogicalMousePoint();
-
-		double minDistance = Double.MAX_VALUE;
-		OriLine bestLine = null;
-
-		for (OriLine line : lines) {
-			double dist = GeomUtil.distancePointToSegment(mousePoint, line);
-			if (dist < minDistance) {
-				minDistance = dist;
-				bestLine = line;
-			}
-		}
-
-		if (minDistance < scaleThreshold(viewContext)) {
-			return Optional.of(bestLine);
-		} else {
-			return Optional.empty();
-		}
+		// only the lines around the mouse point are tested.
+		return paintContext.getCreasePattern().findNearest(
+				viewContext.getLogicalMousePoint(), scaleThreshold(viewContext));
 	}
 
 	/**
@@ -18,12 +18,12 @@
  */
 package oripa.gui.presenter.foldability;
 
-import java.util.Collection;
-
+import oripa.domain.creasepattern.CreasePattern;
 import oripa.domain.fold.EstimationResultRules;
+import oripa.domain.fold.foldability.IncrementalFoldabilityChecker;
 import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.gui.view.ViewScreenUpdater;
 import oripa.gui.view.foldability.FoldabilityCheckFrameView;
-import oripa.value.OriLine;
 
 /**
  * @author OUCHI Koji
@@ -37,7 +37,9 @@ public class FoldabilityCheckFramePresenter {
 			final FoldabilityCheckFrameView view,
 			final OrigamiModel origamiModel,
 			final EstimationResultRules estimationRules,
-			final Collection<OriLine> creasePattern,
+			final CreasePattern creasePattern,
+			final IncrementalFoldabilityChecker vertexChecker,
+			final ViewScreenUpdater screenUpdater,
 			final boolean zeroLineWidth,
 			final double pointEps) {
 
@@ -48,8 +50,12 @@ public class FoldabilityCheckFramePresenter {
 				origamiModel,
 				estimationRules,
 				creasePattern,
+				vertexChecker,
+				screenUpdater,
 				zeroLineWidth,
 				pointEps);
+
+		view.addOnCloseListener(screenPresenter::dispose);
 	}
 
 	public void setViewVisible(final boolean visible) {
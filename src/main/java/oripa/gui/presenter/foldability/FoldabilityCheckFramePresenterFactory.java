@@ -21,9 +21,11 @@ package oripa.gui.presenter.foldability;
 import jakarta.inject.Inject;
 import oripa.domain.creasepattern.CreasePattern;
 import oripa.domain.fold.EstimationResultRules;
+import oripa.domain.fold.foldability.IncrementalFoldabilityChecker;
 import oripa.domain.fold.halfedge.OrigamiModel;
 import oripa.domain.fold.halfedge.OrigamiModelFactory;
 import oripa.gui.presenter.creasepattern.CreasePatternViewContext;
+import oripa.gui.view.ViewScreenUpdater;
 import oripa.gui.view.foldability.FoldabilityCheckFrameView;
 
 /**
@@ -34,15 +36,21 @@ public class FoldabilityCheckFramePresenterFactory {
 
 	private final CreasePatternViewContext creasePatternViewContext;
 	private final OrigamiModelFactory modelFactory;
+	private final IncrementalFoldabilityChecker vertexChecker;
+	private final ViewScreenUpdater screenUpdater;
 
 	@Inject
 	public FoldabilityCheckFramePresenterFactory(
 			final CreasePatternViewContext creasePatternViewContext,
-			final OrigamiModelFactory modelFactory
+			final OrigamiModelFactory modelFactory,
+			final IncrementalFoldabilityChecker vertexChecker,
+			final ViewScreenUpdater screenUpdater
 
 	) {
 		this.creasePatternViewContext = creasePatternViewContext;
 		this.modelFactory = modelFactory;
+		this.vertexChecker = vertexChecker;
+		this.screenUpdater = screenUpdater;
 	}
 
 	public FoldabilityCheckFramePresenter create(
@@ -77,6 +85,8 @@ public class FoldabilityCheckFramePresenterFactory {
 				origamiModel,
 				estimationRules,
 				creasePattern,
+				vertexChecker,
+				screenUpdater,
 				creasePatternViewContext.isZeroLineWidth(),
 				pointEps);
 	}
@@ -58,12 +58,7 @@ public class FoldabilityGraphicDrawer {
 			}
 		}
 
-		drawer.selectViolatingVertexColor();
-		for (OriVertex v : violatingVertices) {
-			drawer.selectViolatingVertexSize(scale);
-			var position = v.getPositionBeforeFolding();
-			drawer.drawVertex(position);
-		}
+		drawViolatingVertices(drawer, violatingVertices, scale);
 
 //	if (bDrawFaceID) {
 //		g2d.setColor(Color.BLACK);
@@ -79,6 +74,21 @@ public class FoldabilityGraphicDrawer {
 //	}
 	}
 
+	/**
+	 * Draws the vertices only, for the case where the faces are not available.
+	 */
+	public void drawViolatingVertices(
+			final ObjectGraphicDrawer drawer,
+			final Collection<OriVertex> violatingVertices,
+			final double scale) {
+		drawer.selectViolatingVertexColor();
+		for (OriVertex v : violatingVertices) {
+			drawer.selectViolatingVertexSize(scale);
+			var position = v.getPositionBeforeFolding();
+			drawer.drawVertex(position);
+		}
+	}
+
 //private void paintForStudy(final Graphics2D g2d, final Collection<OriFace> faces,
 //		final Collection<OriVertex> vertices) {
 //	g2d.setColor(new Color(255, 210, 220));
@@ -20,6 +20,7 @@ package oripa.gui.presenter.foldability;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.stream.Stream;
 
@@ -27,13 +28,16 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import oripa.domain.cptool.OverlappingLineExtractor;
+import oripa.domain.creasepattern.CreasePattern;
 import oripa.domain.fold.EstimationResultRules;
 import oripa.domain.fold.foldability.FoldabilityChecker;
+import oripa.domain.fold.foldability.IncrementalFoldabilityChecker;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OriVertex;
 import oripa.domain.fold.halfedge.OrigamiModel;
 import oripa.geom.RectangleDomain;
 import oripa.gui.presenter.creasepattern.CreasePatternGraphicDrawer;
+import oripa.gui.view.ViewScreenUpdater;
 import oripa.gui.view.creasepattern.ObjectGraphicDrawer;
 import oripa.gui.view.creasepattern.PaintComponentGraphics;
 import oripa.gui.view.foldability.FoldabilityScreenView;
@@ -41,6 +45,11 @@ import oripa.util.rule.Rule;
 import oripa.value.OriLine;
 
 /**
+ * Shows the violations of the origami model. The violating vertices and the
+ * overlapping lines follow the edits of the crease pattern by
+ * {@link IncrementalFoldabilityChecker}. The faces are of the model given at
+ * construction, so they are hidden once the crease pattern is edited.
+ *
  * @author OUCHI Koji
  *
  */
@@ -49,16 +58,20 @@ public class FoldabilityScreenPresenter {
 
 	private final FoldabilityScreenView view;
 	private final OrigamiModel origamiModel;
-	private final Collection<OriLine> creasePattern;
+	private final CreasePattern creasePattern;
 	private final boolean zeroLineWidth;
 
 	private Collection<OriVertex> violatingVertices;
 	private Collection<OriFace> violatingFaces;
 	private Collection<OriLine> overlappingLines;
+	private boolean facesOutdated = false;
 
 	private final EstimationResultRules estimationResultRules;
 
 	private final FoldabilityChecker foldabilityChecker = new FoldabilityChecker();
+	private final IncrementalFoldabilityChecker vertexChecker;
+	private final ViewScreenUpdater screenUpdater;
+	private final Runnable creasePatternChangeListener = this::updateViolations;
 
 	private final double pointEps;
 
@@ -66,14 +79,17 @@ public class FoldabilityScreenPresenter {
 			final FoldabilityScreenView view,
 			final OrigamiModel origamiModel,
 			final EstimationResultRules estimationResultRules,
-			final Collection<OriLine> creasePattern,
+			final CreasePattern creasePattern,
+			final IncrementalFoldabilityChecker vertexChecker,
+			final ViewScreenUpdater screenUpdater,
 			final boolean zeroLineWidth,
 			final double pointEps) {
 		this.view = view;
 
 		this.origamiModel = origamiModel;
-		this.creasePattern = creasePattern.stream()
-				.map(OriLine::new).toList();
+		this.creasePattern = creasePattern;
+		this.vertexChecker = vertexChecker;
+		this.screenUpdater = screenUpdater;
 
 		this.estimationResultRules = estimationResultRules;
 
@@ -87,8 +103,8 @@ public class FoldabilityScreenPresenter {
 
 	private void setModel() {
 
-		violatingVertices = foldabilityChecker.findViolatingVertices(
-				origamiModel.getVertices());
+		vertexChecker.update(creasePattern, pointEps);
+		violatingVertices = vertexChecker.getViolatingVertices();
 
 		view.setViolatingVertices(violatingVertices);
 
@@ -110,6 +126,70 @@ public class FoldabilityScreenPresenter {
 
 	}
 
+	/**
+	 * Tests the vertices touched by the edits since the last update and
+	 * updates the overlapping lines around the added or removed lines. The
+	 * faces no longer match the crease pattern after an edit, so they are
+	 * dropped.
+	 */
+	private void updateViolations() {
+		if (!vertexChecker.update(creasePattern, pointEps)) {
+			return;
+		}
+
+		violatingVertices = vertexChecker.getViolatingVertices();
+		view.setViolatingVertices(violatingVertices);
+
+		if (!facesOutdated) {
+			facesOutdated = true;
+			violatingFaces = List.of();
+			view.setViolatingFaces(violatingFaces);
+		}
+
+		updateOverlappingLines(vertexChecker.getAddedLines(), vertexChecker.getRemovedLines());
+
+		view.repaint();
+	}
+
+	private void updateOverlappingLines(final Collection<OriLine> addedLines,
+			final Collection<OriLine> removedLines) {
+		var overlappingLineExtractor = new OverlappingLineExtractor();
+		var updatedLines = new HashSet<>(overlappingLines);
+
+		updatedLines.removeAll(removedLines);
+
+		// the lines overlapped by removed ones may have no overlap now.
+		var formerPartners = removedLines.stream()
+				.flatMap(line -> overlappingLineExtractor.extract(updatedLines, line, pointEps).stream())
+				.distinct()
+				.toList();
+		formerPartners.stream()
+				.filter(line -> findOverlaps(overlappingLineExtractor, line).isEmpty())
+				.forEach(updatedLines::remove);
+
+		for (var line : addedLines) {
+			var overlaps = findOverlaps(overlappingLineExtractor, line);
+			if (!overlaps.isEmpty()) {
+				updatedLines.add(line);
+				updatedLines.addAll(overlaps);
+			}
+		}
+
+		overlappingLines = updatedLines;
+	}
+
+	/**
+	 * Finds the lines overlapping the given line among the lines around it.
+	 */
+	private List<OriLine> findOverlaps(final OverlappingLineExtractor overlappingLineExtractor,
+			final OriLine line) {
+		var domain = RectangleDomain.createFromSegments(List.of(line));
+
+		return overlappingLineExtractor.extract(creasePattern.clip(domain, pointEps), line, pointEps).stream()
+				.filter(overlap -> !overlap.equals(line))
+				.toList();
+	}
+
 	private List<OriFace> getEstimationViolationFaces() {
 		var faces = origamiModel.getFaces();
 
@@ -130,6 +210,16 @@ public class FoldabilityScreenPresenter {
 	private void setListeners() {
 		view.setPaintComponentListener(this::paintComponent);
 
+		screenUpdater.addListener(creasePatternChangeListener);
+	}
+
+	/**
+	 * Stops following the edits of the crease pattern and releases the lines
+	 * held by the checker.
+	 */
+	public void dispose() {
+		screenUpdater.removeListener(creasePatternChangeListener);
+		vertexChecker.clear();
 	}
 
 	private void paintComponent(final PaintComponentGraphics p) {
@@ -164,7 +254,11 @@ public class FoldabilityScreenPresenter {
 	private void drawFoldability(final ObjectGraphicDrawer objDrawer, final double scale) {
 		FoldabilityGraphicDrawer drawer = new FoldabilityGraphicDrawer();
 
-		drawer.draw(objDrawer, origamiModel, violatingFaces, violatingVertices, scale);
+		if (facesOutdated) {
+			drawer.drawViolatingVertices(objDrawer, violatingVertices, scale);
+		} else {
+			drawer.draw(objDrawer, origamiModel, violatingFaces, violatingVertices, scale);
+		}
 	}
 
 	private void drawVertexViolationNames(final ObjectGraphicDrawer drawer) {
@@ -187,6 +281,10 @@ public class FoldabilityScreenPresenter {
 
 		drawer.drawString("error(s): " + String.join(", ", texts), 0, 10);
 
+		if (facesOutdated) {
+			drawer.drawString("faces are hidden after edit. reopen this window to check faces.", 0, 25);
+		}
+
 	}
 
 	public void setViewVisible(final boolean visible) {
@@ -122,7 +122,11 @@ public class PainterScreenPresenter {
 				.map(action -> action.getEditMode() == EditMode.VERTEX)
 				.orElse(false);
 
-		drawer.draw(bufferObjDrawer, viewContext, paintContext, forceShowingVertex);
+		// the crease pattern is drawn again only if it or the appearance has
+		// changed, so that moving the mouse costs only the drawing of the
+		// action.
+		p.drawCachedLayer(createLayerKey(forceShowingVertex),
+				layerDrawer -> drawer.draw(layerDrawer, viewContext, paintContext, forceShowingVertex));
 
 		if (paperDomainOfModel != null) {
 			drawPaperDomainOfModel(bufferObjDrawer);
@@ -139,6 +143,26 @@ public class PainterScreenPresenter {
 				() -> p.drawBufferImage());
 	}
 
+	/**
+	 * The values which determine the drawing of crease pattern except the
+	 * camera.
+	 */
+	private record LayerKey(
+			long creasePatternStamp,
+			boolean gridVisible, int gridDivNum,
+			boolean mvLineVisible, boolean auxLineVisible, boolean vertexVisible,
+			boolean zeroLineWidth, double scale) {
+	}
+
+	private LayerKey createLayerKey(final boolean forceShowingVertex) {
+		return new LayerKey(
+				paintContext.getCreasePattern().getModificationStamp(),
+				viewContext.isGridVisible(), paintContext.getGridDivNum(),
+				viewContext.isMVLineVisible(), viewContext.isAuxLineVisible(),
+				viewContext.isVertexVisible() || forceShowingVertex,
+				viewContext.isZeroLineWidth(), viewContext.getScale());
+	}
+
 	private void drawByAction(final GraphicMouseAction action,
 			final PaintComponentGraphics p) {
 		var bufferObjDrawer = p.getBufferObjectDrawer();
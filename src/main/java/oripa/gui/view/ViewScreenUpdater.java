@@ -5,4 +5,6 @@ public interface ViewScreenUpdater {
 	void updateScreen();
 
 	void addListener(Runnable listener);
+
+	void removeListener(Runnable listener);
 }
\ No newline at end of file
@@ -2,11 +2,15 @@ package oripa.gui.view;
 
 import java.beans.PropertyChangeListener;
 import java.beans.PropertyChangeSupport;
+import java.util.HashMap;
+import java.util.Map;
 
 class ViewScreenUpdaterImpl implements ViewScreenUpdater {
 
 	private final PropertyChangeSupport propertyChangeSupport = new PropertyChangeSupport(this);
 
+	private final Map<Runnable, PropertyChangeListener> listeners = new HashMap<>();
+
 	public static final String REDRAW_REQUESTED = "redraw requested";
 
 	public ViewScreenUpdaterImpl() {
@@ -19,7 +23,18 @@ class ViewScreenUpdaterImpl implements ViewScreenUpdater {
 
 	@Override
 	public void addListener(final Runnable listener) {
-		addPropertyChangeListener(REDRAW_REQUESTED, e -> listener.run());
+		PropertyChangeListener propertyChangeListener = e -> listener.run();
+		listeners.put(listener, propertyChangeListener);
+		addPropertyChangeListener(REDRAW_REQUESTED, propertyChangeListener);
+	}
+
+	@Override
+	public void removeListener(final Runnable listener) {
+		var propertyChangeListener = listeners.remove(listener);
+		if (propertyChangeListener == null) {
+			return;
+		}
+		propertyChangeSupport.removePropertyChangeListener(REDRAW_REQUESTED, propertyChangeListener);
 	}
 
 	@Override
@@ -19,8 +19,10 @@
 package oripa.gui.view.creasepattern;
 
 import java.util.List;
+import java.util.Optional;
 
 import oripa.geom.Line;
+import oripa.geom.RectangleDomain;
 import oripa.value.OriLine;
 import oripa.vecmath.Vector2d;
 
@@ -93,4 +95,14 @@ public interface ObjectGraphicDrawer {
 	void drawString(String text, float x, float y, double scale);
 
 	void setAntiAlias(boolean antiAlias);
+
+	/**
+	 * Returns the area where the drawing can be seen, in the coordinates of
+	 * the items to be drawn. Items out of the area don't have to be drawn.
+	 *
+	 * @return the visible area, or empty if the drawing is not bounded.
+	 */
+	default Optional<RectangleDomain> getVisibleDomain() {
+		return Optional.empty();
+	}
 }
@@ -18,6 +18,8 @@
  */
 package oripa.gui.view.creasepattern;
 
+import java.util.function.Consumer;
+
 /**
  * @author OUCHI Koji
  *
@@ -30,4 +32,16 @@ public interface PaintComponentGraphics {
 
 	void drawBufferImage();
 
+	/**
+	 * Draws the layer of content which rarely changes onto the buffer. The
+	 * implementation may keep the drawing and skip {@code drawLayer} while
+	 * {@code layerKey} and the camera are unchanged.
+	 *
+	 * @param layerKey
+	 *            an object which determines the content of the layer.
+	 * @param drawLayer
+	 *            draws the layer with the given drawer.
+	 */
+	void drawCachedLayer(Object layerKey, Consumer<ObjectGraphicDrawer> drawLayer);
+
 }
\ No newline at end of file
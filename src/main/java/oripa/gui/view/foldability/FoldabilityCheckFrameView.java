@@ -18,13 +18,9 @@
  */
 package oripa.gui.view.foldability;
 
-import java.util.Collection;
 import java.util.function.Consumer;
 
-import oripa.domain.fold.EstimationResultRules;
-import oripa.domain.fold.halfedge.OrigamiModel;
 import oripa.gui.view.FrameView;
-import oripa.value.OriLine;
 
 /**
  * @author OUCHI Koji
@@ -34,13 +30,12 @@ public interface FoldabilityCheckFrameView extends FrameView {
 
 	FoldabilityScreenView getFoldabilityScreenView();
 
-	void setModel(
-			OrigamiModel origamiModel,
-			EstimationResultRules estimationRules,
-			Collection<OriLine> creasePattern,
-			boolean zeroLineWidth,
-			double pointEps);
-
 	void setOnCloseListener(Consumer<FrameView> listener);
 
+	/**
+	 * Adds a listener called after the listener given by
+	 * {@link #setOnCloseListener(Consumer)} when this frame is closed.
+	 */
+	void addOnCloseListener(Runnable listener);
+
 }
\ No newline at end of file
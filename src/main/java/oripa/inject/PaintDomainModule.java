@@ -24,6 +24,7 @@ import com.google.inject.Provides;
 import jakarta.inject.Singleton;
 import oripa.domain.cutmodel.CutModelOutlinesHolder;
 import oripa.domain.cutmodel.DefaultCutModelOutlinesHolder;
+import oripa.domain.fold.foldability.IncrementalFoldabilityChecker;
 import oripa.domain.paint.PaintContext;
 import oripa.domain.paint.PaintContextFactory;
 import oripa.domain.paint.byvalue.ByValueContext;
@@ -50,4 +51,10 @@ public class PaintDomainModule extends AbstractModule {
 	PaintContext getPaintContext() {
 		return new PaintContextFactory().createContext();
 	}
+
+	@Provides
+	@Singleton
+	IncrementalFoldabilityChecker getIncrementalFoldabilityChecker() {
+		return new IncrementalFoldabilityChecker();
+	}
 }
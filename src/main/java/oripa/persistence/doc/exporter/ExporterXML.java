@@ -18,26 +18,65 @@
 
 package oripa.persistence.doc.exporter;
 
-import java.beans.XMLEncoder;
 import java.io.BufferedOutputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.Collection;
+
+import javax.xml.stream.XMLStreamException;
 
 import oripa.DataSet;
+import oripa.geom.RectangleDomain;
 import oripa.persistence.doc.Doc;
+import oripa.persistence.xml.DataSetStreamWriter;
+import oripa.resource.Version;
+import oripa.value.OriLine;
 
+/**
+ * Writes the lines of crease pattern directly into .opx file. No copy of the
+ * lines is made.
+ */
 public class ExporterXML implements DocExporter {
 
 	@Override
 	public boolean export(final Doc doc, final String filePath, final Object configObj) throws IOException {
-		DataSet dataset = new DataSet(doc);
+		var creasePattern = doc.getCreasePattern();
+		var property = doc.getProperty();
+
+		var dataset = new DataSet();
+		dataset.setMainVersion(Version.FILE_MAJOR_VERSION);
+		dataset.setSubVersion(Version.FILE_MINOR_VERSION);
+		dataset.setPaperSize(computePaperSize(creasePattern));
+		dataset.setTitle(property.getTitle());
+		dataset.setEditorName(property.getEditorName());
+		dataset.setOriginalAuthorName(property.getOriginalAuthorName());
+		dataset.setReference(property.getReference());
+		dataset.setMemo(property.getMemo());
 
 		try (var fos = new FileOutputStream(filePath);
-				var bos = new BufferedOutputStream(fos);
-				var enc = new XMLEncoder(bos);) {
-			enc.writeObject(dataset);
+				var bos = new BufferedOutputStream(fos);) {
+			new DataSetStreamWriter().write(dataset, creasePattern, bos);
+		} catch (XMLStreamException e) {
+			throw new IOException("Failed to write the crease pattern.", e);
 		}
 
 		return true;
 	}
+
+	/**
+	 * Same as the paper size of the crease pattern rebuilt from the lines,
+	 * which is computed from the boundary lines.
+	 */
+	private double computePaperSize(final Collection<OriLine> lines) {
+		var domain = RectangleDomain.createFromSegments(
+				lines.stream()
+						.filter(OriLine::isBoundary)
+						.toList());
+
+		if (domain.isVoid()) {
+			domain = RectangleDomain.createFromSegments(lines);
+		}
+
+		return domain.maxWidthHeight();
+	}
 }
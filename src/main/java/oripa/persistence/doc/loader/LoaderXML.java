@@ -18,59 +18,30 @@
 
 package oripa.persistence.doc.loader;
 
-import java.io.File;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.util.Optional;
 
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.xpath.XPathExpressionException;
-
-import org.xml.sax.SAXException;
+import javax.xml.stream.XMLStreamException;
 
 import oripa.DataSet;
 import oripa.persistence.doc.Doc;
 import oripa.persistence.filetool.FileVersionError;
 import oripa.persistence.filetool.WrongDataFormatException;
-import oripa.persistence.xml.ElementLoader;
-import oripa.persistence.xml.TypedXPath;
+import oripa.persistence.xml.DataSetStreamReader;
 import oripa.resource.Version;
 
 public class LoaderXML implements DocLoader {
 
 	private DataSet loadAsDataSet(final String filePath) throws IOException, WrongDataFormatException {
-		var elementLoader = new ElementLoader(new TypedXPath());
-
-		DataSet dataset = new DataSet();
-		try {
-			var builder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-			var xmlDocument = builder.parse(new File(filePath));
-
-			// parse opx version
-			var datasetNode = elementLoader.findDataSetNode(xmlDocument);
-			dataset.setMainVersion(elementLoader.loadVersionFieldValue("mainVersion", datasetNode));
-			dataset.setSubVersion(elementLoader.loadVersionFieldValue("subVersion", datasetNode));
-
-			// get object fields
-			var fieldNodes = elementLoader.findFieldNodes(xmlDocument);
-
-			// parse property values
-			dataset.title = elementLoader.loadPropertyFieldValue("title", fieldNodes);
-			dataset.editorName = elementLoader.loadPropertyFieldValue("editorName", fieldNodes);
-			dataset.originalAuthorName = elementLoader.loadPropertyFieldValue("originalAuthorName", fieldNodes);
-			dataset.reference = elementLoader.loadPropertyFieldValue("reference", fieldNodes);
-			dataset.memo = elementLoader.loadPropertyFieldValue("memo", fieldNodes);
-
-			// parse line proxies
-			dataset.lines = elementLoader.loadOriLineProxies(xmlDocument);
-		} catch (SAXException e) {
+		try (var stream = new BufferedInputStream(new FileInputStream(filePath))) {
+			return new DataSetStreamReader().read(stream);
+		} catch (XMLStreamException e) {
 			throw new WrongDataFormatException("The file is not in XML format.", e);
-		} catch (NumberFormatException e) {
+		} catch (NumberFormatException | ClassCastException e) {
 			throw new WrongDataFormatException("Parse error.", e);
-		} catch (ParserConfigurationException | XPathExpressionException e) {
-			throw new RuntimeException("Bad implementation.", e);
 		}
-		return dataset;
 	}
 
 	@Override
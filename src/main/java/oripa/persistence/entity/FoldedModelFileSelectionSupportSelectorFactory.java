@@ -70,6 +70,12 @@ public class FoldedModelFileSelectionSupportSelectorFactory {
 				key,
 				accessSupportFactory.createFileAccessSupport(key, StringID.ModelUI.FILE_ID, " (all)"));
 
+		key = FoldedModelFileTypeKey.FOLDED_STATE_ARCHIVE;
+		put(
+				supports,
+				key,
+				accessSupportFactory.createFileAccessSupport(key, StringID.ModelUI.FILE_ID, " (archive)"));
+
 		if (modelFlip) {
 			key = FoldedModelFileTypeKey.SVG_FOLDED_MODEL_FLIP;
 			put(
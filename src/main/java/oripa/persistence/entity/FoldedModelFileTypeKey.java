@@ -20,6 +20,7 @@ package oripa.persistence.entity;
 
 import oripa.persistence.entity.exporter.ExporterORmat;
 import oripa.persistence.entity.exporter.FoldedModelAllExporterFOLD;
+import oripa.persistence.entity.exporter.FoldedModelExporterArchive;
 import oripa.persistence.entity.exporter.FoldedModelExporterSVG;
 import oripa.persistence.entity.exporter.FoldedModelPictureExporter;
 import oripa.persistence.entity.exporter.FoldedModelSingleExporterFOLD;
@@ -37,7 +38,8 @@ enum FoldedModelFileTypeKey implements FileTypePropertyWithAccessor<FoldedModelE
 	PICTURE("picture", 2, null, new FoldedModelPictureExporter(), "png", "jpg"),
 	ORMAT_FOLDED_MODEL("ormat", 3, null, new ExporterORmat(), "ormat"),
 	FOLD_SINGLE_OVERLAPS("fold_single_overlaps", 4, null, new FoldedModelSingleExporterFOLD(), "fold"),
-	FOLD_ALL_OVERLAPS("fold_all_overlaps", 5, null, new FoldedModelAllExporterFOLD(), "fold");
+	FOLD_ALL_OVERLAPS("fold_all_overlaps", 5, null, new FoldedModelAllExporterFOLD(), "fold"),
+	FOLDED_STATE_ARCHIVE("folded_state_archive", 6, null, new FoldedModelExporterArchive(), "ofa");
 
 	private final String keyText;
 	private final Integer order;
@@ -49,4 +49,8 @@ public class FoldedModelFileTypes {
 		return new FileType<>(FoldedModelFileTypeKey.FOLD_ALL_OVERLAPS);
 	}
 
+	public static FileType<FoldedModelEntity> foldedStateArchive() {
+		return new FileType<>(FoldedModelFileTypeKey.FOLDED_STATE_ARCHIVE);
+	}
+
 }
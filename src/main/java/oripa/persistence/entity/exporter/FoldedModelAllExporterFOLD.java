@@ -21,16 +21,14 @@ package oripa.persistence.entity.exporter;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.ArrayList;
-
-import com.google.gson.GsonBuilder;
 
 import oripa.persistence.entity.FoldedModelEntity;
 import oripa.persistence.filetool.Exporter;
-import oripa.persistence.foldformat.FoldedModelElementConverter;
-import oripa.persistence.foldformat.Frame;
 
 /**
+ * Exports all of the folded states as frames. The frames are streamed by
+ * {@link FoldedModelStreamWriterFOLD}.
+ *
  * @author OUCHI Koji
  *
  */
@@ -39,29 +37,10 @@ public class FoldedModelAllExporterFOLD implements Exporter<FoldedModelEntity> {
 	@Override
 	public boolean export(final FoldedModelEntity entity, final String filePath, final Object configObj)
 			throws IOException, IllegalArgumentException {
-		var elementConverter = new FoldedModelElementConverter();
-		var factory = new FoldedModelFOLDFactory(elementConverter);
-
-		var origamiModel = entity.getOrigamiModel();
-		var overlapRelations = entity.getOverlapRelations();
-
-		var foldFormat = factory.createWithoutFaceOrders(origamiModel);
-
-		var frames = new ArrayList<Frame>();
-		overlapRelations.forEach(relation -> {
-			var frame = new Frame();
-			frame.setFrameInherit(true);
-			frame.setFrameParent(0);
-			frame.setFaceOrders(elementConverter.toFaceOrders(origamiModel, relation));
-			frames.add(frame);
-		});
-
-		foldFormat.setFileFrames(frames);
 
-		try (var writer = Files.newBufferedWriter(Path.of(filePath))) {
-			var gson = new GsonBuilder().setPrettyPrinting().create();
-			gson.toJson(foldFormat, writer);
-			writer.flush();
+		try (var writer = new FoldedModelStreamWriterFOLD(entity.getOrigamiModel(),
+				Files.newBufferedWriter(Path.of(filePath)))) {
+			writer.writeAll(entity.getOverlapRelations().iterator());
 		}
 
 		return true;
@@ -16,32 +16,32 @@
     You should have received a copy of the GNU General Public License
     along with this program.  If not, see <http://www.gnu.org/licenses/>.
  */
-package oripa.persistence.xml;
+package oripa.persistence.entity.exporter;
 
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathExpressionException;
-import javax.xml.xpath.XPathFactory;
+import java.io.IOException;
+import java.nio.file.Path;
 
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import oripa.persistence.entity.FoldedModelEntity;
+import oripa.persistence.filetool.Exporter;
 
-public class TypedXPath {
-	private final XPath xpath;
+/**
+ * Exports all of the folded states as a folded-state archive by
+ * {@link FoldedModelStreamWriterArchive}.
+ *
+ * @author OUCHI Koji
+ *
+ */
+public class FoldedModelExporterArchive implements Exporter<FoldedModelEntity> {
 
-	public TypedXPath() {
-		this(XPathFactory.newInstance().newXPath());
-	}
+	@Override
+	public boolean export(final FoldedModelEntity entity, final String filePath, final Object configObj)
+			throws IOException, IllegalArgumentException {
 
-	public TypedXPath(final XPath xpath) {
-		this.xpath = xpath;
-	}
+		try (var writer = new FoldedModelStreamWriterArchive(entity.getOrigamiModel(), Path.of(filePath))) {
+			writer.writeAll(entity.getOverlapRelations().iterator());
+		}
 
-	public Node evaluateAsNode(final String expression, final Node node) throws XPathExpressionException {
-		return (Node) xpath.evaluate(expression, node, XPathConstants.NODE);
+		return true;
 	}
 
-	public NodeList evaluateAsNodeList(final String expression, final Node node) throws XPathExpressionException {
-		return (NodeList) xpath.evaluate(expression, node, XPathConstants.NODESET);
-	}
-}
\ No newline at end of file
+}
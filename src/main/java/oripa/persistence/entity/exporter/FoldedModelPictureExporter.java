@@ -18,30 +18,19 @@
  */
 package oripa.persistence.entity.exporter;
 
-import java.awt.Color;
-import java.awt.geom.AffineTransform;
-import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 
 import javax.imageio.ImageIO;
 
-import oripa.geom.RectangleDomain;
 import oripa.persistence.entity.FoldedModelEntity;
 import oripa.persistence.filetool.Exporter;
-import oripa.renderer.estimation.Distortion;
-import oripa.renderer.estimation.FoldedModelPixelRenderer;
-import oripa.swing.drawer.java2d.PixelDrawer;
-import oripa.swing.view.util.AffineCamera;
 
 /**
  * @author OUCHI Koji
  *
  */
 public class FoldedModelPictureExporter implements Exporter<FoldedModelEntity> {
-	private final int WIDTH = 600;
-	private final int HEIGHT = 600;
-
 	/**
 	 * @param configObj
 	 *            should be an instance of {@link FoldedModelPictureConfig}.
@@ -56,52 +45,8 @@ public class FoldedModelPictureExporter implements Exporter<FoldedModelEntity> {
 
 		var config = (FoldedModelPictureConfig) configObj;
 
-		var origamiModel = foldedModel.getOrigamiModel();
-		var overlapRelation = foldedModel.getOverlapRelation();
-		var modelDomain = origamiModel.createDomainOfFoldedModel();
-
-		var rendererOption = new FoldedModelPixelRenderer.Option()
-				.setAmbientOcclusion(config.isAmbientOcclusion())
-				.setDrawEdges(config.isDrawEdges())
-				.setFaceOrderFlipped(config.isFaceOrderFlipped())
-				.setFillFace(config.isFillFaces())
-				.setColors(config.getFrontColor(), config.getBackColor());
-
-		var pixelRenderer = new FoldedModelPixelRenderer(WIDTH, HEIGHT);
-
-		var distortion = new Distortion(modelDomain, WIDTH, HEIGHT);
-		var converter = distortion.createCoordinateConverter(config.getDistortionMethod(),
-				config.getDistortionParameter(),
-				computeScale(modelDomain));
-
-		var distortionResult = distortion.apply(origamiModel, overlapRelation,
-				converter, config.getVertexDepths(), config.getEps());
-
-		var faces = distortionResult.faces();
-		var interpolatedOverlapRelation = distortionResult.interpolatedOverlapRelation();
-
-		pixelRenderer.render(faces, interpolatedOverlapRelation, origamiModel.createPaperDomain(),
-				rendererOption);
-
-		var camera = new AffineCamera();
-
-		camera.updateCameraPosition(WIDTH / 2, HEIGHT / 2);
-		camera.updateCenterOfPaper(WIDTH / 2, HEIGHT / 2);
-		camera.updateRotateAngle(config.getRotateAngle());
-		camera.updateScale(1);
-
-		var image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
-		var g = image.createGraphics();
-		// Clear image
-		g.setTransform(new AffineTransform());
-		g.setColor(Color.WHITE);
-		g.fillRect(0, 0, WIDTH, HEIGHT);
-
-		g.setTransform(camera.getAffineTransform());
-
-		var drawer = new PixelDrawer();
-
-		drawer.draw(g, pixelRenderer.getPixels(), WIDTH, HEIGHT);
+		var renderer = new FoldedModelPictureRenderer(foldedModel.getOrigamiModel(), config);
+		var image = renderer.render(foldedModel.getOverlapRelation());
 
 		File file = new File(filePath);
 		ImageIO.write(image, filePath.substring(filePath.lastIndexOf(".") + 1),
@@ -109,8 +54,4 @@ public class FoldedModelPictureExporter implements Exporter<FoldedModelEntity> {
 
 		return true;
 	}
-
-	private double computeScale(final RectangleDomain modelDomain) {
-		return Math.min(WIDTH / modelDomain.getWidth(), HEIGHT / modelDomain.getHeight()) / 1.5;
-	}
 }
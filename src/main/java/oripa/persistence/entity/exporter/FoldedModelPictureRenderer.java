@@ -0,0 +1,123 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.exporter;
+
+import java.awt.Color;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.geom.RectangleDomain;
+import oripa.renderer.estimation.Distortion;
+import oripa.renderer.estimation.Face;
+import oripa.renderer.estimation.FoldedModelPixelRenderer;
+import oripa.swing.drawer.java2d.PixelDrawer;
+import oripa.swing.view.util.AffineCamera;
+
+/**
+ * Renders the folded states of a model as images. The coordinate conversion
+ * and the triangulation of faces are done once at construction and shared by
+ * all states. {@link #render(OverlapRelation)} can be called from multiple
+ * threads since each thread uses its own pixel buffer.
+ */
+public class FoldedModelPictureRenderer {
+	private static final int WIDTH = 600;
+	private static final int HEIGHT = 600;
+
+	private final FoldedModelPictureConfig config;
+
+	private final Distortion distortion;
+	private final List<Face> faces;
+	private final RectangleDomain paperDomain;
+
+	private final FoldedModelPixelRenderer.Option rendererOption;
+	private final ThreadLocal<FoldedModelPixelRenderer> pixelRenderers = ThreadLocal
+			.withInitial(() -> new FoldedModelPixelRenderer(WIDTH, HEIGHT));
+
+	/**
+	 *
+	 * @param origamiModel
+	 *            folded model.
+	 * @param config
+	 *            the vertex depths in the config are used for all states.
+	 */
+	public FoldedModelPictureRenderer(final OrigamiModel origamiModel, final FoldedModelPictureConfig config) {
+		this.config = config;
+
+		var modelDomain = origamiModel.createDomainOfFoldedModel();
+
+		distortion = new Distortion(modelDomain, WIDTH, HEIGHT);
+		var converter = distortion.createCoordinateConverter(config.getDistortionMethod(),
+				config.getDistortionParameter(),
+				computeScale(modelDomain));
+
+		faces = distortion.createFaces(origamiModel, converter, config.getVertexDepths(), config.getEps());
+		paperDomain = origamiModel.createPaperDomain();
+
+		rendererOption = new FoldedModelPixelRenderer.Option()
+				.setAmbientOcclusion(config.isAmbientOcclusion())
+				.setDrawEdges(config.isDrawEdges())
+				.setFaceOrderFlipped(config.isFaceOrderFlipped())
+				.setFillFace(config.isFillFaces())
+				.setColors(config.getFrontColor(), config.getBackColor());
+	}
+
+	/**
+	 *
+	 * @param overlapRelation
+	 *            a folded state of the model given at construction.
+	 * @return image of the state.
+	 */
+	public BufferedImage render(final OverlapRelation overlapRelation) {
+		var distortionResult = distortion.interpolate(faces, overlapRelation, config.getEps());
+
+		var pixelRenderer = pixelRenderers.get();
+		pixelRenderer.render(distortionResult.faces(), distortionResult.interpolatedOverlapRelation(),
+				paperDomain, rendererOption);
+
+		var camera = new AffineCamera();
+
+		camera.updateCameraPosition(WIDTH / 2, HEIGHT / 2);
+		camera.updateCenterOfPaper(WIDTH / 2, HEIGHT / 2);
+		camera.updateRotateAngle(config.getRotateAngle());
+		camera.updateScale(1);
+
+		var image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		var g = image.createGraphics();
+		// Clear image
+		g.setTransform(new AffineTransform());
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, WIDTH, HEIGHT);
+
+		g.setTransform(camera.getAffineTransform());
+
+		var drawer = new PixelDrawer();
+
+		drawer.draw(g, pixelRenderer.getPixels(), WIDTH, HEIGHT);
+		g.dispose();
+
+		return image;
+	}
+
+	private double computeScale(final RectangleDomain modelDomain) {
+		return Math.min(WIDTH / modelDomain.getWidth(), HEIGHT / modelDomain.getHeight()) / 1.5;
+	}
+}
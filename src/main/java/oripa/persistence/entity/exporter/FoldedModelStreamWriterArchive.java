@@ -0,0 +1,226 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.exporter;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import com.google.gson.Gson;
+
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.foldedarchive.FoldedStateArchiveFormat;
+import oripa.persistence.foldedarchive.OverlapRelationCodec;
+import oripa.persistence.foldformat.FoldedModelElementConverter;
+
+/**
+ * Writes folded states to a folded-state archive one by one. A state is
+ * written as a delta against the last packed state if the delta is less than
+ * half of the packed size, otherwise the state is packed and becomes the
+ * reference of the following states.
+ *
+ * The model is written with the first state (or at closing if no state is
+ * written) as {@link FoldedModelStreamWriterFOLD} does. The header and the
+ * index are written at closing.
+ *
+ * @see FoldedStateArchiveFormat
+ */
+public class FoldedModelStreamWriterArchive implements Closeable {
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final OrigamiModel origamiModel;
+	private final OverlapRelationCodec codec;
+
+	private final FileChannel channel;
+	private final OutputStream outputStream;
+	private long position;
+
+	private ByteBuffer recordBuffer;
+
+	private long modelOffset;
+	private int modelLength;
+
+	private long[] recordOffsets = new long[16];
+	private int stateCount = 0;
+
+	private byte[] referenceCodes;
+	private int referenceIndex = -1;
+
+	private boolean started = false;
+
+	/**
+	 *
+	 * @param origamiModel
+	 *            the model to be folded. The overlap relations to be written
+	 *            should be for this model.
+	 * @param path
+	 *            destination.
+	 * @throws IOException
+	 */
+	public FoldedModelStreamWriterArchive(final OrigamiModel origamiModel, final Path path) throws IOException {
+		this.origamiModel = origamiModel;
+		codec = new OverlapRelationCodec(origamiModel.getFaces().size());
+
+		channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING);
+		outputStream = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+
+		recordBuffer = ByteBuffer.allocate(1 + codec.getPackedLength());
+	}
+
+	/**
+	 * Writes a room for the header and the properties of the model.
+	 */
+	private void start() throws IOException {
+		if (started) {
+			return;
+		}
+		started = true;
+
+		write(new byte[FoldedStateArchiveFormat.HEADER_SIZE]);
+
+		var factory = new FoldedModelFOLDFactory(new FoldedModelElementConverter());
+		var model = new Gson().toJson(factory.createWithoutFaceOrders(origamiModel))
+				.getBytes(StandardCharsets.UTF_8);
+
+		modelOffset = position;
+		modelLength = model.length;
+		write(model);
+	}
+
+	private void write(final byte[] bytes) throws IOException {
+		outputStream.write(bytes);
+		position += bytes.length;
+	}
+
+	private void writeRecordBuffer() throws IOException {
+		outputStream.write(recordBuffer.array(), 0, recordBuffer.position());
+		position += recordBuffer.position();
+	}
+
+	/**
+	 * Writes the given overlap relation as a new state.
+	 *
+	 * @param overlapRelation
+	 *            overlap relation of the model given at construction.
+	 * @throws IOException
+	 */
+	public void write(final OverlapRelation overlapRelation) throws IOException {
+		start();
+
+		var codes = codec.toCodes(overlapRelation);
+
+		if (stateCount == recordOffsets.length - 1) {
+			recordOffsets = Arrays.copyOf(recordOffsets, recordOffsets.length * 2);
+		}
+		recordOffsets[stateCount++] = position;
+
+		var packedRecordLength = 1 + codec.getPackedLength();
+
+		if (referenceCodes != null) {
+			var changeCount = codec.countChanges(referenceCodes, codes);
+			var maxLength = 1 + 2 * Integer.BYTES + codec.getMaxDeltaLength(changeCount);
+			if (recordBuffer.capacity() < maxLength) {
+				recordBuffer = ByteBuffer.allocate(maxLength);
+			}
+
+			recordBuffer.clear();
+			recordBuffer.put(FoldedStateArchiveFormat.DELTA);
+			recordBuffer.putInt(referenceIndex);
+			recordBuffer.putInt(changeCount);
+			codec.encodeDelta(referenceCodes, codes, recordBuffer);
+
+			if (recordBuffer.position() < packedRecordLength / 2) {
+				writeRecordBuffer();
+				return;
+			}
+		}
+
+		recordBuffer.clear();
+		recordBuffer.put(FoldedStateArchiveFormat.PACKED);
+		codec.pack(codes, recordBuffer);
+		writeRecordBuffer();
+
+		referenceCodes = codes;
+		referenceIndex = stateCount - 1;
+	}
+
+	/**
+	 * Writes each overlap relation as a new state.
+	 *
+	 * @param overlapRelations
+	 *            overlap relations of the model given at construction.
+	 * @throws IOException
+	 */
+	public void writeAll(final Iterator<OverlapRelation> overlapRelations) throws IOException {
+		while (overlapRelations.hasNext()) {
+			write(overlapRelations.next());
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of states written so far.
+	 */
+	public int getStateCount() {
+		return stateCount;
+	}
+
+	/**
+	 * Writes the index and the header, and closes the destination.
+	 */
+	@Override
+	public void close() throws IOException {
+		try (channel) {
+			start();
+
+			var indexOffset = position;
+			recordOffsets[stateCount] = indexOffset;
+
+			var index = ByteBuffer.allocate(Long.BYTES * (stateCount + 1));
+			index.asLongBuffer().put(recordOffsets, 0, stateCount + 1);
+			write(index.array());
+			outputStream.flush();
+
+			var header = ByteBuffer.allocate(FoldedStateArchiveFormat.HEADER_SIZE);
+			header.putInt(FoldedStateArchiveFormat.MAGIC_POSITION, FoldedStateArchiveFormat.MAGIC);
+			header.putInt(FoldedStateArchiveFormat.VERSION_POSITION, FoldedStateArchiveFormat.VERSION);
+			header.putInt(FoldedStateArchiveFormat.FACE_COUNT_POSITION, origamiModel.getFaces().size());
+			header.putInt(FoldedStateArchiveFormat.STATE_COUNT_POSITION, stateCount);
+			header.putLong(FoldedStateArchiveFormat.MODEL_OFFSET_POSITION, modelOffset);
+			header.putInt(FoldedStateArchiveFormat.MODEL_LENGTH_POSITION, modelLength);
+			header.putLong(FoldedStateArchiveFormat.INDEX_OFFSET_POSITION, indexOffset);
+
+			var headerPosition = 0L;
+			while (header.hasRemaining()) {
+				headerPosition += channel.write(header, headerPosition);
+			}
+		}
+	}
+}
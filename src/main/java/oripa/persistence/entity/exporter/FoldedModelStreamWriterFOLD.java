@@ -0,0 +1,159 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.exporter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Iterator;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.stream.JsonWriter;
+
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.foldformat.FoldedModelElementConverter;
+
+/**
+ * Writes a multiple frame FOLD file frame by frame. Each overlap relation is
+ * written as a frame immediately, so the folded states don't have to be kept
+ * in memory. The face orders are also written one by one without building the
+ * list of them.
+ *
+ * The properties of the model are written with the first frame (or at
+ * closing if no frame is written). Therefore the writer can be created before
+ * the model is folded.
+ */
+public class FoldedModelStreamWriterFOLD implements Closeable {
+	private static final String FILE_FRAMES = "file_frames";
+	private static final String FACE_ORDERS = "faceOrders";
+	private static final String FRAME_PARENT = "frame_parent";
+	private static final String FRAME_INHERIT = "frame_inherit";
+
+	private final FoldedModelElementConverter elementConverter = new FoldedModelElementConverter();
+	private final Gson gson = new GsonBuilder().setPrettyPrinting().create();
+
+	private final OrigamiModel origamiModel;
+	private final JsonWriter jsonWriter;
+
+	private boolean started = false;
+	private int frameCount = 0;
+
+	/**
+	 *
+	 * @param origamiModel
+	 *            the model to be folded. The overlap relations to be written
+	 *            should be for this model.
+	 * @param writer
+	 *            destination. It is closed by {@link #close()}.
+	 * @throws IOException
+	 */
+	public FoldedModelStreamWriterFOLD(final OrigamiModel origamiModel, final Writer writer) throws IOException {
+		this.origamiModel = origamiModel;
+		jsonWriter = gson.newJsonWriter(writer);
+	}
+
+	/**
+	 * Writes the properties of the model and starts the frame list.
+	 */
+	private void start() throws IOException {
+		if (started) {
+			return;
+		}
+		started = true;
+
+		var factory = new FoldedModelFOLDFactory(elementConverter);
+		var foldFormat = factory.createWithoutFaceOrders(origamiModel);
+		var properties = gson.toJsonTree(foldFormat).getAsJsonObject();
+
+		jsonWriter.beginObject();
+		for (var property : properties.entrySet()) {
+			jsonWriter.name(property.getKey());
+			gson.toJson(property.getValue(), jsonWriter);
+		}
+		jsonWriter.name(FILE_FRAMES);
+		jsonWriter.beginArray();
+	}
+
+	/**
+	 * Writes the given overlap relation as a new frame.
+	 *
+	 * @param overlapRelation
+	 *            overlap relation of the model given at construction.
+	 * @throws IOException
+	 */
+	public void write(final OverlapRelation overlapRelation) throws IOException {
+		start();
+
+		// same as the serialization of Frame with face orders, parent and
+		// inheritance, without the list of face orders.
+		jsonWriter.beginObject();
+
+		jsonWriter.name(FACE_ORDERS);
+		jsonWriter.beginArray();
+		elementConverter.forEachFaceOrder(origamiModel, overlapRelation, (i, j, direction) -> {
+			jsonWriter.beginArray();
+			jsonWriter.value(i);
+			jsonWriter.value(j);
+			jsonWriter.value(direction);
+			jsonWriter.endArray();
+		});
+		jsonWriter.endArray();
+
+		jsonWriter.name(FRAME_PARENT).value(0);
+		jsonWriter.name(FRAME_INHERIT).value(true);
+
+		jsonWriter.endObject();
+		frameCount++;
+	}
+
+	/**
+	 * Writes each overlap relation as a new frame.
+	 *
+	 * @param overlapRelations
+	 *            overlap relations of the model given at construction.
+	 * @throws IOException
+	 */
+	public void writeAll(final Iterator<OverlapRelation> overlapRelations) throws IOException {
+		while (overlapRelations.hasNext()) {
+			write(overlapRelations.next());
+		}
+	}
+
+	/**
+	 *
+	 * @return the number of frames written so far.
+	 */
+	public int getFrameCount() {
+		return frameCount;
+	}
+
+	/**
+	 * Closes the frame list and the destination.
+	 */
+	@Override
+	public void close() throws IOException {
+		start();
+
+		jsonWriter.endArray();
+		jsonWriter.endObject();
+		jsonWriter.close();
+	}
+}
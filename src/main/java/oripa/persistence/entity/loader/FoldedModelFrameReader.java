@@ -0,0 +1,79 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.loader;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Objects;
+
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.filetool.WrongDataFormatException;
+
+/**
+ * Gives random access to the folded states in a file without loading all of
+ * them.
+ */
+public interface FoldedModelFrameReader extends Closeable {
+	@FunctionalInterface
+	interface OverlapRelationConsumer {
+		void accept(int index, OverlapRelation overlapRelation) throws IOException;
+	}
+
+	/**
+	 *
+	 * @return the model restored enough for exporting images.
+	 */
+	OrigamiModel getOrigamiModel();
+
+	/**
+	 *
+	 * @return the number of folded states in the file.
+	 */
+	int getOverlapRelationCount();
+
+	/**
+	 *
+	 * @param index
+	 *            index of the folded state.
+	 * @return overlap relation of the state.
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range.
+	 */
+	OverlapRelation readOverlapRelation(int index) throws IOException, WrongDataFormatException;
+
+	/**
+	 * Reads the folded states in [fromIndex, toIndex) in the order of index.
+	 * Implementations can override this method to read the states in one
+	 * pass.
+	 *
+	 * @param consumer
+	 *            receives each state. The relations are distinct instances.
+	 * @throws IndexOutOfBoundsException
+	 *             if the range is out of bounds.
+	 */
+	default void readOverlapRelations(final int fromIndex, final int toIndex,
+			final OverlapRelationConsumer consumer) throws IOException, WrongDataFormatException {
+		Objects.checkFromToIndex(fromIndex, toIndex, getOverlapRelationCount());
+
+		for (int i = fromIndex; i < toIndex; i++) {
+			consumer.accept(i, readOverlapRelation(i));
+		}
+	}
+}
@@ -0,0 +1,210 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.loader;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.filetool.WrongDataFormatException;
+import oripa.persistence.foldedarchive.FoldedStateArchiveFormat;
+import oripa.persistence.foldedarchive.OverlapRelationCodec;
+import oripa.persistence.foldformat.FoldedModelFOLDFormat;
+
+/**
+ * Reads a folded-state archive through memory mapping. The construction reads
+ * the header, the model and maps the index, so that each state is read in
+ * constant time regardless of the number of states.
+ *
+ * @see FoldedStateArchiveFormat
+ */
+public class FoldedModelReaderArchive implements FoldedModelFrameReader {
+
+	private final FileChannel channel;
+
+	private final OrigamiModel origamiModel;
+	private final OverlapRelationCodec codec;
+	private final int stateCount;
+
+	private final LongBuffer index;
+
+	/**
+	 * Whole file. null if the file is too large to be mapped at once.
+	 */
+	private final ByteBuffer records;
+
+	private int cachedReferenceIndex = -1;
+	private byte[] cachedReferenceCodes;
+
+	/**
+	 *
+	 * @param filePath
+	 *            path of folded-state archive.
+	 * @throws IOException
+	 * @throws WrongDataFormatException
+	 *             when the file is not a folded-state archive.
+	 */
+	public FoldedModelReaderArchive(final String filePath) throws IOException, WrongDataFormatException {
+		channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+
+		try {
+			var size = channel.size();
+			if (size < FoldedStateArchiveFormat.HEADER_SIZE) {
+				throw new WrongDataFormatException("The file is too short.");
+			}
+
+			var header = channel.map(FileChannel.MapMode.READ_ONLY, 0, FoldedStateArchiveFormat.HEADER_SIZE);
+			if (header.getInt(FoldedStateArchiveFormat.MAGIC_POSITION) != FoldedStateArchiveFormat.MAGIC) {
+				throw new WrongDataFormatException("The file is not a folded-state archive.");
+			}
+			var version = header.getInt(FoldedStateArchiveFormat.VERSION_POSITION);
+			if (version != FoldedStateArchiveFormat.VERSION) {
+				throw new WrongDataFormatException("Unsupported version: " + version);
+			}
+
+			var faceCount = header.getInt(FoldedStateArchiveFormat.FACE_COUNT_POSITION);
+			stateCount = header.getInt(FoldedStateArchiveFormat.STATE_COUNT_POSITION);
+			var modelOffset = header.getLong(FoldedStateArchiveFormat.MODEL_OFFSET_POSITION);
+			var modelLength = header.getInt(FoldedStateArchiveFormat.MODEL_LENGTH_POSITION);
+			var indexOffset = header.getLong(FoldedStateArchiveFormat.INDEX_OFFSET_POSITION);
+			var indexLength = Long.BYTES * (stateCount + 1L);
+
+			if (faceCount < 0 || stateCount < 0 || modelLength < 0
+					|| modelOffset < FoldedStateArchiveFormat.HEADER_SIZE || modelOffset + modelLength > size
+					|| indexOffset < modelOffset + modelLength || indexOffset + indexLength > size) {
+				throw new WrongDataFormatException("The header is broken.");
+			}
+
+			origamiModel = readOrigamiModel(modelOffset, modelLength);
+			if (origamiModel.getFaces().size() != faceCount) {
+				throw new WrongDataFormatException("The face count does not match the model.");
+			}
+			codec = new OverlapRelationCodec(faceCount);
+
+			index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexLength).asLongBuffer();
+			records = size <= Integer.MAX_VALUE
+					? channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+					: null;
+		} catch (IOException | WrongDataFormatException | RuntimeException e) {
+			channel.close();
+			throw e;
+		}
+	}
+
+	private OrigamiModel readOrigamiModel(final long modelOffset, final int modelLength)
+			throws IOException, WrongDataFormatException {
+		var model = channel.map(FileChannel.MapMode.READ_ONLY, modelOffset, modelLength);
+		try {
+			var foldFormat = new Gson().fromJson(
+					StandardCharsets.UTF_8.decode(model).toString(),
+					FoldedModelFOLDFormat.class);
+			return new OrigamiModelFactoryFOLD().create(foldFormat);
+		} catch (JsonParseException e) {
+			throw new WrongDataFormatException("The model in the archive is broken.", e);
+		}
+	}
+
+	@Override
+	public OrigamiModel getOrigamiModel() {
+		return origamiModel;
+	}
+
+	@Override
+	public int getOverlapRelationCount() {
+		return stateCount;
+	}
+
+	@Override
+	public OverlapRelation readOverlapRelation(final int index) throws IOException, WrongDataFormatException {
+		Objects.checkIndex(index, stateCount);
+
+		try {
+			return codec.toOverlapRelation(readCodes(index));
+		} catch (BufferUnderflowException | IllegalArgumentException e) {
+			throw new WrongDataFormatException("The record of state " + index + " is broken.", e);
+		}
+	}
+
+	private byte[] readCodes(final int stateIndex) throws IOException, WrongDataFormatException {
+		var record = mapRecord(stateIndex);
+
+		return switch (record.get()) {
+		case FoldedStateArchiveFormat.PACKED -> codec.unpack(record);
+		case FoldedStateArchiveFormat.DELTA -> {
+			var referenceIndex = record.getInt();
+			var changeCount = record.getInt();
+			var codes = readReferenceCodes(referenceIndex).clone();
+			codec.applyDelta(codes, changeCount, record);
+			yield codes;
+		}
+		default -> throw new WrongDataFormatException("Unknown record kind at state " + stateIndex + ".");
+		};
+	}
+
+	/**
+	 * Keeps the last reference since the neighboring states tend to share it.
+	 */
+	private byte[] readReferenceCodes(final int referenceIndex) throws IOException, WrongDataFormatException {
+		if (referenceIndex == cachedReferenceIndex) {
+			return cachedReferenceCodes;
+		}
+
+		if (referenceIndex < 0 || referenceIndex >= stateCount) {
+			throw new WrongDataFormatException("The reference state " + referenceIndex + " is out of range.");
+		}
+		var record = mapRecord(referenceIndex);
+		if (record.get() != FoldedStateArchiveFormat.PACKED) {
+			throw new WrongDataFormatException("The reference state " + referenceIndex + " is not packed.");
+		}
+
+		cachedReferenceCodes = codec.unpack(record);
+		cachedReferenceIndex = referenceIndex;
+
+		return cachedReferenceCodes;
+	}
+
+	private ByteBuffer mapRecord(final int stateIndex) throws IOException, WrongDataFormatException {
+		var start = index.get(stateIndex);
+		var end = index.get(stateIndex + 1);
+		if (start < FoldedStateArchiveFormat.HEADER_SIZE || end < start || end > channel.size()) {
+			throw new WrongDataFormatException("The index of state " + stateIndex + " is broken.");
+		}
+
+		if (records != null) {
+			return records.slice((int) start, (int) (end - start));
+		}
+		return channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
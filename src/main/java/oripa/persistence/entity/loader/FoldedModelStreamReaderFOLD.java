@@ -0,0 +1,422 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.loader;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.MalformedJsonException;
+
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.filetool.WrongDataFormatException;
+import oripa.persistence.foldformat.FoldedModelElementConverter;
+import oripa.persistence.foldformat.FoldedModelFOLDFormat;
+
+/**
+ * Reads a FOLD file of folded model by streaming the tokens. The construction
+ * reads the model and indexes the frames skipping their face orders. Then the
+ * overlap relation of each folded state is read on demand, so only the
+ * requested frame is held in memory.
+ *
+ * The folded states are the frames which have face orders by themselves or
+ * by inheritance, in the order of frame index. The key frame is the frame 0.
+ */
+public class FoldedModelStreamReaderFOLD implements FoldedModelFrameReader {
+	private static final String FILE_FRAMES = "file_frames";
+	private static final String FACE_ORDERS = "faceOrders";
+	private static final String FRAME_PARENT = "frame_parent";
+	private static final String FRAME_INHERIT = "frame_inherit";
+
+	private final FoldedModelElementConverter converter = new FoldedModelElementConverter();
+
+	private final Path path;
+	private final OrigamiModel origamiModel;
+
+	/**
+	 * Index of the frame holding the face orders for each folded state.
+	 */
+	private final int[] faceOrdersFrameIndices;
+
+	private record FrameHeader(boolean hasFaceOrders, boolean inherits, int parent) {
+	}
+
+	/**
+	 *
+	 * @param filePath
+	 *            path of FOLD file.
+	 * @throws IOException
+	 * @throws WrongDataFormatException
+	 *             when the file is not a FOLD file of folded model.
+	 */
+	public FoldedModelStreamReaderFOLD(final String filePath) throws IOException, WrongDataFormatException {
+		path = Path.of(filePath);
+
+		var properties = new JsonObject();
+		var frameHeaders = new ArrayList<FrameHeader>();
+
+		try (var jsonReader = open()) {
+			var keyFrameHasFaceOrders = false;
+
+			jsonReader.beginObject();
+			while (jsonReader.hasNext()) {
+				var name = jsonReader.nextName();
+				switch (name) {
+				case FILE_FRAMES -> readFrameHeaders(jsonReader, frameHeaders);
+				case FACE_ORDERS -> {
+					keyFrameHasFaceOrders = true;
+					jsonReader.skipValue();
+				}
+				default -> properties.add(name, JsonParser.parseReader(jsonReader));
+				}
+			}
+			jsonReader.endObject();
+
+			frameHeaders.add(0, new FrameHeader(keyFrameHasFaceOrders, false, 0));
+		} catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException
+				| NumberFormatException e) {
+			throw createFormatException(e);
+		}
+
+		FoldedModelFOLDFormat foldFormat;
+		try {
+			foldFormat = new Gson().fromJson(properties, FoldedModelFOLDFormat.class);
+		} catch (JsonParseException e) {
+			throw createFormatException(e);
+		}
+		origamiModel = new OrigamiModelFactoryFOLD().create(foldFormat);
+
+		faceOrdersFrameIndices = resolveFaceOrdersFrames(frameHeaders);
+	}
+
+	private JsonReader open() throws IOException {
+		return new JsonReader(Files.newBufferedReader(path));
+	}
+
+	private WrongDataFormatException createFormatException(final Exception e) {
+		return new WrongDataFormatException(
+				"The file does not follow JSON style."
+						+ " Note that FOLD format is based on JSON.",
+				e);
+	}
+
+	private void readFrameHeaders(final JsonReader jsonReader, final List<FrameHeader> frameHeaders)
+			throws IOException {
+		jsonReader.beginArray();
+		while (jsonReader.hasNext()) {
+			var hasFaceOrders = false;
+			var inherits = false;
+			var parent = 0;
+
+			jsonReader.beginObject();
+			while (jsonReader.hasNext()) {
+				switch (jsonReader.nextName()) {
+				case FACE_ORDERS -> {
+					hasFaceOrders = true;
+					jsonReader.skipValue();
+				}
+				case FRAME_INHERIT -> inherits = jsonReader.nextBoolean();
+				case FRAME_PARENT -> parent = jsonReader.nextInt();
+				default -> jsonReader.skipValue();
+				}
+			}
+			jsonReader.endObject();
+
+			frameHeaders.add(new FrameHeader(hasFaceOrders, inherits, parent));
+		}
+		jsonReader.endArray();
+	}
+
+	/**
+	 * Follows the inheritance of face orders as {@code FOLDFormat#getFrame()}
+	 * does.
+	 */
+	private int[] resolveFaceOrdersFrames(final List<FrameHeader> frameHeaders)
+			throws WrongDataFormatException {
+		var indices = new ArrayList<Integer>();
+
+		for (int i = 0; i < frameHeaders.size(); i++) {
+			var visited = new HashSet<Integer>();
+			int frameIndex = i;
+			while (frameIndex >= 0) {
+				if (!visited.add(frameIndex)) {
+					throw new WrongDataFormatException("frame_parent has a loop at frame " + i + ".");
+				}
+				var header = frameHeaders.get(frameIndex);
+				if (header.hasFaceOrders()) {
+					indices.add(frameIndex);
+					break;
+				}
+				if (frameIndex == 0 || !header.inherits()) {
+					break;
+				}
+				if (header.parent() < 0 || header.parent() >= frameHeaders.size()) {
+					throw new WrongDataFormatException("frame_parent of frame " + frameIndex + " is out of range.");
+				}
+				frameIndex = header.parent();
+			}
+		}
+
+		return indices.stream().mapToInt(Integer::intValue).toArray();
+	}
+
+	/**
+	 *
+	 * @return the model restored enough for exporting images.
+	 */
+	@Override
+	public OrigamiModel getOrigamiModel() {
+		return origamiModel;
+	}
+
+	/**
+	 *
+	 * @return the number of folded states in the file.
+	 */
+	@Override
+	public int getOverlapRelationCount() {
+		return faceOrdersFrameIndices.length;
+	}
+
+	/**
+	 * Reads the overlap relation of the specified folded state. This method
+	 * parses only the face orders of the corresponding frame.
+	 *
+	 * @param index
+	 *            index of the folded state.
+	 * @return overlap relation of the state.
+	 * @throws IndexOutOfBoundsException
+	 *             if the index is out of range.
+	 */
+	@Override
+	public OverlapRelation readOverlapRelation(final int index) throws IOException, WrongDataFormatException {
+		var frameIndex = faceOrdersFrameIndices[index];
+
+		try (var jsonReader = open()) {
+			jsonReader.beginObject();
+			while (jsonReader.hasNext()) {
+				var name = jsonReader.nextName();
+				if (frameIndex == 0 && name.equals(FACE_ORDERS)) {
+					return readFaceOrders(jsonReader);
+				}
+				if (frameIndex > 0 && name.equals(FILE_FRAMES)) {
+					jsonReader.beginArray();
+					for (int i = 1; i < frameIndex; i++) {
+						jsonReader.skipValue();
+					}
+					return readFaceOrdersOfFrame(jsonReader);
+				}
+				jsonReader.skipValue();
+			}
+		} catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException
+				| NumberFormatException e) {
+			throw createFormatException(e);
+		}
+
+		throw new WrongDataFormatException("face orders of frame " + frameIndex + " are not found.");
+	}
+
+	/**
+	 * Reads the overlap relations of all folded states in one pass.
+	 *
+	 * @return overlap relations in the order of folded state index.
+	 */
+	public List<OverlapRelation> readAllOverlapRelations() throws IOException, WrongDataFormatException {
+		var relationsOfFrames = new HashMap<Integer, OverlapRelation>();
+
+		try (var jsonReader = open()) {
+			jsonReader.beginObject();
+			while (jsonReader.hasNext()) {
+				var name = jsonReader.nextName();
+				if (name.equals(FACE_ORDERS)) {
+					relationsOfFrames.put(0, readFaceOrders(jsonReader));
+				} else if (name.equals(FILE_FRAMES)) {
+					jsonReader.beginArray();
+					for (int frameIndex = 1; jsonReader.hasNext(); frameIndex++) {
+						var relation = readFaceOrdersOfFrame(jsonReader);
+						if (relation != null) {
+							relationsOfFrames.put(frameIndex, relation);
+						}
+					}
+					jsonReader.endArray();
+				} else {
+					jsonReader.skipValue();
+				}
+			}
+			jsonReader.endObject();
+		} catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException
+				| NumberFormatException e) {
+			throw createFormatException(e);
+		}
+
+		var relations = new ArrayList<OverlapRelation>(faceOrdersFrameIndices.length);
+		var used = new HashSet<Integer>();
+		for (var frameIndex : faceOrdersFrameIndices) {
+			var relation = relationsOfFrames.get(frameIndex);
+			// inheriting frames get their own instances.
+			relations.add(used.add(frameIndex) ? relation : relation.clone());
+		}
+
+		return relations;
+	}
+
+	/**
+	 * Reads the states in one pass. A relation is kept only while a state in
+	 * the range which has not been given to the consumer uses it, and the
+	 * reading stops when the last state in the range is given.
+	 */
+	@Override
+	public void readOverlapRelations(final int fromIndex, final int toIndex,
+			final OverlapRelationConsumer consumer) throws IOException, WrongDataFormatException {
+		Objects.checkFromToIndex(fromIndex, toIndex, faceOrdersFrameIndices.length);
+
+		if (fromIndex == toIndex) {
+			return;
+		}
+
+		var useCounts = new HashMap<Integer, Integer>();
+		for (int i = fromIndex; i < toIndex; i++) {
+			useCounts.merge(faceOrdersFrameIndices[i], 1, Integer::sum);
+		}
+
+		var relationsOfFrames = new HashMap<Integer, OverlapRelation>();
+		var next = fromIndex;
+
+		try (var jsonReader = open()) {
+			jsonReader.beginObject();
+			while (next < toIndex && jsonReader.hasNext()) {
+				var name = jsonReader.nextName();
+				if (name.equals(FACE_ORDERS) && useCounts.containsKey(0)) {
+					relationsOfFrames.put(0, readFaceOrders(jsonReader));
+					next = giveReadyStates(next, toIndex, relationsOfFrames, useCounts, consumer);
+				} else if (name.equals(FILE_FRAMES)) {
+					jsonReader.beginArray();
+					for (int frameIndex = 1; next < toIndex && jsonReader.hasNext(); frameIndex++) {
+						if (!useCounts.containsKey(frameIndex)) {
+							jsonReader.skipValue();
+							continue;
+						}
+						var relation = readFaceOrdersOfFrame(jsonReader);
+						if (relation != null) {
+							relationsOfFrames.put(frameIndex, relation);
+							next = giveReadyStates(next, toIndex, relationsOfFrames, useCounts, consumer);
+						}
+					}
+				} else {
+					jsonReader.skipValue();
+				}
+			}
+		} catch (MalformedJsonException | EOFException | JsonParseException | IllegalStateException
+				| NumberFormatException e) {
+			throw createFormatException(e);
+		}
+
+		if (next < toIndex) {
+			throw new WrongDataFormatException("face orders of state " + next + " are not found.");
+		}
+	}
+
+	/**
+	 * Gives the states whose relations have been read in the order of index.
+	 *
+	 * @return the index of the next state to be given.
+	 */
+	private int giveReadyStates(int next, final int toIndex,
+			final Map<Integer, OverlapRelation> relationsOfFrames, final Map<Integer, Integer> useCounts,
+			final OverlapRelationConsumer consumer) throws IOException {
+		for (; next < toIndex; next++) {
+			var frameIndex = faceOrdersFrameIndices[next];
+			var relation = relationsOfFrames.get(frameIndex);
+			if (relation == null) {
+				break;
+			}
+
+			if (useCounts.merge(frameIndex, -1, Integer::sum) == 0) {
+				relationsOfFrames.remove(frameIndex);
+				consumer.accept(next, relation);
+			} else {
+				consumer.accept(next, relation.clone());
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * Reads a frame object at the cursor.
+	 *
+	 * @return overlap relation if the frame has face orders, otherwise null.
+	 */
+	private OverlapRelation readFaceOrdersOfFrame(final JsonReader jsonReader) throws IOException {
+		OverlapRelation relation = null;
+
+		jsonReader.beginObject();
+		while (jsonReader.hasNext()) {
+			if (jsonReader.nextName().equals(FACE_ORDERS)) {
+				relation = readFaceOrders(jsonReader);
+			} else {
+				jsonReader.skipValue();
+			}
+		}
+		jsonReader.endObject();
+
+		return relation;
+	}
+
+	private OverlapRelation readFaceOrders(final JsonReader jsonReader) throws IOException {
+		var faces = origamiModel.getFaces();
+		var overlapRelation = new OverlapRelation(faces.size());
+
+		jsonReader.beginArray();
+		while (jsonReader.hasNext()) {
+			jsonReader.beginArray();
+			var i = jsonReader.nextInt();
+			var j = jsonReader.nextInt();
+			var direction = jsonReader.nextInt();
+			while (jsonReader.hasNext()) {
+				jsonReader.skipValue();
+			}
+			jsonReader.endArray();
+
+			converter.setFaceOrder(overlapRelation, faces, i, j, direction);
+		}
+		jsonReader.endArray();
+
+		return overlapRelation;
+	}
+
+	/**
+	 * Does nothing since the file is opened on each reading.
+	 */
+	@Override
+	public void close() {
+	}
+}
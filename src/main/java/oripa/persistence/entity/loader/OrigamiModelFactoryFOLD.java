@@ -0,0 +1,79 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.loader;
+
+import oripa.domain.fold.halfedge.OriVertex;
+import oripa.domain.fold.halfedge.OrigamiModel;
+import oripa.geom.RectangleDomain;
+import oripa.persistence.filetool.WrongDataFormatException;
+import oripa.persistence.foldformat.FoldedModelElementConverter;
+import oripa.persistence.foldformat.FoldedModelFOLDFormat;
+import oripa.persistence.foldformat.FrameClass;
+import oripa.value.CalculationResource;
+
+/**
+ * Restores the folded origami model from FOLD properties. Does not restore
+ * all of data but enough for exporting images.
+ */
+class OrigamiModelFactoryFOLD {
+	private final FoldedModelElementConverter converter = new FoldedModelElementConverter();
+
+	public OrigamiModel create(final FoldedModelFOLDFormat foldFormat)
+			throws WrongDataFormatException {
+		if (!foldFormat.frameClassesContains(FrameClass.FOLDED_FORM)) {
+			throw new WrongDataFormatException("frame_classes does not contain " + FrameClass.FOLDED_FORM + ".");
+		}
+
+		if (foldFormat.getEdgesVertices() == null) {
+			throw new WrongDataFormatException("edges_vertices property is needed in the file.");
+		}
+		if (foldFormat.getEdgesAssignment() == null) {
+			throw new WrongDataFormatException("edges_assignment property is needed in the file.");
+		}
+		if (foldFormat.getVerticesCoords() == null) {
+			throw new WrongDataFormatException("vertices_coords property is needed in the file.");
+		}
+
+		var vertices = converter.fromVerticesCoords(foldFormat.getVerticesCoords());
+		var positions = vertices.stream().map(OriVertex::getPosition).toList();
+
+		var domain = RectangleDomain.createFromPoints(positions);
+		var modelSize = domain.maxWidthHeight();
+
+		var edges = converter.fromEdges(foldFormat.getEdgesVertices(), foldFormat.getEdgesAssignment(), vertices);
+		var faces = converter.fromFacesVertices(foldFormat.getFacesVertices(), foldFormat.getEdgesVertices(),
+				vertices, edges, modelSize * CalculationResource.POINT_EPS);
+
+		var precreases = foldFormat.getFacesPrecreases();
+		if (precreases != null) {
+			converter.restorePrecreases(precreases, edges, faces);
+		}
+
+		// tentative value
+		var model = new OrigamiModel(modelSize * 1.1);
+
+		model.setVertices(vertices);
+		converter.setVertexIDs(model);
+		model.setEdges(edges);
+		model.setFaces(faces);
+
+		return model;
+	}
+
+}
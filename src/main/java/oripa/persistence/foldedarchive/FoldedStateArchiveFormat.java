@@ -0,0 +1,66 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.foldedarchive;
+
+/**
+ * Layout of folded-state archive, a binary file storing an origami model once
+ * and its folded states as overlap relations. All numbers are big-endian.
+ *
+ * <pre>
+ * header (HEADER_SIZE bytes):
+ *   int magic, int version, int face count, int state count,
+ *   long model offset, int model length, long index offset, int reserved
+ * model:
+ *   UTF-8 JSON of the FOLD properties without face orders
+ * records (one per folded state):
+ *   byte PACKED, 2-bit codes of the upper triangle of the relation
+ *   byte DELTA, int reference state, int change count,
+ *     varints of (gap to previous changed pair &lt;&lt; 2 | code)
+ * index:
+ *   long offset of each record, followed by the end of the records
+ * </pre>
+ *
+ * The reference state of a delta record is always a packed record, so that
+ * any state is restored from at most two records.
+ */
+public final class FoldedStateArchiveFormat {
+	public static final String EXTENSION = "ofa";
+
+	/**
+	 * "ORFA" in ASCII.
+	 */
+	public static final int MAGIC = 0x4F524641;
+	public static final int VERSION = 1;
+
+	public static final int HEADER_SIZE = 40;
+
+	public static final int MAGIC_POSITION = 0;
+	public static final int VERSION_POSITION = 4;
+	public static final int FACE_COUNT_POSITION = 8;
+	public static final int STATE_COUNT_POSITION = 12;
+	public static final int MODEL_OFFSET_POSITION = 16;
+	public static final int MODEL_LENGTH_POSITION = 24;
+	public static final int INDEX_OFFSET_POSITION = 28;
+
+	public static final byte PACKED = 0;
+	public static final byte DELTA = 1;
+
+	private FoldedStateArchiveFormat() {
+	}
+}
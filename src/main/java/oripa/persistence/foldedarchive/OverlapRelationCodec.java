@@ -0,0 +1,224 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.foldedarchive;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.origeom.OverlapRelationValues;
+
+/**
+ * Converts overlap relation into 2-bit codes and vice versa. Since the
+ * relation is antisymmetric, only the pairs (i, j) with i &lt; j are coded in
+ * row-major order.
+ */
+public class OverlapRelationCodec {
+	private static final int CODES_PER_BYTE = 4;
+	private static final int MAX_VARINT_LENGTH = 10;
+
+	private final int faceCount;
+	private final int pairCount;
+
+	/**
+	 *
+	 * @param faceCount
+	 *            the size of the relations.
+	 */
+	public OverlapRelationCodec(final int faceCount) {
+		this.faceCount = faceCount;
+		pairCount = faceCount * (faceCount - 1) / 2;
+	}
+
+	public int getPairCount() {
+		return pairCount;
+	}
+
+	/**
+	 *
+	 * @return byte length of packed codes.
+	 */
+	public int getPackedLength() {
+		return (pairCount + CODES_PER_BYTE - 1) / CODES_PER_BYTE;
+	}
+
+	/**
+	 *
+	 * @return the length enough for a delta of given change count.
+	 */
+	public int getMaxDeltaLength(final int changeCount) {
+		return changeCount * MAX_VARINT_LENGTH;
+	}
+
+	private byte toCode(final byte value) {
+		return switch (value) {
+		case OverlapRelationValues.NO_OVERLAP -> 0;
+		case OverlapRelationValues.UPPER -> 1;
+		case OverlapRelationValues.LOWER -> 2;
+		case OverlapRelationValues.UNDEFINED -> 3;
+		default -> throw new IllegalArgumentException("Unexpected value: " + value);
+		};
+	}
+
+	private byte toValue(final int code) {
+		return switch (code) {
+		case 0 -> OverlapRelationValues.NO_OVERLAP;
+		case 1 -> OverlapRelationValues.UPPER;
+		case 2 -> OverlapRelationValues.LOWER;
+		default -> OverlapRelationValues.UNDEFINED;
+		};
+	}
+
+	/**
+	 *
+	 * @return codes of the pairs (i, j) with i &lt; j.
+	 */
+	public byte[] toCodes(final OverlapRelation overlapRelation) {
+		if (overlapRelation.getSize() != faceCount) {
+			throw new IllegalArgumentException("The size of overlap relation should be " + faceCount + ".");
+		}
+
+		var codes = new byte[pairCount];
+		var p = 0;
+		for (int i = 0; i < faceCount; i++) {
+			for (int j = i + 1; j < faceCount; j++) {
+				codes[p++] = toCode(overlapRelation.get(i, j));
+			}
+		}
+		return codes;
+	}
+
+	/**
+	 *
+	 * @param codes
+	 *            codes made by {@link #toCodes(OverlapRelation)}.
+	 * @return overlap relation restored from the codes.
+	 */
+	public OverlapRelation toOverlapRelation(final byte[] codes) {
+		var overlapRelation = new OverlapRelation(faceCount);
+		var p = 0;
+		for (int i = 0; i < faceCount; i++) {
+			for (int j = i + 1; j < faceCount; j++) {
+				var code = codes[p++];
+				if (code != 0) {
+					overlapRelation.set(i, j, toValue(code));
+				}
+			}
+		}
+		return overlapRelation;
+	}
+
+	/**
+	 * Puts the codes to the buffer as 4 codes per byte.
+	 */
+	public void pack(final byte[] codes, final ByteBuffer dest) {
+		for (int p = 0; p < pairCount; p += CODES_PER_BYTE) {
+			int packed = 0;
+			for (int k = 0; k < CODES_PER_BYTE && p + k < pairCount; k++) {
+				packed |= codes[p + k] << (k * 2);
+			}
+			dest.put((byte) packed);
+		}
+	}
+
+	/**
+	 * Reads the codes put by {@link #pack(byte[], ByteBuffer)}.
+	 */
+	public byte[] unpack(final ByteBuffer src) {
+		var codes = new byte[pairCount];
+		for (int p = 0; p < pairCount; p += CODES_PER_BYTE) {
+			int packed = src.get();
+			for (int k = 0; k < CODES_PER_BYTE && p + k < pairCount; k++) {
+				codes[p + k] = (byte) ((packed >> (k * 2)) & 0b11);
+			}
+		}
+		return codes;
+	}
+
+	/**
+	 *
+	 * @return the number of pairs whose codes are different.
+	 */
+	public int countChanges(final byte[] reference, final byte[] codes) {
+		var count = 0;
+		for (int p = 0; p < pairCount; p++) {
+			if (reference[p] != codes[p]) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Puts the changed pairs as varints of (gap &lt;&lt; 2 | code) where gap
+	 * is the distance from the previous changed pair minus one.
+	 */
+	public void encodeDelta(final byte[] reference, final byte[] codes, final ByteBuffer dest) {
+		var previous = -1;
+		for (int p = 0; p < pairCount; p++) {
+			if (reference[p] == codes[p]) {
+				continue;
+			}
+			putVarint(((long) (p - previous - 1) << 2) | codes[p], dest);
+			previous = p;
+		}
+	}
+
+	/**
+	 * Applies the changes put by
+	 * {@link #encodeDelta(byte[], byte[], ByteBuffer)}.
+	 *
+	 * @param codes
+	 *            a copy of reference codes, which is modified.
+	 * @throws IllegalArgumentException
+	 *             if the delta points out of the pairs.
+	 */
+	public void applyDelta(final byte[] codes, final int changeCount, final ByteBuffer src)
+			throws IllegalArgumentException, BufferUnderflowException {
+		var p = -1L;
+		for (int k = 0; k < changeCount; k++) {
+			var change = getVarint(src);
+			p += (change >>> 2) + 1;
+			if (p >= pairCount) {
+				throw new IllegalArgumentException("Delta is out of range.");
+			}
+			codes[(int) p] = (byte) (change & 0b11);
+		}
+	}
+
+	private void putVarint(long value, final ByteBuffer dest) {
+		while ((value & ~0x7FL) != 0) {
+			dest.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		dest.put((byte) value);
+	}
+
+	private long getVarint(final ByteBuffer src) {
+		long value = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			var b = src.get();
+			value |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return value;
+			}
+		}
+		throw new IllegalArgumentException("Varint is too long.");
+	}
+}
@@ -18,6 +18,7 @@
  */
 package oripa.persistence.foldformat;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -30,6 +31,7 @@ import oripa.domain.fold.halfedge.OriHalfedge;
 import oripa.domain.fold.halfedge.OriVertex;
 import oripa.domain.fold.halfedge.OrigamiModel;
 import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.origeom.OverlapRelationValues;
 import oripa.geom.GeomUtil;
 import oripa.value.OriLine;
 
@@ -112,32 +114,59 @@ public class FoldedModelElementConverter {
 				.collect(Collectors.toCollection(ArrayList::new));
 	}
 
+	/**
+	 * Receives a face order of FOLD format: face indices i, j and the direction
+	 * 1 or -1.
+	 */
+	@FunctionalInterface
+	public interface FaceOrderConsumer {
+		void accept(int i, int j, int direction) throws IOException;
+	}
+
 	public List<List<Integer>> toFaceOrders(final OrigamiModel origamiModel, final OverlapRelation overlapRelation) {
-		var faces = origamiModel.getFaces();
+		var orders = new ArrayList<List<Integer>>(origamiModel.getFaces().size());
+
+		try {
+			forEachFaceOrder(origamiModel, overlapRelation, (i, j, direction) -> orders.add(List.of(i, j, direction)));
+		} catch (IOException e) {
+			throw new RuntimeException("Bad implementation.", e);
+		}
+
+		return orders;
+	}
 
-		var orders = new ArrayList<List<Integer>>(faces.size());
+	/**
+	 * Passes each face order to the consumer without creating the list of
+	 * them. The order is the same as {@link #toFaceOrders(OrigamiModel,
+	 * OverlapRelation)}.
+	 *
+	 * @throws IOException
+	 *             when the consumer throws it.
+	 */
+	public void forEachFaceOrder(final OrigamiModel origamiModel, final OverlapRelation overlapRelation,
+			final FaceOrderConsumer consumer) throws IOException {
+		var faces = origamiModel.getFaces();
 
 		for (int i = 0; i < faces.size(); i++) {
-			for (int j = i + 1; j < faces.size(); j++) {
-				var g = faces.get(j);
-
-				if (g.isFaceFront()) {
-					if (overlapRelation.isUpper(i, j)) {
-						orders.add(List.of(i, j, 1));
-					} else if (overlapRelation.isLower(i, j)) {
-						orders.add(List.of(i, j, -1));
-					}
-				} else {
-					if (overlapRelation.isUpper(i, j)) {
-						orders.add(List.of(i, j, -1));
-					} else if (overlapRelation.isLower(i, j)) {
-						orders.add(List.of(i, j, 1));
-					}
+			var upperMask = overlapRelation.createMask(i, OverlapRelationValues.UPPER);
+			var lowerMask = overlapRelation.createMask(i, OverlapRelationValues.LOWER);
+
+			for (int w = (i + 1) >>> 6; w < upperMask.length; w++) {
+				var word = upperMask[w] | lowerMask[w];
+				if (w == (i + 1) >>> 6) {
+					// only j > i.
+					word &= -1L << ((i + 1) & 63);
+				}
+				while (word != 0) {
+					int j = w * Long.SIZE + Long.numberOfTrailingZeros(word);
+					word &= word - 1;
+
+					var g = faces.get(j);
+					var isUpper = overlapRelation.isUpper(i, j);
+					consumer.accept(i, j, isUpper == g.isFaceFront() ? 1 : -1);
 				}
 			}
 		}
-
-		return orders;
 	}
 
 	public List<OriVertex> fromVerticesCoords(final List<List<Double>> verticesCoords) {
@@ -212,30 +241,35 @@ public class FoldedModelElementConverter {
 	public OverlapRelation fromFaceOrders(final List<List<Integer>> faceOrders, final List<OriFace> faces) {
 		var overlapRelation = new OverlapRelation(faces.size());
 
-		faceOrders.forEach(order -> {
-			var i = order.get(0);
-			var j = order.get(1);
-			var g = faces.get(j);
-			var direction = order.get(2);
-			if (g.isFaceFront()) {
-				if (direction == 1) {
-					overlapRelation.setUpper(i, j);
-				} else if (direction == -1) {
-					overlapRelation.setLower(i, j);
-				}
-			} else {
-				if (direction == 1) {
-					overlapRelation.setLower(i, j);
-				} else if (direction == -1) {
-					overlapRelation.setUpper(i, j);
-				}
-
-			}
-		});
+		faceOrders.forEach(order -> setFaceOrder(overlapRelation, faces, order.get(0), order.get(1), order.get(2)));
 
 		return overlapRelation;
 	}
 
+	/**
+	 * Sets a face order of FOLD format to the overlap relation.
+	 *
+	 * @param direction
+	 *            1 or -1 as the third value of a face order.
+	 */
+	public void setFaceOrder(final OverlapRelation overlapRelation, final List<OriFace> faces,
+			final int i, final int j, final int direction) {
+		var g = faces.get(j);
+		if (g.isFaceFront()) {
+			if (direction == 1) {
+				overlapRelation.setUpper(i, j);
+			} else if (direction == -1) {
+				overlapRelation.setLower(i, j);
+			}
+		} else {
+			if (direction == 1) {
+				overlapRelation.setLower(i, j);
+			} else if (direction == -1) {
+				overlapRelation.setUpper(i, j);
+			}
+		}
+	}
+
 	/**
 	 * Converts model's precreases and adds them to FOLD properties. Does not
 	 * merge vertices of precreases.
@@ -0,0 +1,324 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.xml;
+
+import java.io.InputStream;
+import java.util.Arrays;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import oripa.DataSet;
+import oripa.OriLineProxy;
+import oripa.persistence.filetool.WrongDataFormatException;
+
+/**
+ * Reads {@link DataSet} from the XML written by {@link java.beans.XMLEncoder}
+ * in a single pass. The lines are parsed into {@link OriLineProxy} directly
+ * without building any DOM tree.
+ *
+ * Both of the formats are accepted: the old one which sets each value via
+ * property and the current one which sets public fields by
+ * {@code getField}/{@code set} method calls.
+ */
+public class DataSetStreamReader {
+	private static final String OBJECT = "object";
+	private static final String VOID = "void";
+	private static final String ARRAY = "array";
+	private static final String STRING = "string";
+	private static final String INT = "int";
+	private static final String DOUBLE = "double";
+	private static final String CHAR = "char";
+
+	private final XMLInputFactory factory;
+
+	public DataSetStreamReader() {
+		factory = XMLInputFactory.newFactory();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+	}
+
+	/**
+	 *
+	 * @param inputStream
+	 *            stream of .opx content. This method doesn't close it.
+	 * @return loaded data. Absent values are left as the default.
+	 * @throws XMLStreamException
+	 *             when the content is not in XML format.
+	 * @throws WrongDataFormatException
+	 *             when an index of line is out of the declared length.
+	 * @throws NumberFormatException
+	 *             when a numeric value is broken.
+	 */
+	public DataSet read(final InputStream inputStream) throws XMLStreamException, WrongDataFormatException {
+		var reader = factory.createXMLStreamReader(inputStream);
+		try {
+			var dataset = new DataSet();
+
+			// root element "java"
+			reader.nextTag();
+			// DataSet object
+			if (nextChildElement(reader)) {
+				readDataSet(reader, dataset);
+			}
+
+			if (dataset.lines == null) {
+				dataset.lines = new OriLineProxy[0];
+			}
+			return dataset;
+		} finally {
+			reader.close();
+		}
+	}
+
+	private void readDataSet(final XMLStreamReader reader, final DataSet dataset) throws XMLStreamException,
+			WrongDataFormatException {
+		while (nextChildElement(reader)) {
+			if (!reader.getLocalName().equals(VOID)) {
+				skipElement(reader);
+				continue;
+			}
+
+			var propertyName = reader.getAttributeValue(null, "property");
+			if (propertyName != null) {
+				// <void property="name">value</void>
+				if (nextChildElement(reader)) {
+					setValue(dataset, propertyName, readValue(reader));
+					skipElement(reader);
+				}
+			} else if ("getField".equals(reader.getAttributeValue(null, "method"))) {
+				// <void method="getField"><string>name</string>
+				// <void method="set"><object idref="..."/>value</void></void>
+				readField(reader, dataset);
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private void readField(final XMLStreamReader reader, final DataSet dataset) throws XMLStreamException,
+			WrongDataFormatException {
+		String fieldName = null;
+		while (nextChildElement(reader)) {
+			var name = reader.getLocalName();
+			if (name.equals(STRING)) {
+				fieldName = readText(reader);
+			} else if (name.equals(VOID) && "set".equals(reader.getAttributeValue(null, "method"))) {
+				readSetMethod(reader, dataset, fieldName);
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private void readSetMethod(final XMLStreamReader reader, final DataSet dataset, final String fieldName)
+			throws XMLStreamException, WrongDataFormatException {
+		while (nextChildElement(reader)) {
+			if (reader.getLocalName().equals(OBJECT) && reader.getAttributeValue(null, "idref") != null) {
+				// the target object
+				skipElement(reader);
+				continue;
+			}
+			if (fieldName != null) {
+				setValue(dataset, fieldName, readValue(reader));
+			} else {
+				skipElement(reader);
+			}
+		}
+	}
+
+	private void setValue(final DataSet dataset, final String name, final Object value) {
+		if (value == null) {
+			return;
+		}
+		switch (name) {
+		case "lines" -> dataset.setLines((OriLineProxy[]) value);
+		case "mainVersion" -> dataset.setMainVersion((Integer) value);
+		case "subVersion" -> dataset.setSubVersion((Integer) value);
+		case "paperSize" -> dataset.setPaperSize((Double) value);
+		case "title" -> dataset.setTitle((String) value);
+		case "editorName" -> dataset.setEditorName((String) value);
+		case "originalAuthorName" -> dataset.setOriginalAuthorName((String) value);
+		case "reference" -> dataset.setReference((String) value);
+		case "memo" -> dataset.setMemo((String) value);
+		default -> {
+			// unknown value is ignored as the DOM based loader did.
+		}
+		}
+	}
+
+	/**
+	 * Reads the value element at the cursor and moves the cursor to its end.
+	 */
+	private Object readValue(final XMLStreamReader reader) throws XMLStreamException,
+			WrongDataFormatException {
+		return switch (reader.getLocalName()) {
+		case INT -> Integer.parseInt(readText(reader).strip());
+		case DOUBLE -> Double.parseDouble(readText(reader).strip());
+		case STRING -> readText(reader);
+		case ARRAY -> readLines(reader);
+		default -> {
+			skipElement(reader);
+			yield null;
+		}
+		};
+	}
+
+	/**
+	 * Reads the lines placed at their indices. The array has the declared
+	 * length and the skipped indices are left null as XMLDecoder does.
+	 */
+	private OriLineProxy[] readLines(final XMLStreamReader reader) throws XMLStreamException,
+			WrongDataFormatException {
+		var lengthValue = reader.getAttributeValue(null, "length");
+		int length = lengthValue == null ? -1 : Integer.parseInt(lengthValue);
+		if (lengthValue != null && length < 0) {
+			throw new WrongDataFormatException("Negative length of lines: " + length);
+		}
+		var lines = new OriLineProxy[Math.max(length, 0)];
+		int count = 0;
+
+		// <void index="i"><object class="oripa.OriLineProxy">...</object></void>
+		while (nextChildElement(reader)) {
+			var indexValue = reader.getAttributeValue(null, "index");
+			int index = indexValue == null ? count : Integer.parseInt(indexValue);
+			if (index < 0 || (length >= 0 && index >= length)) {
+				throw new WrongDataFormatException("Line index " + index + " is out of the length "
+						+ Math.max(length, 0) + ".");
+			}
+
+			OriLineProxy line = null;
+			while (nextChildElement(reader)) {
+				if (reader.getLocalName().equals(OBJECT)) {
+					line = readLine(reader);
+				} else {
+					skipElement(reader);
+				}
+			}
+			if (line == null) {
+				continue;
+			}
+			if (index >= lines.length) {
+				lines = Arrays.copyOf(lines, Math.max(index + 1, lines.length * 2));
+			}
+			lines[index] = line;
+			count = Math.max(count, index + 1);
+		}
+
+		return length >= 0 || count == lines.length ? lines : Arrays.copyOf(lines, count);
+	}
+
+	private OriLineProxy readLine(final XMLStreamReader reader) throws XMLStreamException {
+		var line = new OriLineProxy();
+
+		while (nextChildElement(reader)) {
+			var propertyName = reader.getAttributeValue(null, "property");
+			if (propertyName == null) {
+				skipElement(reader);
+				continue;
+			}
+			if (!nextChildElement(reader)) {
+				continue;
+			}
+			var text = readText(reader).strip();
+			switch (propertyName) {
+			case "type" -> line.setType(Integer.parseInt(text));
+			case "x0" -> line.setX0(Double.parseDouble(text));
+			case "y0" -> line.setY0(Double.parseDouble(text));
+			case "x1" -> line.setX1(Double.parseDouble(text));
+			case "y1" -> line.setY1(Double.parseDouble(text));
+			default -> {
+			}
+			}
+			skipElement(reader);
+		}
+
+		return line;
+	}
+
+	/**
+	 * Moves the cursor to the next child element of the current element.
+	 *
+	 * @return {@code true} if the cursor is at the start of a child element.
+	 *         {@code false} if the cursor reached the end of the current
+	 *         element.
+	 */
+	private boolean nextChildElement(final XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				return true;
+			case XMLStreamConstants.END_ELEMENT:
+				return false;
+			default:
+				break;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Reads the text of the current element, where XMLEncoder writes a
+	 * character which is not allowed in XML as {@code <char code="#hex"/>}.
+	 * The cursor moves to the end of the element.
+	 */
+	private String readText(final XMLStreamReader reader) throws XMLStreamException {
+		var builder = new StringBuilder();
+		while (reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE:
+				builder.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				break;
+			case XMLStreamConstants.START_ELEMENT:
+				if (reader.getLocalName().equals(CHAR)) {
+					builder.append((char) Integer.decode(reader.getAttributeValue(null, "code")).intValue());
+				}
+				skipElement(reader);
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				return builder.toString();
+			default:
+				break;
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Moves the cursor to the end of the current element, skipping its
+	 * descendants.
+	 */
+	private void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+		int depth = 1;
+		while (depth > 0 && reader.hasNext()) {
+			switch (reader.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				depth++;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				depth--;
+				break;
+			default:
+				break;
+			}
+		}
+	}
+}
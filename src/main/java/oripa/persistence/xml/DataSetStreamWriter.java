@@ -0,0 +1,501 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.xml;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+
+import oripa.DataSet;
+import oripa.OriLineProxy;
+import oripa.value.OriLine;
+
+/**
+ * Writes {@link DataSet} in the same bytes as {@link java.beans.XMLEncoder}
+ * does, so that {@link DataSetStreamReader} and the older versions of ORIPA
+ * can read the output. Unlike XMLEncoder, this class doesn't use reflection
+ * and doesn't hold any object for each line.
+ *
+ * As XMLEncoder does, the values equal to the default ones (null, 0 and 0.0)
+ * are omitted.
+ */
+public class DataSetStreamWriter {
+	private static final String DATASET_CLASS = DataSet.class.getName();
+	private static final String LINE_CLASS = OriLineProxy.class.getName();
+
+	/**
+	 * XMLEncoder names an object by its class name and a serial number when
+	 * the object is referred.
+	 */
+	private static final String DATASET_ID = DataSet.class.getSimpleName() + "0";
+
+	private final XMLOutputFactory factory = XMLOutputFactory.newFactory();
+
+	/**
+	 * Buffer to format numbers without creating strings.
+	 */
+	private final StringBuilder numberBuffer = new StringBuilder(32);
+	private char[] numberChars = new char[32];
+
+	private final char[] spaces = " ".repeat(16).toCharArray();
+
+	private XMLStreamWriter writer;
+	private int indentation;
+
+	/**
+	 * The line break is deferred since the attributes should be written after
+	 * the start tag.
+	 */
+	private boolean pendingNewLine;
+
+	/**
+	 *
+	 * @param dataset
+	 *            data to be written.
+	 * @param outputStream
+	 *            destination. This method doesn't close it.
+	 * @throws XMLStreamException
+	 *             when writing failed.
+	 */
+	public synchronized void write(final DataSet dataset, final OutputStream outputStream)
+			throws XMLStreamException {
+		write(dataset, null, outputStream);
+	}
+
+	/**
+	 * Writes the lines of crease pattern as {@link DataSet#lines} without
+	 * converting them into {@link OriLineProxy}.
+	 *
+	 * @param dataset
+	 *            data to be written except its lines.
+	 * @param lines
+	 *            lines to be written in place of {@code dataset.lines}.
+	 * @param outputStream
+	 *            destination. This method doesn't close it.
+	 * @throws XMLStreamException
+	 *             when writing failed.
+	 */
+	public synchronized void write(final DataSet dataset, final Collection<OriLine> lines,
+			final OutputStream outputStream) throws XMLStreamException {
+		var bufferedWriter = new UnsynchronizedBufferedWriter(
+				new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+		writer = factory.createXMLStreamWriter(bufferedWriter);
+		indentation = 0;
+		pendingNewLine = false;
+		try {
+			writer.writeStartDocument(StandardCharsets.UTF_8.name(), "1.0");
+			pendingNewLine = true;
+
+			startElement("java");
+			writer.writeAttribute("version", System.getProperty("java.version"));
+			writer.writeAttribute("class", "java.beans.XMLDecoder");
+
+			writeDataSet(dataset, lines);
+
+			endElement();
+			indent();
+
+			writer.writeEndDocument();
+			writer.flush();
+		} finally {
+			writer.close();
+			writer = null;
+		}
+	}
+
+	private void writeDataSet(final DataSet dataset, final Collection<OriLine> lines) throws XMLStreamException {
+		// public fields in the order of declaration
+		String[] fieldNames = { "lines", "title", "editorName", "originalAuthorName", "reference", "memo" };
+		Object[] fieldValues = { lines == null ? dataset.lines : lines, dataset.title, dataset.editorName, dataset.originalAuthorName,
+				dataset.reference, dataset.memo };
+
+		boolean hasField = false;
+		for (var value : fieldValues) {
+			hasField |= value != null;
+		}
+		boolean hasProperty = dataset.getMainVersion() != 0 || !isDefault(dataset.getPaperSize())
+				|| dataset.getSubVersion() != 0;
+
+		if (!hasField && !hasProperty) {
+			emptyElement("object");
+			writer.writeAttribute("class", DATASET_CLASS);
+			return;
+		}
+
+		startElement("object");
+		writer.writeAttribute("class", DATASET_CLASS);
+		if (hasField) {
+			// the fields refer the object.
+			writer.writeAttribute("id", DATASET_ID);
+		}
+
+		for (int i = 0; i < fieldNames.length; i++) {
+			if (fieldValues[i] != null) {
+				writeField(fieldNames[i], fieldValues[i]);
+			}
+		}
+
+		// properties in alphabetical order
+		if (dataset.getMainVersion() != 0) {
+			startProperty("mainVersion");
+			writeInt(dataset.getMainVersion());
+			endElement();
+		}
+		if (!isDefault(dataset.getPaperSize())) {
+			startProperty("paperSize");
+			writeDouble(dataset.getPaperSize());
+			endElement();
+		}
+		if (dataset.getSubVersion() != 0) {
+			startProperty("subVersion");
+			writeInt(dataset.getSubVersion());
+			endElement();
+		}
+
+		endElement();
+	}
+
+	private void writeField(final String name, final Object value) throws XMLStreamException {
+		startElement("void");
+		writer.writeAttribute("class", DATASET_CLASS);
+		writer.writeAttribute("method", "getField");
+
+		writeString(name);
+
+		startElement("void");
+		writer.writeAttribute("method", "set");
+
+		emptyElement("object");
+		writer.writeAttribute("idref", DATASET_ID);
+
+		if (value instanceof OriLineProxy[] lines) {
+			writeLines(lines);
+		} else if (value instanceof Collection<?> lines) {
+			writeLines(lines);
+		} else {
+			writeString((String) value);
+		}
+
+		endElement();
+		endElement();
+	}
+
+	private void writeLines(final OriLineProxy[] lines) throws XMLStreamException {
+		if (lines.length == 0) {
+			emptyElement("array");
+		} else {
+			startElement("array");
+		}
+		writer.writeAttribute("class", LINE_CLASS);
+		writer.writeAttribute("length", Integer.toString(lines.length));
+
+		if (lines.length == 0) {
+			return;
+		}
+
+		for (int i = 0; i < lines.length; i++) {
+			var line = lines[i];
+			if (line == null) {
+				continue;
+			}
+			startIndex(i);
+			writeLine(line.getType(), line.getX0(), line.getY0(), line.getX1(), line.getY1());
+			endElement();
+		}
+
+		endElement();
+	}
+
+	/**
+	 * Writes each {@link OriLine} in the same way as the {@link OriLineProxy}
+	 * created from it.
+	 */
+	private void writeLines(final Collection<?> lines) throws XMLStreamException {
+		if (lines.isEmpty()) {
+			emptyElement("array");
+		} else {
+			startElement("array");
+		}
+		writer.writeAttribute("class", LINE_CLASS);
+		writer.writeAttribute("length", Integer.toString(lines.size()));
+
+		if (lines.isEmpty()) {
+			return;
+		}
+
+		int i = 0;
+		for (var element : lines) {
+			var line = (OriLine) element;
+			var p0 = line.getP0();
+			var p1 = line.getP1();
+			startIndex(i++);
+			writeLine(line.getType().toInt(), p0.getX(), p0.getY(), p1.getX(), p1.getY());
+			endElement();
+		}
+
+		endElement();
+	}
+
+	private void startIndex(final int index) throws XMLStreamException {
+		startElement("void");
+		writer.writeAttribute("index", Integer.toString(index));
+	}
+
+	private void writeLine(final int type, final double x0, final double y0, final double x1, final double y1)
+			throws XMLStreamException {
+		if (type == 0 && isDefault(x0) && isDefault(x1) && isDefault(y0) && isDefault(y1)) {
+			emptyElement("object");
+			writer.writeAttribute("class", LINE_CLASS);
+			return;
+		}
+
+		startElement("object");
+		writer.writeAttribute("class", LINE_CLASS);
+
+		// properties in alphabetical order
+		if (type != 0) {
+			startProperty("type");
+			writeInt(type);
+			endElement();
+		}
+		writeDoubleProperty("x0", x0);
+		writeDoubleProperty("x1", x1);
+		writeDoubleProperty("y0", y0);
+		writeDoubleProperty("y1", y1);
+
+		endElement();
+	}
+
+	/**
+	 * XMLEncoder compares the values by {@link Double#equals(Object)}, which
+	 * distinguishes -0.0 from 0.0.
+	 */
+	private boolean isDefault(final double value) {
+		return Double.doubleToLongBits(value) == Double.doubleToLongBits(0.0);
+	}
+
+	private void writeDoubleProperty(final String name, final double value) throws XMLStreamException {
+		if (isDefault(value)) {
+			return;
+		}
+		startProperty(name);
+		writeDouble(value);
+		endElement();
+	}
+
+	private void startProperty(final String name) throws XMLStreamException {
+		startElement("void");
+		writer.writeAttribute("property", name);
+	}
+
+	private void writeInt(final int value) throws XMLStreamException {
+		numberBuffer.setLength(0);
+		numberBuffer.append(value);
+		writeNumber("int");
+	}
+
+	private void writeDouble(final double value) throws XMLStreamException {
+		numberBuffer.setLength(0);
+		// same as Double.toString()
+		numberBuffer.append(value);
+		writeNumber("double");
+	}
+
+	private void writeNumber(final String typeName) throws XMLStreamException {
+		var length = numberBuffer.length();
+		if (numberChars.length < length) {
+			numberChars = new char[length];
+		}
+		numberBuffer.getChars(0, length, numberChars, 0);
+
+		indent();
+		writer.writeStartElement(typeName);
+		writer.writeCharacters(numberChars, 0, length);
+		writer.writeEndElement();
+		pendingNewLine = true;
+	}
+
+	/**
+	 * Writes {@code <string>} element as XMLEncoder does: the characters which
+	 * are not allowed in XML are written as {@code <char code="#hex"/>}.
+	 */
+	private void writeString(final String value) throws XMLStreamException {
+		indent();
+		writer.writeStartElement("string");
+
+		int plainStart = 0;
+		int index = 0;
+		while (index < value.length()) {
+			int point = value.codePointAt(index);
+			int count = Character.charCount(point);
+
+			var entity = isValidCharCode(point) ? toEntity(point) : null;
+			if (isValidCharCode(point) && entity == null) {
+				index += count;
+				continue;
+			}
+
+			writer.writeCharacters(value.substring(plainStart, index));
+			if (entity != null) {
+				writer.writeEntityRef(entity);
+				index += count;
+			} else {
+				writer.writeEmptyElement("char");
+				writer.writeAttribute("code", "#" + Integer.toString(value.charAt(index), 16));
+				index++;
+			}
+			plainStart = index;
+		}
+		writer.writeCharacters(value.substring(plainStart));
+
+		writer.writeEndElement();
+		pendingNewLine = true;
+	}
+
+	private String toEntity(final int code) {
+		return switch (code) {
+		case '&' -> "amp";
+		case '<' -> "lt";
+		case '>' -> "gt";
+		case '"' -> "quot";
+		case '\'' -> "apos";
+		case '\r' -> "#13";
+		default -> null;
+		};
+	}
+
+	private boolean isValidCharCode(final int code) {
+		return (0x0020 <= code && code <= 0xD7FF)
+				|| code == 0x000A
+				|| code == 0x0009
+				|| code == 0x000D
+				|| (0xE000 <= code && code <= 0xFFFD)
+				|| (0x10000 <= code && code <= 0x10FFFF);
+	}
+
+	/**
+	 * The caller should write the attributes next.
+	 */
+	private void startElement(final String name) throws XMLStreamException {
+		indent();
+		writer.writeStartElement(name);
+		pendingNewLine = true;
+		indentation++;
+	}
+
+	/**
+	 * The caller should write the attributes next.
+	 */
+	private void emptyElement(final String name) throws XMLStreamException {
+		indent();
+		writer.writeEmptyElement(name);
+		pendingNewLine = true;
+	}
+
+	private void endElement() throws XMLStreamException {
+		indentation--;
+		indent();
+		writer.writeEndElement();
+		pendingNewLine = true;
+	}
+
+	/**
+	 * Starts a new line if necessary and writes the indentation.
+	 */
+	private void indent() throws XMLStreamException {
+		if (pendingNewLine) {
+			writer.writeCharacters("\n");
+			pendingNewLine = false;
+		}
+		for (int rest = indentation; rest > 0; rest -= spaces.length) {
+			writer.writeCharacters(spaces, 0, Math.min(rest, spaces.length));
+		}
+	}
+
+	/**
+	 * XMLStreamWriter writes a lot of short strings. This buffer avoids the
+	 * lock of {@link java.io.BufferedWriter} for each of them.
+	 */
+	private static class UnsynchronizedBufferedWriter extends Writer {
+		private final Writer out;
+		private final char[] buffer = new char[1 << 16];
+		private int length;
+
+		UnsynchronizedBufferedWriter(final Writer out) {
+			this.out = out;
+		}
+
+		@Override
+		public void write(final int c) throws IOException {
+			if (length == buffer.length) {
+				flushBuffer();
+			}
+			buffer[length++] = (char) c;
+		}
+
+		@Override
+		public void write(final char[] chars, final int offset, final int count) throws IOException {
+			if (count > buffer.length - length) {
+				flushBuffer();
+				if (count > buffer.length) {
+					out.write(chars, offset, count);
+					return;
+				}
+			}
+			System.arraycopy(chars, offset, buffer, length, count);
+			length += count;
+		}
+
+		@Override
+		public void write(final String str, final int offset, final int count) throws IOException {
+			if (count > buffer.length - length) {
+				flushBuffer();
+				if (count > buffer.length) {
+					out.write(str, offset, count);
+					return;
+				}
+			}
+			str.getChars(offset, offset + count, buffer, length);
+			length += count;
+		}
+
+		private void flushBuffer() throws IOException {
+			out.write(buffer, 0, length);
+			length = 0;
+		}
+
+		@Override
+		public void flush() throws IOException {
+			flushBuffer();
+			out.flush();
+		}
+
+		@Override
+		public void close() throws IOException {
+			flush();
+		}
+	}
+}
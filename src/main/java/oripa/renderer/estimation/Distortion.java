@@ -96,11 +96,38 @@ public class Distortion {
 			final CoordinateConverter converter,
 			final Map<OriVertex, Integer> vertexDepths, final double eps) {
 
+		var faces = createFaces(origamiModel, converter, vertexDepths, eps);
+
+		return interpolate(faces, overlapRelation, eps);
+	}
+
+	/**
+	 * Converts the faces of the model. The result can be shared among the
+	 * overlap relations if the vertex depths are common to them. The faces
+	 * are triangulated here so that {@link #interpolate(List, OverlapRelation, double)}
+	 * only reads them.
+	 *
+	 * @param vertexDepths
+	 *            can be empty map if converter does not use.
+	 * @return converted faces.
+	 */
+	public List<Face> createFaces(final OrigamiModel origamiModel, final CoordinateConverter converter,
+			final Map<OriVertex, Integer> vertexDepths, final double eps) {
 		var factory = new FaceFactory(converter, vertexDepths, eps);
 		var faces = origamiModel.getFaces().stream()
 				.map(face -> factory.create(face, eps))
 				.toList();
 
+		faces.forEach(face -> face.getConvertedFace().buildTriangles(eps));
+
+		return faces;
+	}
+
+	/**
+	 * Interpolates the overlap relation for the faces made by
+	 * {@link #createFaces(OrigamiModel, CoordinateConverter, Map, double)}.
+	 */
+	public Result interpolate(final List<Face> faces, final OverlapRelation overlapRelation, final double eps) {
 		var interpolated = new OverlapRelationInterpolater().interpolate(overlapRelation, faces, eps);
 
 		return new Result(Collections.unmodifiableList(faces), interpolated);
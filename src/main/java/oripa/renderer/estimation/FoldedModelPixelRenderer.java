@@ -19,17 +19,26 @@
 package oripa.renderer.estimation;
 
 import java.awt.Color;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import oripa.domain.fold.origeom.OverlapRelation;
 import oripa.domain.fold.origeom.OverlapRelationValues;
 import oripa.geom.RectangleDomain;
 
 /**
+ * Renders folded model into pixels. The image is split into horizontal tiles
+ * which are rasterized in parallel. Each tile draws the triangles overlapping
+ * it in the order of faces, so the result is the same as drawing all
+ * triangles sequentially.
+ *
  * @author OUCHI Koji
  *
  */
 public class FoldedModelPixelRenderer {
+	private static final int TILE_HEIGHT = 32;
 
 	public static class Option {
 		private boolean faceOrderFlipped;
@@ -72,18 +81,59 @@ public class FoldedModelPixelRenderer {
 
 	private final int pbuf[]; // 32bit pixel buffer
 	private final int zbuf[]; // 32bit z buffer
-	private final int min[];
-	private final int max[];
-	private final int minr[];
-	private final int maxr[];
-	private final int ming[];
-	private final int maxg[];
-	private final int minb[];
-	private final int maxb[];
-	private final double minu[];
-	private final double maxu[];
-	private final double minv[];
-	private final double maxv[];
+
+	/**
+	 * Buffers of the range of the triangle on each scanline. Each thread uses
+	 * its own one.
+	 */
+	private static class ScanlineBuffer {
+		private final int min[];
+		private final int max[];
+		private final int minr[];
+		private final int maxr[];
+		private final int ming[];
+		private final int maxg[];
+		private final int minb[];
+		private final int maxb[];
+		private final double minu[];
+		private final double maxu[];
+		private final double minv[];
+		private final double maxv[];
+
+		ScanlineBuffer(final int height) {
+			min = new int[height];
+			max = new int[height];
+			minr = new int[height];
+			maxr = new int[height];
+			ming = new int[height];
+			maxg = new int[height];
+			minb = new int[height];
+			maxb = new int[height];
+			maxu = new double[height];
+			maxv = new double[height];
+			minu = new double[height];
+			minv = new double[height];
+		}
+	}
+
+	private final ThreadLocal<ScanlineBuffer> scanlineBuffers;
+
+	/**
+	 * Triangles whose colors are prepared, with the rows [top, bottom) they
+	 * cover.
+	 */
+	private record PreparedTriangle(TriangleFace triangle, int faceID, int top, int bottom) {
+	}
+
+	/**
+	 * Colors of triangles depend on the faces and these values.
+	 */
+	private record PreparationKey(List<Face> faces, Color frontColor, Color backColor, boolean faceOrderFlipped,
+			double paperLeft, double paperTop, double paperWidth, double paperHeight) {
+	}
+
+	private PreparationKey preparationKey;
+	private List<PreparedTriangle> preparedTriangles;
 
 //	private final boolean bUseTexture = false;
 //	private final BufferedImage textureImage = null;
@@ -104,18 +154,8 @@ public class FoldedModelPixelRenderer {
 
 		pbuf = new int[width * height];
 		zbuf = new int[width * height];
-		min = new int[height];
-		max = new int[height];
-		minr = new int[height];
-		maxr = new int[height];
-		ming = new int[height];
-		maxg = new int[height];
-		minb = new int[height];
-		maxb = new int[height];
-		maxu = new double[height];
-		maxv = new double[height];
-		minu = new double[height];
-		minv = new double[height];
+
+		scanlineBuffers = ThreadLocal.withInitial(() -> new ScanlineBuffer(height));
 
 //		if (bUseTexture) {
 //			try {
@@ -129,10 +169,8 @@ public class FoldedModelPixelRenderer {
 	}
 
 	private void clear() {
-		for (int i = 0; i < width * height; i++) {
-			pbuf[i] = 0xffffffff;
-			zbuf[i] = -1;
-		}
+		Arrays.fill(pbuf, 0xffffffff);
+		Arrays.fill(zbuf, -1);
 	}
 
 	public void render(final List<Face> faces,
@@ -142,7 +180,21 @@ public class FoldedModelPixelRenderer {
 
 		clear();
 
-		faces.forEach(face -> drawFace(face, overlapRelation, option, paperDomain));
+		var triangles = prepareTriangles(faces, paperDomain, option);
+
+		var tileCount = (height + TILE_HEIGHT - 1) / TILE_HEIGHT;
+		var bins = binTriangles(triangles, tileCount);
+
+		IntStream.range(0, tileCount).parallel().forEach(tile -> {
+			var buffer = scanlineBuffers.get();
+			var tileTop = tile * TILE_HEIGHT;
+			var tileBottom = Math.min(tileTop + TILE_HEIGHT, height);
+
+			for (var t : bins[tile]) {
+				var prepared = triangles.get(t);
+				drawTriangle(prepared, overlapRelation, option, buffer, tileTop, tileBottom);
+			}
+		});
 
 		if (option.drawEdges) {
 			drawEdges();
@@ -154,31 +206,105 @@ public class FoldedModelPixelRenderer {
 
 	}
 
-	private void drawFace(final Face face, final OverlapRelation overlapRelation,
-			final Option option,
-			final RectangleDomain paperDomain) {
+	/**
+	 * Creates triangles of all faces with colors. The result is reused while
+	 * the faces and the colors are the same as the previous call.
+	 */
+	private List<PreparedTriangle> prepareTriangles(final List<Face> faces, final RectangleDomain paperDomain,
+			final Option option) {
+		var key = new PreparationKey(faces, option.frontColor, option.backColor, option.faceOrderFlipped,
+				paperDomain.getLeft(), paperDomain.getTop(), paperDomain.getWidth(), paperDomain.getHeight());
 
-		List<Double> frontColorFactor;
-		List<Double> backColorFactor;
+		if (key.equals(preparationKey)) {
+			return preparedTriangles;
+		}
 
-		frontColorFactor = createColorFactor(option.frontColor);
-		backColorFactor = createColorFactor(option.backColor);
+		var frontColorFactor = createColorFactor(option.frontColor);
+		var backColorFactor = createColorFactor(option.backColor);
 
 		var vertexColorMapFactory = new VertexColorMapFactory();
-		var colorMap = vertexColorMapFactory.createVertexColors(
-				face.getOriginalFace(),
-				frontColorFactor,
-				backColorFactor,
-				option.faceOrderFlipped);
-
 		var triangleFactory = new TriangleFaceFactory();
-		var triangles = triangleFactory.createAll(face);
-		triangles.forEach(triangle -> triangle.prepareColor(colorMap, paperDomain));
 
-		triangles.stream().forEach(tri -> {
-			drawTriangle(tri, face.getFaceID(), overlapRelation, option);
-		});
+		var prepared = new ArrayList<PreparedTriangle>();
+
+		for (var face : faces) {
+			var colorMap = vertexColorMapFactory.createVertexColors(
+					face.getOriginalFace(),
+					frontColorFactor,
+					backColorFactor,
+					option.faceOrderFlipped);
+
+			for (var triangle : triangleFactory.createAll(face)) {
+				triangle.prepareColor(colorMap, paperDomain);
+				prepared.add(new PreparedTriangle(triangle, face.getFaceID(),
+						computeTop(triangle), computeBottom(triangle)));
+			}
+		}
+
+		preparationKey = key;
+		preparedTriangles = prepared;
+
+		return prepared;
+	}
 
+	private int computeTop(final TriangleFace tri) {
+		// (For speed) set the range of use of the buffer
+		int top = Integer.MAX_VALUE;
+		for (var v : tri.v) {
+			top = Math.min(top, (int) v.p.getY());
+		}
+		return Math.max(top, 0);
+	}
+
+	private int computeBottom(final TriangleFace tri) {
+		int btm = Integer.MIN_VALUE;
+		for (var v : tri.v) {
+			btm = Math.max(btm, (int) v.p.getY());
+		}
+		return Math.min(btm, height);
+	}
+
+	/**
+	 *
+	 * @return indices of triangles for each tile in the order of drawing.
+	 */
+	private int[][] binTriangles(final List<PreparedTriangle> triangles, final int tileCount) {
+		var counts = new int[tileCount];
+		for (var triangle : triangles) {
+			for (int tile = firstTile(triangle); tile <= lastTile(triangle, tileCount); tile++) {
+				counts[tile]++;
+			}
+		}
+
+		var bins = new int[tileCount][];
+		for (int tile = 0; tile < tileCount; tile++) {
+			bins[tile] = new int[counts[tile]];
+		}
+
+		Arrays.fill(counts, 0);
+		for (int t = 0; t < triangles.size(); t++) {
+			var triangle = triangles.get(t);
+			for (int tile = firstTile(triangle); tile <= lastTile(triangle, tileCount); tile++) {
+				bins[tile][counts[tile]++] = t;
+			}
+		}
+
+		return bins;
+	}
+
+	private int firstTile(final PreparedTriangle triangle) {
+		return triangle.top() / TILE_HEIGHT;
+	}
+
+	/**
+	 * @return tile of the last row, which is less than first tile if the
+	 *         triangle covers no row.
+	 */
+	private int lastTile(final PreparedTriangle triangle, final int tileCount) {
+		if (triangle.bottom() <= triangle.top()) {
+			return -1;
+		}
+		return Math.min((triangle.bottom() - 1) / TILE_HEIGHT, tileCount - 1);
 	}
 
 	private List<Double> createColorFactor(final Color color) {
@@ -195,46 +321,42 @@ public class FoldedModelPixelRenderer {
 	// Polygon drawing
 	//
 	// --------------------------------------------------------------------
-	private void drawTriangle(final TriangleFace tri, final int id, final OverlapRelation overlapRelation,
-			final Option option) {
+	private void drawTriangle(final PreparedTriangle prepared, final OverlapRelation overlapRelation,
+			final Option option, final ScanlineBuffer buffer, final int tileTop, final int tileBottom) {
 
-		// (For speed) set the range of use of the buffer
-		int top = Integer.MAX_VALUE;
-		int btm = Integer.MIN_VALUE;
-		if (top > (int) tri.v[0].p.getY()) {
-			top = (int) tri.v[0].p.getY();
-		}
-		if (top > (int) tri.v[1].p.getY()) {
-			top = (int) tri.v[1].p.getY();
-		}
-		if (top > (int) tri.v[2].p.getY()) {
-			top = (int) tri.v[2].p.getY();
-		}
-		if (btm < (int) tri.v[0].p.getY()) {
-			btm = (int) tri.v[0].p.getY();
-		}
-		if (btm < (int) tri.v[1].p.getY()) {
-			btm = (int) tri.v[1].p.getY();
-		}
-		if (btm < (int) tri.v[2].p.getY()) {
-			btm = (int) tri.v[2].p.getY();
-		}
-		if (top < 0) {
-			top = 0;
-		}
-		if (btm > height) {
-			btm = height;
+		var tri = prepared.triangle();
+		var id = prepared.faceID();
+
+		// only the rows in the tile
+		int top = Math.max(prepared.top(), tileTop);
+		int btm = Math.min(prepared.bottom(), tileBottom);
+
+		if (top >= btm) {
+			return;
 		}
 
+		var min = buffer.min;
+		var max = buffer.max;
+		var minr = buffer.minr;
+		var maxr = buffer.maxr;
+		var ming = buffer.ming;
+		var maxg = buffer.maxg;
+		var minb = buffer.minb;
+		var maxb = buffer.maxb;
+		var minu = buffer.minu;
+		var maxu = buffer.maxu;
+		var minv = buffer.minv;
+		var maxv = buffer.maxv;
+
 		// Maximum and minimum buffer initialization
 		for (int i = top; i < btm; i++) {
 			min[i] = Integer.MAX_VALUE;
 			max[i] = Integer.MIN_VALUE;
 		}
 
-		ScanEdge(tri.v[0], tri.v[1]);
-		ScanEdge(tri.v[1], tri.v[2]);
-		ScanEdge(tri.v[2], tri.v[0]);
+		ScanEdge(tri.v[0], tri.v[1], buffer, top, btm);
+		ScanEdge(tri.v[1], tri.v[2], buffer, top, btm);
+		ScanEdge(tri.v[2], tri.v[0], buffer, top, btm);
 
 		// To be drawn on the basis of the maximum and minimum buffer.
 		for (int y = top; y < btm; y++) {
@@ -315,8 +437,12 @@ public class FoldedModelPixelRenderer {
 	//
 	// Vector v1 ...Starting point
 	// Vector v2 ...Starting point
+	// Rows out of [top, btm) are skipped.
 	// --------------------------------------------------------------------
-	private void ScanEdge(final TriangleVertex v1, final TriangleVertex v2) {
+	private void ScanEdge(final TriangleVertex v1, final TriangleVertex v2, final ScanlineBuffer buffer,
+			final int top, final int btm) {
+		var min = buffer.min;
+		var max = buffer.max;
 
 		int l = Math.abs((int) (v2.p.getY() - v1.p.getY())) + 1;
 
@@ -345,33 +471,33 @@ public class FoldedModelPixelRenderer {
 			int py = y >> 16;
 			int px = x >> 16;
 
-			if (py < 0 || py >= height) {
+			if (py < top || py >= btm) {
 				continue;
 			}
 
 			if (min[py] > px) {
 				min[py] = px;
-				minr[py] = r;
-				ming[py] = g;
-				minb[py] = b;
-				minu[py] = u;
-				minv[py] = v;
+				buffer.minr[py] = r;
+				buffer.ming[py] = g;
+				buffer.minb[py] = b;
+				buffer.minu[py] = u;
+				buffer.minv[py] = v;
 			}
 
 			if (max[py] < px) {
 				max[py] = px;
-				maxr[py] = r;
-				maxg[py] = g;
-				maxb[py] = b;
-				maxu[py] = u;
-				maxv[py] = v;
+				buffer.maxr[py] = r;
+				buffer.maxg[py] = g;
+				buffer.maxb[py] = b;
+				buffer.maxu[py] = u;
+				buffer.maxv[py] = v;
 			}
 		}
 	}
 
 	private void drawEdges() {
-		// apply Sobel filter
-		for (int y = 1; y < height - 1; y++) {
+		// apply Sobel filter. zbuf is read only so the rows are independent.
+		IntStream.range(1, height - 1).parallel().forEach(y -> {
 			for (int x = 1; x < width - 1; x++) {
 				int val_h = -1 * zbuf[getIndex(x - 1, y - 1)]
 						+ zbuf[getIndex(x + 1, y - 1)]
@@ -390,7 +516,7 @@ public class FoldedModelPixelRenderer {
 					pbuf[getIndex(x, y)] = 0xff888888;
 				}
 			}
-		}
+		});
 	}
 
 	private void applyAmbientOcculusion(final OverlapRelation overlapRelation, final Option option) {
@@ -398,8 +524,8 @@ public class FoldedModelPixelRenderer {
 				: OverlapRelationValues.LOWER;
 		int r = 10;
 		int s = (int) (r * r * Math.PI);
-		// For every pixel
-		for (int y = 1; y < height - 1; y++) {
+		// For every pixel. Each pixel is updated by its own value.
+		IntStream.range(1, height - 1).parallel().forEach(y -> {
 			for (int x = 1; x < width - 1; x++) {
 				int f_id = zbuf[getIndex(x, y)];
 
@@ -440,7 +566,7 @@ public class FoldedModelPixelRenderer {
 					pbuf[getIndex(x, y)] = (p_r << 16) | (p_g << 8) | p_b | 0xff000000;
 				}
 			}
-		}
+		});
 	}
 
 	public int[] getPixels() {
@@ -22,6 +22,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.stream.IntStream;
 
+import oripa.domain.fold.origeom.FaceBoundingBoxIndex;
 import oripa.domain.fold.origeom.OriGeomUtil;
 import oripa.domain.fold.origeom.OverlapRelation;
 import oripa.util.IntPair;
@@ -44,26 +45,31 @@ class OverlapRelationInterpolater {
 		}
 
 		// preparation
+		// converted faces (= distorted faces) can overlap only if their
+		// bounding boxes intersect.
+		var faceIndex = new FaceBoundingBoxIndex(
+				faces.stream().map(Face::getConvertedFace).toList(), eps);
+
 		IntStream.range(0, faces.size())
 				.parallel()
-				.forEach(i -> IntStream.range(0, faces.size())
-						.parallel()
-						.forEach(j -> {
-							var face_i = faces.get(i);
-							var index_i = face_i.getFaceID();
-
-							var face_j = faces.get(j);
-							var index_j = face_j.getFaceID();
-
-							// converted faces (= distorted faces) can overlap
-							// even if original faces don't overlap.
-							if (overlapRelation.isNoOverlap(index_i, index_j)) {
-								if (OriGeomUtil.isFaceOverlap(
-										face_i.getConvertedFace(), face_j.getConvertedFace(), eps)) {
-									newOverlaps.add(new IntPair(i, j));
-								}
+				.forEach(i -> {
+					var face_i = faces.get(i);
+					var index_i = face_i.getFaceID();
+
+					for (int j : faceIndex.queryIndices(face_i.getConvertedFace())) {
+						var face_j = faces.get(j);
+						var index_j = face_j.getFaceID();
+
+						// converted faces (= distorted faces) can overlap
+						// even if original faces don't overlap.
+						if (overlapRelation.isNoOverlap(index_i, index_j)) {
+							if (OriGeomUtil.isFaceOverlap(
+									face_i.getConvertedFace(), face_j.getConvertedFace(), eps)) {
+								newOverlaps.add(new IntPair(i, j));
 							}
-						}));
+						}
+					}
+				});
 
 		do {
 			// update overlap relation
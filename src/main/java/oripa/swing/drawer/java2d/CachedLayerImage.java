@@ -0,0 +1,85 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.swing.drawer.java2d;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.function.Consumer;
+
+/**
+ * An image which keeps a drawing between repaints. The drawing is done again
+ * only when the key given by the caller, the transform of the destination or
+ * the size of the destination has changed. Otherwise the kept image is just
+ * copied.
+ */
+public class CachedLayerImage {
+	private BufferedImage image;
+	private Object key;
+	private AffineTransform transform;
+
+	/**
+	 * Draws the layer onto the given graphics.
+	 *
+	 * @param g
+	 *            destination. The transform and the rendering hints of it
+	 *            are used for drawing the layer.
+	 * @param width
+	 *            width of the destination.
+	 * @param height
+	 *            height of the destination.
+	 * @param key
+	 *            an object which determines the content of the layer. It
+	 *            should be comparable by {@code equals()}.
+	 * @param drawLayer
+	 *            draws the content of the layer. This is called only if the
+	 *            layer is outdated.
+	 */
+	public synchronized void drawOn(final Graphics2D g, final int width, final int height,
+			final Object key, final Consumer<Graphics2D> drawLayer) {
+		var currentTransform = g.getTransform();
+
+		if (image == null || image.getWidth() != width || image.getHeight() != height) {
+			image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+			this.key = null;
+		}
+
+		if (!key.equals(this.key) || !currentTransform.equals(transform)) {
+			var layerg = image.createGraphics();
+			try {
+				layerg.setColor(Color.WHITE);
+				layerg.fillRect(0, 0, width, height);
+				layerg.setClip(0, 0, width, height);
+				layerg.setTransform(currentTransform);
+				layerg.setRenderingHints(g.getRenderingHints());
+
+				drawLayer.accept(layerg);
+			} finally {
+				layerg.dispose();
+			}
+			this.key = key;
+			transform = currentTransform;
+		}
+
+		g.setTransform(new AffineTransform());
+		g.drawImage(image, 0, 0, null);
+		g.setTransform(currentTransform);
+	}
+}
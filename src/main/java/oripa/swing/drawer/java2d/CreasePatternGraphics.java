@@ -22,6 +22,7 @@ import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.Image;
 import java.awt.image.ImageObserver;
+import java.util.function.Consumer;
 
 import oripa.gui.view.creasepattern.ObjectGraphicDrawer;
 import oripa.gui.view.creasepattern.PaintComponentGraphics;
@@ -31,13 +32,27 @@ public class CreasePatternGraphics implements PaintComponentGraphics {
 	private final Graphics2D bufferg;
 	private final Image bufferImage;
 	private final ImageObserver screen;
+	private final CachedLayerImage layerImage;
 
 	public CreasePatternGraphics(final Graphics g, final Graphics2D bufferg, final Image bufferImage,
 			final ImageObserver screen) {
+		this(g, bufferg, bufferImage, screen, null);
+	}
+
+	/**
+	 *
+	 * @param layerImage
+	 *            keeps the layer drawn by
+	 *            {@link #drawCachedLayer(Object, Consumer)}. null if the
+	 *            layer should be drawn every time.
+	 */
+	public CreasePatternGraphics(final Graphics g, final Graphics2D bufferg, final Image bufferImage,
+			final ImageObserver screen, final CachedLayerImage layerImage) {
 		this.g = g;
 		this.bufferg = bufferg;
 		this.bufferImage = bufferImage;
 		this.screen = screen;
+		this.layerImage = layerImage;
 	}
 
 	@Override
@@ -54,4 +69,15 @@ public class CreasePatternGraphics implements PaintComponentGraphics {
 	public void drawBufferImage() {
 		g.drawImage(bufferImage, 0, 0, screen);
 	}
-}
\ No newline at end of file
+
+	@Override
+	public void drawCachedLayer(final Object layerKey, final Consumer<ObjectGraphicDrawer> drawLayer) {
+		if (layerImage == null) {
+			drawLayer.accept(getBufferObjectDrawer());
+			return;
+		}
+
+		layerImage.drawOn(bufferg, bufferImage.getWidth(screen), bufferImage.getHeight(screen), layerKey,
+				layerg -> drawLayer.accept(new CreasePatternObjectDrawer(layerg)));
+	}
+}
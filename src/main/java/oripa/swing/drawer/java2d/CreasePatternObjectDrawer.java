@@ -4,8 +4,10 @@ import java.awt.Color;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.util.List;
+import java.util.Optional;
 
 import oripa.geom.Line;
+import oripa.geom.RectangleDomain;
 import oripa.gui.view.creasepattern.ObjectGraphicDrawer;
 import oripa.value.OriLine;
 import oripa.value.OriLine.Type;
@@ -185,4 +187,17 @@ public class CreasePatternObjectDrawer implements ObjectGraphicDrawer {
 				antiAlias ? RenderingHints.VALUE_ANTIALIAS_ON : RenderingHints.VALUE_ANTIALIAS_OFF);
 
 	}
+
+	@Override
+	public Optional<RectangleDomain> getVisibleDomain() {
+		// the clip is given in the user space, that is, the coordinates of
+		// the crease pattern.
+		var clip = g2d.getClip();
+		if (clip == null) {
+			return Optional.empty();
+		}
+		var bounds = clip.getBounds2D();
+		return Optional.of(new RectangleDomain(
+				bounds.getMinX(), bounds.getMinY(), bounds.getMaxX(), bounds.getMaxY()));
+	}
 }
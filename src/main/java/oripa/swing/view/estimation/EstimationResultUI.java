@@ -21,6 +21,7 @@ import java.awt.Color;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
 import java.awt.event.ItemEvent;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -271,6 +272,16 @@ public class EstimationResultUI extends JPanel implements EstimationResultUIView
 			overlapRelation = filteredOverlapRelations.get(index);
 		}
 		screen.setOverlapRelation(overlapRelation);
+
+		// neighbors are likely to be shown next.
+		var neighbors = new ArrayList<OverlapRelation>();
+		if (index + 1 < filteredOverlapRelations.size()) {
+			neighbors.add(filteredOverlapRelations.get(index + 1));
+		}
+		if (index - 1 >= 0 && index - 1 < filteredOverlapRelations.size()) {
+			neighbors.add(filteredOverlapRelations.get(index - 1));
+		}
+		screen.prefetchOverlapRelations(neighbors);
 	}
 
 	@Override
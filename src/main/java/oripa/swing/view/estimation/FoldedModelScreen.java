@@ -31,12 +31,20 @@ import java.awt.event.MouseWheelListener;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.Point2D;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.BiFunction;
 
 import javax.swing.JPanel;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import oripa.domain.fold.FoldedModel;
 import oripa.domain.fold.halfedge.OriFace;
 import oripa.domain.fold.halfedge.OriVertex;
@@ -51,6 +59,7 @@ import oripa.renderer.estimation.VertexDepthMapFactory;
 import oripa.swing.drawer.java2d.GraphicItemConverter;
 import oripa.swing.drawer.java2d.PixelDrawer;
 import oripa.swing.view.util.AffineCamera;
+import oripa.util.collection.LruCache;
 import oripa.vecmath.Vector2d;
 
 /**
@@ -61,6 +70,9 @@ import oripa.vecmath.Vector2d;
  */
 public class FoldedModelScreen extends JPanel
 		implements MouseListener, MouseMotionListener, MouseWheelListener {
+	private static final Logger logger = LoggerFactory.getLogger(FoldedModelScreen.class);
+
+	private static final int CACHE_SIZE = 16;
 
 	private final BufferedImage bufferImage;
 	private static final int BUFFERW = 600; // width
@@ -97,6 +109,27 @@ public class FoldedModelScreen extends JPanel
 
 	private Map<OriVertex, Integer> vertexDepths;
 
+	/**
+	 * Key of distortion result. Overlap relations are compared by identity.
+	 */
+	private record DistortionKey(
+			OverlapRelation overlapRelation,
+			DistortionMethod distortionMethod,
+			Vector2d distortionParameter,
+			double scale) {
+	}
+
+	private final LruCache<OverlapRelation, Map<OriVertex, Integer>> vertexDepthsCache = new LruCache<>(
+			CACHE_SIZE);
+	private final LruCache<DistortionKey, Distortion.Result> distortionCache = new LruCache<>(CACHE_SIZE);
+
+	private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(runnable -> {
+		var thread = new Thread(runnable, "folded model prefetch");
+		thread.setDaemon(true);
+		return thread;
+	});
+	private final List<Future<?>> prefetchFutures = new ArrayList<>();
+
 	public FoldedModelScreen() {
 		addMouseListener(this);
 		addMouseMotionListener(this);
@@ -178,6 +211,10 @@ public class FoldedModelScreen extends JPanel
 	public void setModel(final FoldedModel foldedModel, final int overlapRelationIndex, final double eps) {
 		this.eps = eps;
 
+		cancelPrefetch();
+		vertexDepthsCache.clear();
+		distortionCache.clear();
+
 		if (foldedModel == null) {
 			this.origamiModel = null;
 		} else {
@@ -214,7 +251,69 @@ public class FoldedModelScreen extends JPanel
 
 		this.overlapRelation = overlapRelation;
 
-		vertexDepths = new VertexDepthMapFactory().create(origamiModel, overlapRelation, eps);
+		vertexDepths = findOrCreateVertexDepths(origamiModel, overlapRelation, eps);
+	}
+
+	private Map<OriVertex, Integer> findOrCreateVertexDepths(final OrigamiModel origamiModel,
+			final OverlapRelation overlapRelation, final double eps) {
+		return vertexDepthsCache.get(overlapRelation).orElseGet(() -> {
+			var depths = new VertexDepthMapFactory().create(origamiModel, overlapRelation, eps);
+			vertexDepthsCache.put(overlapRelation, depths);
+			return depths;
+		});
+	}
+
+	private Distortion.Result findOrCreateDistortionResult(final OrigamiModel origamiModel, final Distortion distortion,
+			final DistortionKey key, final Map<OriVertex, Integer> vertexDepths, final double eps) {
+		return distortionCache.get(key).orElseGet(() -> {
+			var converter = distortion.createCoordinateConverter(
+					key.distortionMethod(), key.distortionParameter(), key.scale());
+			var result = distortion.apply(origamiModel, key.overlapRelation(), converter, vertexDepths, eps);
+			distortionCache.put(key, result);
+			return result;
+		});
+	}
+
+	/**
+	 * Computes the geometry of the given overlap relations in background with
+	 * the current distortion so that switching to them is quick. Previous
+	 * requests which have not started are canceled.
+	 *
+	 * @param overlapRelations
+	 *            states which are likely to be shown next.
+	 */
+	public void prefetchOverlapRelations(final List<OverlapRelation> overlapRelations) {
+		cancelPrefetch();
+
+		if (origamiModel == null || !origamiModel.isFolded() || distortion == null) {
+			return;
+		}
+
+		// the settings may change on the event dispatch thread.
+		var model = origamiModel;
+		var currentDistortion = distortion;
+		var method = distortionMethod;
+		var parameter = distortionParameter;
+		var scale = getFinalScale();
+		var currentEps = eps;
+
+		for (var relation : overlapRelations) {
+			prefetchFutures.add(prefetchExecutor.submit(() -> {
+				try {
+					var depths = findOrCreateVertexDepths(model, relation, currentEps);
+					findOrCreateDistortionResult(model, currentDistortion,
+							new DistortionKey(relation, method, parameter, scale), depths, currentEps);
+				} catch (RuntimeException e) {
+					// the state will be computed again when it is shown.
+					logger.debug("prefetch failed.", e);
+				}
+			}));
+		}
+	}
+
+	private void cancelPrefetch() {
+		prefetchFutures.forEach(future -> future.cancel(false));
+		prefetchFutures.clear();
 	}
 
 	void setColors(final Color front, final Color back) {
@@ -264,9 +363,9 @@ public class FoldedModelScreen extends JPanel
 			return;
 		}
 
-		var converter = distortion.createCoordinateConverter(distortionMethod, distortionParameter, getFinalScale());
+		var key = new DistortionKey(overlapRelation, distortionMethod, distortionParameter, getFinalScale());
 
-		var distortionResult = distortion.apply(origamiModel, overlapRelation, converter, vertexDepths, eps);
+		var distortionResult = findOrCreateDistortionResult(origamiModel, distortion, key, vertexDepths, eps);
 
 		var faces = distortionResult.faces();
 		var interpolatedOverlapRelation = distortionResult.interpolatedOverlapRelation();
@@ -23,24 +23,22 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.WindowEvent;
 import java.awt.event.WindowListener;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.function.Consumer;
 
 import javax.swing.JFrame;
 
-import oripa.domain.fold.EstimationResultRules;
-import oripa.domain.fold.halfedge.OrigamiModel;
-import oripa.gui.presenter.foldability.FoldabilityScreenPresenter;
 import oripa.gui.view.FrameView;
 import oripa.gui.view.foldability.FoldabilityCheckFrameView;
 import oripa.gui.view.foldability.FoldabilityScreenView;
-import oripa.value.OriLine;
 
 public class FoldabilityCheckFrame extends JFrame implements FoldabilityCheckFrameView, ActionListener, WindowListener {
 
 	FoldabilityScreen screen;
 
 	private Consumer<FrameView> onCloseListener;
+	private final List<Runnable> onCloseListeners = new ArrayList<>();
 
 	public FoldabilityCheckFrame() {
 		// Called when the "Check window" button is pressed.
@@ -61,22 +59,13 @@ public class FoldabilityCheckFrame extends JFrame implements FoldabilityCheckFra
 	}
 
 	@Override
-	public void setModel(
-			final OrigamiModel origamiModel,
-			final EstimationResultRules estimationRules,
-			final Collection<OriLine> creasePattern,
-			final boolean zeroLineWidth,
-			final double pointEps) {
-
-		var presenter = new FoldabilityScreenPresenter(screen, origamiModel, estimationRules, creasePattern,
-				zeroLineWidth, pointEps);
-
-		presenter.setViewVisible(true);
+	public void setOnCloseListener(final Consumer<FrameView> listener) {
+		onCloseListener = listener;
 	}
 
 	@Override
-	public void setOnCloseListener(final Consumer<FrameView> listener) {
-		onCloseListener = listener;
+	public void addOnCloseListener(final Runnable listener) {
+		onCloseListeners.add(listener);
 	}
 
 	@Override
@@ -91,6 +80,7 @@ public class FoldabilityCheckFrame extends JFrame implements FoldabilityCheckFra
 	@Override
 	public void windowClosed(final WindowEvent e) {
 		onCloseListener.accept(this);
+		onCloseListeners.forEach(Runnable::run);
 	}
 
 	@Override
@@ -289,6 +289,9 @@ public class FoldabilityScreen extends JPanel
 	@Override
 	public void setViolatingVertices(final Collection<OriVertex> vertices) {
 		this.violatingVertices = vertices;
+		if (pickedViolatingVertex != null && !vertices.contains(pickedViolatingVertex)) {
+			pickedViolatingVertex = null;
+		}
 	}
 
 	@Override
@@ -299,6 +302,9 @@ public class FoldabilityScreen extends JPanel
 	@Override
 	public void setViolatingFaces(final Collection<OriFace> faces) {
 		violatingFaces = faces;
+		if (pickedViolatingFace != null && !faces.contains(pickedViolatingFace)) {
+			pickedViolatingFace = null;
+		}
 	}
 
 	@Override
@@ -51,6 +51,7 @@ import oripa.gui.view.ViewScreenUpdater;
 import oripa.gui.view.creasepattern.PaintComponentGraphics;
 import oripa.gui.view.main.PainterScreenSetting;
 import oripa.gui.view.main.PainterScreenView;
+import oripa.swing.drawer.java2d.CachedLayerImage;
 import oripa.swing.drawer.java2d.CreasePatternGraphics;
 import oripa.swing.view.util.AffineCamera;
 import oripa.swing.view.util.MouseUtility;
@@ -66,6 +67,7 @@ public class PainterScreen extends JPanel
 	private final ViewScreenUpdater screenUpdater;
 
 	private Image bufferImage;
+	private final CachedLayerImage layerImage = new CachedLayerImage();
 	private Point2D preMousePoint; // Screen coordinates
 
 	private final AffineCamera camera = new AffineCamera();
@@ -135,6 +137,8 @@ public class PainterScreen extends JPanel
 		// Clears the image buffer
 		bufferg.setColor(Color.WHITE);
 		bufferg.fillRect(0, 0, getWidth(), getHeight());
+		// the clip tells the drawer which part of crease pattern is visible.
+		bufferg.setClip(0, 0, getWidth(), getHeight());
 
 		// set the AffineTransform of buffer
 		bufferg.setTransform(affineTransform);
@@ -146,7 +150,8 @@ public class PainterScreen extends JPanel
 	public void paintComponent(final Graphics g) {
 		super.paintComponent(g);
 
-		paintComponentListener.accept(new CreasePatternGraphics(g, updateBufferImage(), bufferImage, this));
+		paintComponentListener.accept(
+				new CreasePatternGraphics(g, updateBufferImage(), bufferImage, this, layerImage));
 
 	}
 
@@ -19,6 +19,7 @@
 package oripa.util;
 
 import java.util.Arrays;
+import java.util.function.IntConsumer;
 
 /**
  * @author OUCHI Koji
@@ -26,7 +27,7 @@ import java.util.Arrays;
  */
 public class BitBlockByteMatrix implements ByteMatrix {
 
-	private final long[][] array;
+	protected final long[][] array;
 	private final int rowCount, columnCount;
 	private final int blockLength;
 
@@ -44,7 +45,23 @@ public class BitBlockByteMatrix implements ByteMatrix {
 
 	private final long mask;
 
+	/**
+	 * The lowest bit of each block is 1.
+	 */
+	private final long lowBitsMask;
+	private final int blocksPerWord;
+	private final int wordCount;
+
 	public BitBlockByteMatrix(final int rowCount, final int columnCount, final int blockLength) {
+		this(new long[rowCount][computeWordCount(columnCount, blockLength)], rowCount, columnCount, blockLength);
+	}
+
+	/**
+	 * Wraps the given rows as they are. This is for subclasses which share the
+	 * row arrays with other instances.
+	 */
+	protected BitBlockByteMatrix(final long[][] array, final int rowCount, final int columnCount,
+			final int blockLength) {
 		this.rowCount = rowCount;
 		this.columnCount = columnCount;
 		if (blockLength > 8) {
@@ -56,10 +73,18 @@ public class BitBlockByteMatrix implements ByteMatrix {
 
 		this.blockLength = blockLength;
 
-		int necessaryBits = columnCount * blockLength;
-		array = new long[rowCount][necessaryBits / 64 + (necessaryBits % 64 == 0 ? 0 : 1)];
+		this.array = array;
 
 		mask = 0xFF >>> (8 - blockLength);
+
+		blocksPerWord = Long.SIZE / blockLength;
+		lowBitsMask = Long.divideUnsigned(-1L, mask);
+		wordCount = computeWordCount(columnCount, blockLength);
+	}
+
+	private static int computeWordCount(final int columnCount, final int blockLength) {
+		int necessaryBits = columnCount * blockLength;
+		return necessaryBits / 64 + (necessaryBits % 64 == 0 ? 0 : 1);
 	}
 
 	@Override
@@ -109,7 +134,8 @@ public class BitBlockByteMatrix implements ByteMatrix {
 		int arrayIndex = getArrayIndex(j);
 		int lastBitLength = getLastBitLength(j);
 
-		long arrayValue = array[i][arrayIndex];
+		var row = getRowForWrite(i);
+		long arrayValue = row[arrayIndex];
 
 		// clear
 		arrayValue &= ~(mask << lastBitLength);
@@ -117,7 +143,107 @@ public class BitBlockByteMatrix implements ByteMatrix {
 		// set
 		arrayValue += (value & mask) << lastBitLength;
 
-		array[i][arrayIndex] = arrayValue;
+		row[arrayIndex] = arrayValue;
+	}
+
+	/**
+	 * Returns the array of the i-th row which is safe to be modified. Every
+	 * write access should obtain the row via this method.
+	 *
+	 * @param i
+	 *            row index
+	 * @return the i-th row.
+	 */
+	protected long[] getRowForWrite(final int i) {
+		return array[i];
+	}
+
+	protected int getBlockLength() {
+		return blockLength;
+	}
+
+	/**
+	 * Copies the i-th row of the given matrix to the i-th row of this matrix.
+	 *
+	 * @param i
+	 *            row index
+	 * @param matrix
+	 *            a matrix with the same shape as this matrix.
+	 */
+	public void copyRowFrom(final int i, final BitBlockByteMatrix matrix) {
+		if (!hasSameShape(matrix)) {
+			throw new IllegalArgumentException("shape of the given matrix is different.");
+		}
+		System.arraycopy(matrix.array[i], 0, getRowForWrite(i), 0, wordCount);
+	}
+
+	public boolean hasSameShape(final BitBlockByteMatrix matrix) {
+		return rowCount == matrix.rowCount && columnCount == matrix.columnCount
+				&& blockLength == matrix.blockLength;
+	}
+
+	/**
+	 * Word-parallel comparison of all blocks in the w-th word of the i-th row.
+	 *
+	 * @return a word where the lowest bit of each block is 1 if the block
+	 *         holds the given value and is inside of the matrix.
+	 */
+	private long matchBlocks(final int i, final int w, final byte value) {
+		// 0 for the blocks holding the value.
+		long x = array[i][w] ^ ((value & mask) * lowBitsMask);
+		// gathers the bits of each block to the lowest bit.
+		for (int shift = 1; shift < blockLength; shift <<= 1) {
+			x |= x >>> shift;
+		}
+		long matched = ~x & lowBitsMask;
+
+		int lastBitLength = columnCount * blockLength - w * Long.SIZE;
+		if (lastBitLength < Long.SIZE) {
+			matched &= (1L << lastBitLength) - 1;
+		}
+		return matched;
+	}
+
+	@Override
+	public int countInRow(final int i, final byte value) {
+		int count = 0;
+		for (int w = 0; w < wordCount; w++) {
+			count += Long.bitCount(matchBlocks(i, w, value));
+		}
+		return count;
+	}
+
+	@Override
+	public void forEachColumnInRow(final int i, final byte value, final IntConsumer action) {
+		for (int w = 0; w < wordCount; w++) {
+			var matched = matchBlocks(i, w, value);
+			while (matched != 0) {
+				action.accept(w * blocksPerWord + Long.numberOfTrailingZeros(matched) / blockLength);
+				matched &= matched - 1;
+			}
+		}
+	}
+
+	@Override
+	public long[] createRowMask(final int i, final byte value) {
+		var columnMask = new long[(columnCount + Long.SIZE - 1) / Long.SIZE];
+		for (int w = 0; w < wordCount; w++) {
+			int offset = w * blocksPerWord;
+			columnMask[offset >>> 6] |= Long.compress(matchBlocks(i, w, value), lowBitsMask) << (offset & 63);
+		}
+		return columnMask;
+	}
+
+	@Override
+	public boolean anyInRow(final int i, final byte value, final long[] columnMask) {
+		for (int w = 0; w < wordCount; w++) {
+			int offset = w * blocksPerWord;
+			var columns = columnMask[offset >>> 6] >>> (offset & 63);
+			if ((Long.expand(columns, lowBitsMask) & matchBlocks(i, w, value)) != 0) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	public String toBinaryString() {
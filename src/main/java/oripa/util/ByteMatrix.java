@@ -20,6 +20,7 @@ package oripa.util;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 /**
  * @author OUCHI Koji
@@ -39,6 +40,65 @@ public interface ByteMatrix {
 		return row;
 	}
 
+	/**
+	 *
+	 * @return the number of cells in the i-th row which hold the given value.
+	 */
+	default int countInRow(final int i, final byte value) {
+		int count = 0;
+		for (int j = 0; j < columnCount(); j++) {
+			if (get(i, j) == value) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Calls {@code action} with the column index of each cell in the i-th row
+	 * which holds the given value, in ascending order.
+	 */
+	default void forEachColumnInRow(final int i, final byte value, final IntConsumer action) {
+		for (int j = 0; j < columnCount(); j++) {
+			if (get(i, j) == value) {
+				action.accept(j);
+			}
+		}
+	}
+
+	/**
+	 *
+	 * @return a bit set whose j-th bit is 1 if the cell [i][j] holds the given
+	 *         value. The length is {@code ceil(columnCount() / 64)}.
+	 */
+	default long[] createRowMask(final int i, final byte value) {
+		var mask = new long[(columnCount() + Long.SIZE - 1) / Long.SIZE];
+		forEachColumnInRow(i, value, j -> mask[j >>> 6] |= 1L << j);
+		return mask;
+	}
+
+	/**
+	 *
+	 * @param columnMask
+	 *            a bit set of columns in the same format as
+	 *            {@link #createRowMask(int, byte)}.
+	 * @return {@code true} if any cell [i][j] for j in the mask holds the given
+	 *         value.
+	 */
+	default boolean anyInRow(final int i, final byte value, final long[] columnMask) {
+		for (int w = 0; w < columnMask.length; w++) {
+			var word = columnMask[w];
+			while (word != 0) {
+				int j = w * Long.SIZE + Long.numberOfTrailingZeros(word);
+				if (get(i, j) == value) {
+					return true;
+				}
+				word &= word - 1;
+			}
+		}
+		return false;
+	}
+
 	ByteMatrix clone();
 
 	int rowCount();
@@ -0,0 +1,99 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.util;
+
+import java.util.Arrays;
+
+/**
+ * {@link BitBlockByteMatrix} whose clone shares the rows with the original.
+ * A row is copied when it is written for the first time after cloning, so
+ * cloning costs O(n) and each clone holds only the rows it has modified.
+ */
+public class CopyOnWriteBitBlockByteMatrix extends BitBlockByteMatrix {
+
+	/**
+	 * ownsRow[i] is true if array[i] is not shared with any other instance.
+	 */
+	private final boolean[] ownsRow;
+
+	public CopyOnWriteBitBlockByteMatrix(final int rowCount, final int columnCount, final int blockLength) {
+		super(rowCount, columnCount, blockLength);
+		ownsRow = new boolean[rowCount];
+		Arrays.fill(ownsRow, true);
+	}
+
+	/**
+	 * Creates a matrix with a deep copy of the given matrix.
+	 *
+	 * @param matrix
+	 *            values to be copied.
+	 */
+	public CopyOnWriteBitBlockByteMatrix(final BitBlockByteMatrix matrix) {
+		this(matrix.rowCount(), matrix.columnCount(), matrix.getBlockLength());
+		Matrices.copy(matrix.array, array);
+	}
+
+	private CopyOnWriteBitBlockByteMatrix(final CopyOnWriteBitBlockByteMatrix shared) {
+		super(shared.array.clone(), shared.rowCount(), shared.columnCount(), shared.getBlockLength());
+		ownsRow = new boolean[rowCount()];
+	}
+
+	/**
+	 * Returns a matrix sharing all rows with this matrix. Both of this matrix
+	 * and the returned one copy a row before writing to it.
+	 */
+	@Override
+	public synchronized ByteMatrix clone() {
+		Arrays.fill(ownsRow, false);
+		return new CopyOnWriteBitBlockByteMatrix(this);
+	}
+
+	@Override
+	protected long[] getRowForWrite(final int i) {
+		if (!ownsRow[i]) {
+			array[i] = array[i].clone();
+			ownsRow[i] = true;
+		}
+		return array[i];
+	}
+
+	@Override
+	public void copyRowFrom(final int i, final BitBlockByteMatrix matrix) {
+		if (!hasSameShape(matrix)) {
+			throw new IllegalArgumentException("shape of the given matrix is different.");
+		}
+		// no need to copy the shared row before overwriting.
+		array[i] = matrix.array[i].clone();
+		ownsRow[i] = true;
+	}
+
+	/**
+	 *
+	 * @return the number of rows which are not shared with other instances.
+	 */
+	public int countOwnedRows() {
+		int count = 0;
+		for (var owns : ownsRow) {
+			if (owns) {
+				count++;
+			}
+		}
+		return count;
+	}
+}
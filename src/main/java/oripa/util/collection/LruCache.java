@@ -0,0 +1,78 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.util.collection;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A thread-safe map of bounded size which drops the least recently used entry
+ * when the size exceeds the capacity.
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            value type
+ */
+public class LruCache<K, V> {
+	private final Map<K, V> entries;
+
+	/**
+	 *
+	 * @param capacity
+	 *            the maximum number of entries.
+	 */
+	public LruCache(final int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException("capacity should be positive.");
+		}
+
+		entries = new LinkedHashMap<>(capacity + 1, 1.0f, true) {
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 *
+	 * @return the cached value, which becomes the most recently used one.
+	 */
+	public synchronized Optional<V> get(final K key) {
+		return Optional.ofNullable(entries.get(key));
+	}
+
+	public synchronized boolean containsKey(final K key) {
+		return entries.containsKey(key);
+	}
+
+	public synchronized void put(final K key, final V value) {
+		entries.put(key, value);
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+}
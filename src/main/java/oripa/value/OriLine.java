@@ -79,6 +79,11 @@ public class OriLine extends Segment implements Comparable<OriLine> {
 	private final OriPoint p0;
 	private final OriPoint p1;
 
+	/**
+	 * cache of hash code. 0 means not computed yet.
+	 */
+	private int hash;
+
 	public OriLine(final OriLine l) {
 		super(l.p0, l.p1);
 		p0 = l.p0;
@@ -222,6 +227,14 @@ public class OriLine extends Segment implements Comparable<OriLine> {
 
 	@Override
 	public int hashCode() {
+		// the end points and the type are immutable.
+		if (hash == 0) {
+			hash = computeHashCode();
+		}
+		return hash;
+	}
+
+	private int computeHashCode() {
 		// assure that the order of points is the same
 		if (p0.compareTo(p1) < 0) {
 			return Objects.hash(p0, p1, this.type);
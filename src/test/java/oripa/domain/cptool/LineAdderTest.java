@@ -176,6 +176,38 @@ class LineAdderTest {
 		assertTypeCount(3, creasePattern, OriLine.Type.AUX);
 	}
 
+	@Test
+	void testAddAllAtOnce() {
+		var creasePattern = new ArrayList<>(List.of(
+				new OriLine(0, 0, 100, 0, OriLine.Type.MOUNTAIN),
+				new OriLine(0, 50, 100, 50, OriLine.Type.AUX)));
+
+		var line1 = new OriLine(20, 50, 20, -10, OriLine.Type.VALLEY);
+		var line2 = new OriLine(40, 50, 40, 0, OriLine.Type.VALLEY);
+
+		adder.addAllAtOnce(List.of(line1, line2), creasePattern, POINT_EPS);
+
+		assertEquals(9, creasePattern.size());
+		assertTypeCount(3, creasePattern, OriLine.Type.VALLEY);
+		assertTypeCount(3, creasePattern, OriLine.Type.MOUNTAIN);
+		assertTypeCount(3, creasePattern, OriLine.Type.AUX);
+	}
+
+	@Test
+	void testAddAllAtOnce_laterLineOverwritesOverlap() {
+		var creasePattern = new ArrayList<>(List.of(new OriLine(0, 0, 100, 0, OriLine.Type.MOUNTAIN)));
+
+		var line1 = new OriLine(0, 0, 50, 0, OriLine.Type.VALLEY);
+		var line2 = new OriLine(25, 0, 50, 0, OriLine.Type.AUX);
+
+		adder.addAllAtOnce(List.of(line1, line2), creasePattern, POINT_EPS);
+
+		assertEquals(3, creasePattern.size());
+		assertTrue(creasePattern.contains(new OriLine(0, 0, 25, 0, OriLine.Type.VALLEY)));
+		assertTrue(creasePattern.contains(new OriLine(25, 0, 50, 0, OriLine.Type.AUX)));
+		assertTrue(creasePattern.contains(new OriLine(50, 0, 100, 0, OriLine.Type.MOUNTAIN)));
+	}
+
 	void assertTypeCount(final long expectedCount, final Collection<OriLine> creasePattern,
 			final OriLine.Type type) {
 		assertEquals(expectedCount,
@@ -41,4 +41,26 @@ public class CreasePatternTest {
 		assertTrue(cp.isEmpty());
 	}
 
+	@Test
+	public void testGetModificationStamp_changesOnlyByModification() {
+		var line = new OriLine(0.0, 0.0, 100.0, 100.0, OriLine.Type.MOUNTAIN);
+		var domain = new RectangleDomain(0.0, 0.0, 100.0, 100.0);
+		CreasePatternImpl cp = new CreasePatternImpl(domain);
+		CreasePatternImpl other = new CreasePatternImpl(domain);
+
+		assertNotEquals(cp.getModificationStamp(), other.getModificationStamp());
+
+		var initial = cp.getModificationStamp();
+		cp.add(line);
+		var added = cp.getModificationStamp();
+		assertNotEquals(initial, added);
+
+		cp.add(line);
+		assertEquals(added, cp.getModificationStamp());
+		cp.contains(line);
+		assertEquals(added, cp.getModificationStamp());
+
+		cp.remove(line);
+		assertNotEquals(added, cp.getModificationStamp());
+	}
 }
@@ -20,10 +20,14 @@ package oripa.domain.creasepattern;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+
 import org.junit.jupiter.api.Test;
 
+import oripa.geom.Ray;
 import oripa.geom.RectangleDomain;
 import oripa.value.OriLine;
+import oripa.vecmath.Vector2d;
 
 /**
  * @author OUCHI Koji
@@ -136,4 +140,74 @@ class OriLineClipTest {
 		assertTrue(clipped.isEmpty());
 	}
 
+	@Test
+	void testFindNearest() {
+		var clip = new OriLineClip(new RectangleDomain(0, 0, 16, 16));
+
+		var near = new OriLine(2.0, 2.0, 2.0, 6.0, OriLine.Type.MOUNTAIN);
+		var far = new OriLine(3.0, 2.0, 3.0, 6.0, OriLine.Type.VALLEY);
+		var outside = new OriLine(10.0, 10.0, 12.0, 12.0, OriLine.Type.VALLEY);
+		clip.add(near);
+		clip.add(far);
+		clip.add(outside);
+
+		assertEquals(near, clip.findNearest(new Vector2d(2.2, 4.0), 1.0).get());
+		assertEquals(far, clip.findNearest(new Vector2d(2.8, 4.0), 1.0).get());
+		assertTrue(clip.findNearest(new Vector2d(6.0, 4.0), 1.0).isEmpty());
+	}
+
+	@Test
+	void testCreateFiner() {
+		var domain = new RectangleDomain(0, 0, 16, 16);
+		var clip = new OriLineClip(domain);
+
+		var lines = new ArrayList<OriLine>();
+		for (int i = 0; i < 2000; i++) {
+			var x = 16.0 * i / 2000;
+			lines.add(new OriLine(x, 0, x, 16, OriLine.Type.MOUNTAIN));
+		}
+		lines.forEach(clip::add);
+
+		assertTrue(clip.isTooCoarseFor(lines.size()));
+
+		var finer = clip.createFiner(lines);
+		assertFalse(finer.isTooCoarseFor(lines.size()));
+		assertEquals(clip.clip(domain, 0).size(), finer.clip(domain, 0).size());
+		assertEquals(lines.get(100), finer.findNearest(new Vector2d(lines.get(100).getP0().getX(), 8), 1e-3).get());
+	}
+
+	@Test
+	void testFindFirstHit() {
+		var clip = new OriLineClip(new RectangleDomain(0, 0, 16, 16));
+
+		var near = new OriLine(5, 0, 5, 16, OriLine.Type.MOUNTAIN);
+		var far = new OriLine(12, 0, 12, 16, OriLine.Type.VALLEY);
+		var onEdge = new OriLine(0, 16, 16, 16, OriLine.Type.CUT);
+		clip.add(near);
+		clip.add(far);
+		clip.add(onEdge);
+
+		assertEquals(near, clip.findFirstHit(new Ray(new Vector2d(1, 8), 0), 1e-6).get());
+		assertEquals(far, clip.findFirstHit(new Ray(new Vector2d(5, 8), 0), 1e-6).get());
+		assertEquals(near, clip.findFirstHit(new Ray(new Vector2d(11, 8), Math.PI), 1e-6).get());
+		assertTrue(clip.findFirstHit(new Ray(new Vector2d(13, 8), 0), 1e-6).isEmpty());
+
+		// along the edge of the domain
+		assertEquals(onEdge, clip.findFirstHit(new Ray(new Vector2d(16, 0), Math.PI / 2), 1e-6).get());
+	}
+
+	@Test
+	void testClipAlong_ray() {
+		var clip = new OriLineClip(new RectangleDomain(0, 0, 16, 16));
+
+		var crossing = new OriLine(5, 0, 5, 16, OriLine.Type.MOUNTAIN);
+		var apart = new OriLine(0, 2, 16, 2, OriLine.Type.VALLEY);
+		clip.add(crossing);
+		clip.add(apart);
+
+		var clipped = clip.clipAlong(new Ray(new Vector2d(1, 8), 0), 1e-6);
+
+		assertTrue(clipped.contains(crossing));
+		assertFalse(clipped.contains(apart));
+	}
 }
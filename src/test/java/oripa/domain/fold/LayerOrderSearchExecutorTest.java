@@ -0,0 +1,155 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.cptool.Painter;
+import oripa.domain.creasepattern.CreasePatternFactory;
+import oripa.value.OriLine;
+
+class LayerOrderSearchExecutorTest {
+	private static final double EPS = 1e-6;
+
+	@Test
+	void testSearch_branchesAreCountedWithCap() {
+		var executor = new LayerOrderSearchExecutor(1, 1);
+
+		assertEquals(243, executor.search(search -> countLeaves(search, 5)));
+	}
+
+	@Test
+	void testSearch_branchesAreCountedInParallel() {
+		var executor = new LayerOrderSearchExecutor(4, 16);
+
+		assertEquals(243, executor.search(search -> countLeaves(search, 5)));
+	}
+
+	/**
+	 * Counts the leaves of a full ternary tree of the given depth.
+	 */
+	private int countLeaves(final LayerOrderSearchExecutor.Search search, final int depth) {
+		if (depth == 0) {
+			return 1;
+		}
+		return search.branch(List.of(0, 1, 2), k -> countLeaves(search, depth - 1));
+	}
+
+	@Test
+	void testSearch_cancelStopsBranches() {
+		var executor = new LayerOrderSearchExecutor(2, 2);
+		var visitedCount = new AtomicInteger();
+
+		var count = executor.search(search -> search.branch(
+				IntStream.range(0, 1000).boxed().toList(),
+				k -> {
+					visitedCount.incrementAndGet();
+					// the first answer is enough.
+					search.cancel();
+					return 1;
+				}));
+
+		assertTrue(count >= 1);
+		assertTrue(visitedCount.get() < 1000);
+	}
+
+	@Test
+	void testSearch_interruptCancelsSearch() throws Exception {
+		var executor = new LayerOrderSearchExecutor(2, 2);
+
+		var started = new CountDownLatch(1);
+		var canceled = new AtomicBoolean();
+		var interruptKept = new AtomicBoolean();
+
+		var waiting = new Thread(() -> {
+			executor.search(search -> search.branch(List.of(0, 1), k -> {
+				started.countDown();
+				// runs until canceled.
+				while (!search.isCanceled()) {
+					Thread.onSpinWait();
+				}
+				canceled.set(true);
+				return 0;
+			}));
+			interruptKept.set(Thread.currentThread().isInterrupted());
+		});
+		waiting.start();
+
+		assertTrue(started.await(10, TimeUnit.SECONDS));
+		waiting.interrupt();
+		waiting.join(TimeUnit.SECONDS.toMillis(10));
+
+		assertFalse(waiting.isAlive());
+		assertTrue(canceled.get());
+		assertTrue(interruptKept.get());
+	}
+
+	@Test
+	void testFold_smallExecutorFindsSameAnswers() {
+		var expected = foldAll(new FolderFactory(), Folder.EstimationType.FULL);
+		var actual = foldAll(new FolderFactory(new LayerOrderSearchExecutor(1, 1)), Folder.EstimationType.FULL);
+
+		assertEquals(336, expected.size());
+		assertEquals(expected, actual);
+	}
+
+	@Test
+	void testFold_firstOnlyStopsAtFirstAnswer() {
+		var answers = foldAll(new FolderFactory(new LayerOrderSearchExecutor(2, 4)),
+				Folder.EstimationType.FIRST_ONLY);
+
+		assertEquals(1, answers.size());
+	}
+
+	/**
+	 * Folds a 2x2 grid with diagonals.
+	 *
+	 * @return the overlap relations as sorted texts.
+	 */
+	private List<String> foldAll(final FolderFactory folderFactory, final Folder.EstimationType estimationType) {
+		var creasePattern = new CreasePatternFactory().createCreasePattern(400);
+		var lines = List.of(
+				new OriLine(0, -200, 0, 200, OriLine.Type.UNASSIGNED),
+				new OriLine(-200, 0, 200, 0, OriLine.Type.UNASSIGNED),
+				new OriLine(-200, -200, 200, 200, OriLine.Type.UNASSIGNED),
+				new OriLine(-200, 200, 200, -200, OriLine.Type.UNASSIGNED));
+		new Painter(creasePattern, EPS).addLines(lines);
+
+		var origamiModel = new TestedOrigamiModelFactory().createOrigamiModels(creasePattern, EPS).get(0);
+		var folder = folderFactory.create(origamiModel.getModelType());
+		var result = folder.fold(origamiModel, EPS, estimationType);
+
+		var answers = new ArrayList<String>();
+		result.foldedModel().overlapRelations().forEach(overlapRelation -> answers.add(overlapRelation.toString()));
+		Collections.sort(answers);
+
+		return answers;
+	}
+}
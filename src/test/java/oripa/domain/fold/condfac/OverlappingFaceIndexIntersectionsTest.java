@@ -0,0 +1,45 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.condfac;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class OverlappingFaceIndexIntersectionsTest {
+
+	@Test
+	void testGet() {
+		var masks = new long[70][2];
+		// face 0 overlaps 1, 2 and 69. face 1 overlaps 0, 2 and 69.
+		masks[0][0] = 0b110;
+		masks[0][1] = 1L << (69 - 64);
+		masks[1][0] = 0b101;
+		masks[1][1] = 1L << (69 - 64);
+
+		var intersections = new OverlappingFaceIndexIntersections(masks);
+
+		assertArrayEquals(new int[] { 2, 69 }, intersections.get(0, 1));
+		assertEquals(2, intersections.count(0, 1));
+		assertSame(intersections.get(0, 1), intersections.get(0, 1));
+
+		assertEquals(0, intersections.get(0, 0).length);
+		assertEquals(0, intersections.get(2, 3).length);
+	}
+}
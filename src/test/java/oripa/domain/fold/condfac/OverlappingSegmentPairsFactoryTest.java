@@ -0,0 +1,72 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.condfac;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.geom.Segment;
+import oripa.util.IntPair;
+
+class OverlappingSegmentPairsFactoryTest {
+	private static final double EPS = 1e-6;
+
+	@Test
+	void testCreate_sameLine() {
+		var segments = List.of(
+				new Segment(0, 0, 10, 0),
+				new Segment(5, 0, 20, 0),
+				new Segment(10, 0, 20, 0),
+				new Segment(0, 1, 10, 1),
+				new Segment(0, 0, 10, 10));
+
+		var pairs = new HashSet<>(new OverlappingSegmentPairsFactory().create(segments, EPS));
+
+		assertEquals(new HashSet<>(List.of(new IntPair(0, 1), new IntPair(1, 2))), pairs);
+	}
+
+	@Test
+	void testCreate_acrossAngleZero() {
+		// the angles are almost 0 and almost PI.
+		var segments = List.of(
+				new Segment(0, 0, 10, 1e-8),
+				new Segment(15, 0, 5, 1e-8));
+
+		var pairs = new OverlappingSegmentPairsFactory().create(segments, EPS);
+
+		assertEquals(List.of(new IntPair(0, 1)), pairs);
+	}
+
+	@Test
+	void testCreate_nullIsIgnored() {
+		var segments = Arrays.asList(
+				new Segment(0, 0, 0, 10),
+				null,
+				new Segment(0, 5, 0, 15));
+
+		var pairs = new OverlappingSegmentPairsFactory().create(segments, EPS);
+
+		assertEquals(List.of(new IntPair(0, 2)), pairs);
+	}
+}
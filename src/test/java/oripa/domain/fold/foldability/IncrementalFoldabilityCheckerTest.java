@@ -0,0 +1,122 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.foldability;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.cptool.Painter;
+import oripa.domain.creasepattern.CreasePattern;
+import oripa.domain.creasepattern.CreasePatternFactory;
+import oripa.domain.fold.halfedge.OrigamiModelFactory;
+import oripa.value.OriLine;
+import oripa.vecmath.Vector2d;
+
+class IncrementalFoldabilityCheckerTest {
+	private static final double EPS = 1e-6;
+
+	private CreasePattern creasePattern;
+	private Painter painter;
+	private IncrementalFoldabilityChecker checker;
+
+	@BeforeEach
+	void setUp() {
+		creasePattern = new CreasePatternFactory().createCreasePattern(400);
+		painter = new Painter(creasePattern, EPS);
+		checker = new IncrementalFoldabilityChecker();
+	}
+
+	@Test
+	void testUpdate_danglingCrease() {
+		painter.addLine(new OriLine(-200, 0, 0, 0, OriLine.Type.MOUNTAIN));
+		assertTrue(checker.update(creasePattern, EPS));
+		assertFalse(checker.update(creasePattern, EPS));
+
+		assertEquals(1, checker.getViolatingVertices().size());
+		var vertex = checker.getViolatingVertices().iterator().next();
+		assertTrue(vertex.getPositionBeforeFolding().equals(new Vector2d(0, 0), EPS));
+
+		// the vertex just joins two lines.
+		painter.addLine(new OriLine(0, 0, 200, 0, OriLine.Type.MOUNTAIN));
+		checker.update(creasePattern, EPS);
+
+		assertTrue(checker.getViolatingVertices().isEmpty());
+	}
+
+	@Test
+	void testUpdate_flatFoldableVertex() {
+		painter.addLine(new OriLine(-200, 0, 0, 0, OriLine.Type.MOUNTAIN));
+		painter.addLine(new OriLine(0, 0, 200, 0, OriLine.Type.MOUNTAIN));
+		painter.addLine(new OriLine(0, 0, 0, 200, OriLine.Type.MOUNTAIN));
+		checker.update(creasePattern, EPS);
+
+		assertFalse(checker.getViolatingVertices().isEmpty());
+
+		painter.addLine(new OriLine(0, 0, 0, -200, OriLine.Type.VALLEY));
+		checker.update(creasePattern, EPS);
+
+		assertTrue(checker.getViolatingVertices().isEmpty());
+
+		painter.removeLine(new OriLine(0, 0, 0, -200, OriLine.Type.VALLEY));
+		checker.update(creasePattern, EPS);
+
+		assertFalse(checker.getViolatingVertices().isEmpty());
+	}
+
+	@Test
+	void testUpdate_oddEdgesSameAsFullCheck() {
+		// the edge of angle 0 can be sorted as the first or the last.
+		painter.addLine(new OriLine(0, 1e-9, 100, 0, OriLine.Type.UNASSIGNED));
+		painter.addLine(new OriLine(0, 0, 0, 100, OriLine.Type.UNASSIGNED));
+		painter.addLine(new OriLine(0, 0, -100, 0, OriLine.Type.UNASSIGNED));
+		checker.update(creasePattern, EPS);
+
+		var foldabilityChecker = new FoldabilityChecker();
+		var origamiModel = new OrigamiModelFactory().createOrigamiModel(creasePattern, EPS);
+		var expectedVertex = foldabilityChecker.findViolatingVertices(origamiModel.getVertices()).stream()
+				.filter(v -> v.getPositionBeforeFolding().equals(new Vector2d(0, 0), EPS))
+				.findFirst().get();
+
+		var vertex = checker.getViolatingVertices().stream()
+				.filter(v -> v.getPositionBeforeFolding().equals(new Vector2d(0, 0), EPS))
+				.findFirst().get();
+
+		assertEquals(foldabilityChecker.getVertexViolationNames(expectedVertex),
+				foldabilityChecker.getVertexViolationNames(vertex));
+		assertTrue(foldabilityChecker.getVertexViolationNames(vertex).contains("Kawasaki"));
+	}
+
+	@Test
+	void testUpdate_addedAndRemovedLines() {
+		var line = new OriLine(-200, 0, 0, 0, OriLine.Type.MOUNTAIN);
+		painter.addLine(line);
+		checker.update(creasePattern, EPS);
+
+		assertTrue(checker.getAddedLines().contains(line));
+		assertTrue(checker.getRemovedLines().isEmpty());
+
+		painter.removeLine(line);
+		checker.update(creasePattern, EPS);
+
+		assertTrue(checker.getAddedLines().isEmpty());
+		assertTrue(checker.getRemovedLines().contains(line));
+	}
+}
@@ -22,6 +22,10 @@ import static org.junit.jupiter.api.Assertions.*;
 
 import org.junit.jupiter.api.Test;
 
+import oripa.domain.fold.halfedge.OriEdge;
+import oripa.domain.fold.halfedge.OriVertex;
+import oripa.value.OriLine;
+
 /**
  * @author OUCHI Koji
  *
@@ -48,4 +52,20 @@ class KawasakiTheoremTest {
 		assertFalse(kawasaki.holds(vertex));
 	}
 
+	@Test
+	void testHolds_oddEdges() {
+		var kawasaki = new KawasakiTheorem();
+
+		// the alternating sum is PI if the edge of angle 0 comes last.
+		assertFalse(kawasaki.holds(createVertex(new double[][] { { 1, 0 }, { 0, 1 }, { -1, 0 } })));
+		assertFalse(kawasaki.holds(createVertex(new double[][] { { 1, -1e-12 }, { 0, 1 }, { -1, 0 } })));
+	}
+
+	private OriVertex createVertex(final double[][] oppositePoints) {
+		var vertex = new OriVertex(0, 0);
+		for (var p : oppositePoints) {
+			vertex.addEdge(new OriEdge(vertex, new OriVertex(p[0], p[1]), OriLine.Type.UNASSIGNED.toInt()));
+		}
+		return vertex;
+	}
 }
@@ -0,0 +1,66 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.halfedge;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.creasepattern.CreasePatternFactory;
+import oripa.value.OriLine;
+import oripa.vecmath.Vector2d;
+
+class LocalOriVertexFactoryTest {
+	final static double EPS = 1e-8;
+
+	@Test
+	void testCreate() {
+		var creasePattern = new CreasePatternFactory().createCreasePattern(List.of(
+				new OriLine(0, 0, 100, 0, OriLine.Type.MOUNTAIN),
+				new OriLine(0, 0, 0, 100, OriLine.Type.VALLEY),
+				new OriLine(0, 0, -100, -100, OriLine.Type.AUX),
+				new OriLine(100, 0, 100, 100, OriLine.Type.CUT)));
+
+		var vertex = new LocalOriVertexFactory().create(creasePattern, new Vector2d(0, 0), EPS).get();
+
+		assertEquals(2, vertex.edgeCount());
+		assertEquals(1, vertex.edgeStream().filter(OriEdge::isMountain).count());
+		assertEquals(1, vertex.edgeStream().filter(OriEdge::isValley).count());
+
+		assertTrue(new LocalOriVertexFactory().create(creasePattern, new Vector2d(-100, -100), EPS).isEmpty());
+		assertTrue(new LocalOriVertexFactory().create(creasePattern, new Vector2d(50, 0), EPS).isEmpty());
+	}
+
+	@Test
+	void testCreate_targetOffVertex() {
+		var creasePattern = new CreasePatternFactory().createCreasePattern(List.of(
+				new OriLine(0, 0, 100, 0, OriLine.Type.MOUNTAIN),
+				new OriLine(0, 0, 0, 100, OriLine.Type.VALLEY),
+				new OriLine(100, 0, 100, 100, OriLine.Type.CUT)));
+
+		var vertex = new LocalOriVertexFactory().create(creasePattern, new Vector2d(EPS / 2, -EPS / 2), EPS)
+				.get();
+
+		assertEquals(new Vector2d(0, 0), vertex.getPositionBeforeFolding());
+		assertEquals(0.0, vertex.getEdge(0).getAngle(vertex));
+		assertEquals(Math.PI / 2, vertex.getEdge(1).getAngle(vertex));
+	}
+}
@@ -0,0 +1,82 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.origeom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.fold.halfedge.OriFace;
+import oripa.domain.fold.halfedge.OriHalfedge;
+import oripa.domain.fold.halfedge.OriVertex;
+import oripa.geom.Segment;
+import oripa.vecmath.Vector2d;
+
+class FaceBoundingBoxIndexTest {
+	private static final double EPS = 1e-6;
+
+	@Test
+	void testQuery() {
+		var faces = new ArrayList<OriFace>();
+		// 10 x 10 squares on a diagonal.
+		for (int i = 0; i < 10; i++) {
+			faces.add(createSquare(i * 10, i * 10, 10));
+		}
+		// a large face covering all.
+		faces.add(createSquare(0, 0, 100));
+
+		var index = new FaceBoundingBoxIndex(faces, EPS);
+
+		assertEquals(List.of(faces.get(0), faces.get(10)),
+				index.query(List.of(new Vector2d(5, 5))));
+
+		// touching at the corner.
+		assertEquals(List.of(faces.get(0), faces.get(1), faces.get(2), faces.get(10)),
+				index.query(faces.get(1)));
+
+		assertEquals(List.of(faces.get(4), faces.get(5), faces.get(10)),
+				index.query(new Segment(45, 45, 55, 55)));
+
+		assertEquals(List.of(), index.query(List.of(new Vector2d(200, 200))));
+	}
+
+	@Test
+	void testQuery_faceWithoutVertices() {
+		var faces = List.of(new OriFace(), createSquare(0, 0, 10));
+
+		var index = new FaceBoundingBoxIndex(faces, EPS);
+
+		assertArrayEquals(new int[] { 1 }, index.queryIndices(faces.get(1)));
+	}
+
+	private OriFace createSquare(final double left, final double top, final double size) {
+		var face = new OriFace();
+		for (var v : List.of(
+				new OriVertex(left, top),
+				new OriVertex(left + size, top),
+				new OriVertex(left + size, top + size),
+				new OriVertex(left, top + size))) {
+			face.addHalfedge(new OriHalfedge(v, face));
+		}
+		return face;
+	}
+}
@@ -0,0 +1,128 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.domain.fold.subface;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.fold.halfedge.OriFace;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.stackcond.StackConditionOf3Faces;
+import oripa.domain.fold.stackcond.StackConditionOf4Faces;
+
+class StackConditionAggregateTest {
+
+	@Test
+	void testSatisfiesConditionsOf2Faces_manyFaces() {
+		var faceCount = 70;
+		var faces = createFaces(faceCount);
+		var overlapRelation = new OverlapRelation(faceCount);
+		for (int i = 0; i < faceCount; i++) {
+			for (int j = i + 1; j < faceCount; j++) {
+				overlapRelation.setUndefined(i, j);
+			}
+		}
+		// face 0 should be put after face 69.
+		overlapRelation.setLower(0, 69);
+
+		var aggregate = new StackConditionAggregate(faces);
+		aggregate.prepareConditionsOf2Faces(overlapRelation);
+
+		var placedMask = aggregate.createPlacedMask();
+		assertFalse(aggregate.satisfiesConditionsOf2Faces(placedMask, 0));
+		assertTrue(aggregate.satisfiesConditionsOf2Faces(placedMask, 69));
+
+		StackConditionAggregate.setPlaced(placedMask, 69);
+		assertTrue(aggregate.satisfiesConditionsOf2Faces(placedMask, 0));
+
+		assertEquals(1, aggregate.getAllCountOfConditionsOf2Faces());
+		assertEquals(1, aggregate.getFailureCountOf2Faces());
+	}
+
+	@Test
+	void testSatisfiesConditionsOf3Faces() {
+		var faces = createFaces(3);
+		var aggregate = new StackConditionAggregate(faces);
+		aggregate.prepareConditionsOf3Faces(List.of(new StackConditionOf3Faces(0, 1, 2)));
+
+		var placedMask = aggregate.createPlacedMask();
+		assertTrue(aggregate.satisfiesConditionsOf3Faces(placedMask, 2));
+
+		StackConditionAggregate.setPlaced(placedMask, 0);
+		assertFalse(aggregate.satisfiesConditionsOf3Faces(placedMask, 2));
+
+		StackConditionAggregate.setPlaced(placedMask, 1);
+		assertTrue(aggregate.satisfiesConditionsOf3Faces(placedMask, 2));
+	}
+
+	@Test
+	void testSatisfiesConditionsOf4Faces() {
+		var faces = createFaces(4);
+		var aggregate = new StackConditionAggregate(faces);
+		aggregate.prepareConditionsOf4Faces(List.of(new StackConditionOf4Faces(0, 1, 2, 3)));
+
+		var placedMask = aggregate.createPlacedMask();
+		var indexOnOrdering = new int[] { -1, -1, -1, -1 };
+
+		// lower2 -> lower1
+		StackConditionAggregate.setPlaced(placedMask, 3);
+		indexOnOrdering[3] = 0;
+		StackConditionAggregate.setPlaced(placedMask, 1);
+		indexOnOrdering[1] = 1;
+
+		// upper2 should wait for upper1.
+		assertFalse(aggregate.satisfiesConditionsOf4Faces(placedMask, indexOnOrdering, 2));
+		assertTrue(aggregate.satisfiesConditionsOf4Faces(placedMask, indexOnOrdering, 0));
+
+		assertEquals(1, aggregate.getCountOfConditionsOf4Faces(0));
+		assertEquals(1, aggregate.getCountOfConditionsOf4Faces(2));
+	}
+
+	@Test
+	void testGetLocalIndex() {
+		var faces = createFaces(3);
+		faces.get(0).setFaceID(5);
+		faces.get(1).setFaceID(2);
+		faces.get(2).setFaceID(9);
+
+		var aggregate = new StackConditionAggregate(faces);
+
+		assertEquals(0, aggregate.getLocalIndex(faces.get(0)));
+		assertEquals(1, aggregate.getLocalIndex(faces.get(1)));
+		assertEquals(2, aggregate.getLocalIndex(faces.get(2)));
+
+		var other = new OriFace();
+		other.setFaceID(3);
+		assertEquals(-1, aggregate.getLocalIndex(other));
+	}
+
+	private List<OriFace> createFaces(final int count) {
+		return IntStream.range(0, count)
+				.mapToObj(i -> {
+					var face = new OriFace();
+					face.setFaceID(i);
+					return face;
+				})
+				.toList();
+	}
+}
@@ -0,0 +1,102 @@
+/*
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+ *
+ *  This program is free software: you can redistribute it and/or modify
+ *  it under the terms of the GNU General Public License as published by
+ *  the Free Software Foundation, either version 3 of the License, or
+ *  (at your option) any later version.
+ *
+ *  This program is distributed in the hope that it will be useful,
+ *  but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *  MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *  GNU General Public License for more details.
+ *
+ *  You should have received a copy of the GNU General Public License
+ *  along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package oripa.domain.paint.history;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.value.OriLine;
+
+class CreasePatternHistoryTest {
+
+	OriLine createLine(final double x) {
+		return new OriLine(x, 0, x, 10, OriLine.Type.MOUNTAIN);
+	}
+
+	@Test
+	void testUndoAndRedo() {
+		var history = new CreasePatternHistory();
+		Set<OriLine> lines = new HashSet<>();
+
+		final int count = 3;
+		for (int i = 0; i < count; i++) {
+			history.push(lines);
+			lines.add(createLine(i));
+		}
+
+		for (int i = count - 1; i >= 0; i--) {
+			history.undo(lines);
+			assertEquals(i, lines.size());
+			assertFalse(lines.contains(createLine(i)));
+		}
+		assertFalse(history.canUndo());
+
+		for (int i = 0; i < count; i++) {
+			history.redo(lines);
+			assertEquals(i + 1, lines.size());
+			assertTrue(lines.contains(createLine(i)));
+		}
+		assertFalse(history.canRedo());
+	}
+
+	@Test
+	void testUndo_selection() {
+		var history = new CreasePatternHistory();
+		var line = createLine(0);
+		Set<OriLine> lines = new HashSet<>(Set.of(line));
+
+		history.push(lines);
+		line.setSelected(true);
+
+		history.undo(lines);
+		assertFalse(lines.iterator().next().isSelected());
+
+		history.redo(lines);
+		assertTrue(lines.iterator().next().isSelected());
+	}
+
+	@Test
+	void testPush_discardsOldDiffsOverLimit() {
+		var history = new CreasePatternHistory(2);
+		Set<OriLine> lines = new HashSet<>();
+
+		final int count = 5;
+		for (int i = 0; i < count; i++) {
+			history.push(lines);
+			lines.add(createLine(i));
+		}
+
+		var undoCount = 0;
+		while (history.canUndo()) {
+			history.undo(lines);
+			undoCount++;
+		}
+
+		// each difference holds one line.
+		assertEquals(3, undoCount);
+		assertEquals(2, lines.size());
+		assertTrue(lines.contains(createLine(0)));
+		assertTrue(lines.contains(createLine(1)));
+	}
+}
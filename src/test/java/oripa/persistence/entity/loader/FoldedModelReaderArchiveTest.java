@@ -0,0 +1,137 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.fold.halfedge.OrigamiModelFactory;
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.entity.exporter.FoldedModelStreamWriterArchive;
+import oripa.persistence.filetool.WrongDataFormatException;
+import oripa.persistence.foldedarchive.FoldedStateArchiveFormat;
+import oripa.value.OriLine;
+
+class FoldedModelReaderArchiveTest {
+	private static final double EPS = 1e-6;
+	private static final int STATE_COUNT = 3;
+
+	private Path path;
+
+	@AfterEach
+	void deleteFile() throws Exception {
+		if (path != null) {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	void testReadOverlapRelation() throws Exception {
+		var faceCount = writeArchive();
+
+		try (var reader = new FoldedModelReaderArchive(path.toString())) {
+			assertEquals(STATE_COUNT, reader.getOverlapRelationCount());
+			for (int i = 0; i < STATE_COUNT; i++) {
+				var overlapRelation = reader.readOverlapRelation(i);
+				assertTrue(overlapRelation.isUpper(0, faceCount - 1));
+			}
+		}
+	}
+
+	@Test
+	void testConstructor_truncatedArchive() throws Exception {
+		writeArchive();
+
+		try (var channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+			channel.truncate(channel.size() / 2);
+		}
+
+		assertThrows(WrongDataFormatException.class, () -> new FoldedModelReaderArchive(path.toString()));
+	}
+
+	@Test
+	void testReadOverlapRelation_brokenReferenceIndex() throws Exception {
+		writeArchive();
+
+		// the second state is a delta from the first one.
+		try (var channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			var header = ByteBuffer.allocate(FoldedStateArchiveFormat.HEADER_SIZE);
+			channel.read(header, 0);
+			var indexOffset = header.getLong(FoldedStateArchiveFormat.INDEX_OFFSET_POSITION);
+
+			var recordOffset = ByteBuffer.allocate(Long.BYTES);
+			channel.read(recordOffset, indexOffset + Long.BYTES);
+			var deltaOffset = recordOffset.getLong(0);
+
+			var kind = ByteBuffer.allocate(1);
+			channel.read(kind, deltaOffset);
+			assertEquals(FoldedStateArchiveFormat.DELTA, kind.get(0));
+
+			channel.write(ByteBuffer.allocate(Integer.BYTES).putInt(0, 99), deltaOffset + 1);
+		}
+
+		try (var reader = new FoldedModelReaderArchive(path.toString())) {
+			assertThrows(WrongDataFormatException.class, () -> reader.readOverlapRelation(1));
+		}
+	}
+
+	/**
+	 * Writes the same states of a 4x4 grid so that the states after the first
+	 * one are deltas.
+	 *
+	 * @return the number of faces.
+	 */
+	private int writeArchive() throws Exception {
+		var lines = new ArrayList<OriLine>();
+		for (int i = 0; i <= 4; i++) {
+			var type = i == 0 || i == 4 ? OriLine.Type.CUT : OriLine.Type.MOUNTAIN;
+			for (int j = 0; j < 4; j++) {
+				lines.add(new OriLine(i, j, i, j + 1, type));
+				lines.add(new OriLine(j, i, j + 1, i, type));
+			}
+		}
+		var origamiModel = new OrigamiModelFactory().createOrigamiModel(lines, EPS);
+		var faceCount = origamiModel.getFaces().size();
+
+		var overlapRelation = new OverlapRelation(faceCount);
+		for (int i = 0; i < faceCount; i++) {
+			for (int j = i + 1; j < faceCount; j++) {
+				overlapRelation.setUpper(i, j);
+			}
+		}
+
+		path = Files.createTempFile("test", "." + FoldedStateArchiveFormat.EXTENSION);
+		try (var writer = new FoldedModelStreamWriterArchive(origamiModel, path)) {
+			for (int i = 0; i < STATE_COUNT; i++) {
+				writer.write(overlapRelation);
+			}
+		}
+
+		return faceCount;
+	}
+}
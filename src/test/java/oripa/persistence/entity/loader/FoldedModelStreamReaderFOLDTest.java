@@ -0,0 +1,129 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.entity.loader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.persistence.filetool.WrongDataFormatException;
+
+class FoldedModelStreamReaderFOLDTest {
+	private Path path;
+
+	// two faces sharing the edge 1-4. frame 2 inherits the face orders of
+	// frame 1 and frame 3 has no face orders.
+	private static final String FOLD = """
+			{
+			  "frame_classes": ["foldedForm"],
+			  "vertices_coords": [[0, 0], [1, 0], [2, 0], [2, 1], [1, 1], [0, 1]],
+			  "edges_vertices": [[0, 1], [1, 2], [2, 3], [3, 4], [4, 5], [5, 0], [1, 4]],
+			  "edges_assignment": ["B", "B", "B", "B", "B", "B", "V"],
+			  "faces_vertices": [[0, 1, 4, 5], [1, 2, 3, 4]],
+			  "file_frames": [
+			    { "faceOrders": [[0, 1, -1]] },
+			    { "frame_parent": 1, "frame_inherit": true },
+			    { "frame_title": "no orders" }
+			  ],
+			  "faceOrders": [[0, 1, 1]]
+			}
+			""";
+
+	@AfterEach
+	void deleteFile() throws Exception {
+		if (path != null) {
+			Files.deleteIfExists(path);
+		}
+	}
+
+	@Test
+	void testReadOverlapRelation_randomAccess() throws Exception {
+		var reader = createReader(FOLD);
+
+		assertEquals(2, reader.getOrigamiModel().getFaces().size());
+		assertEquals(3, reader.getOverlapRelationCount());
+
+		var key = reader.readOverlapRelation(0);
+		var inherited = reader.readOverlapRelation(2);
+		var parent = reader.readOverlapRelation(1);
+
+		assertTrue(key.isUpper(0, 1) || key.isLower(0, 1));
+		assertNotEquals(key.get(0, 1), parent.get(0, 1));
+		assertEquals(key.get(0, 1), parent.get(1, 0));
+		assertEquals(parent.get(0, 1), inherited.get(0, 1));
+		assertEquals(parent.get(1, 0), inherited.get(1, 0));
+	}
+
+	@Test
+	void testReadAllOverlapRelations_inheritedRelationIsCopied() throws Exception {
+		var reader = createReader(FOLD);
+
+		var relations = reader.readAllOverlapRelations();
+
+		assertEquals(3, relations.size());
+		assertNotSame(relations.get(1), relations.get(2));
+		for (int i = 0; i < relations.size(); i++) {
+			assertEquals(reader.readOverlapRelation(i).get(0, 1), relations.get(i).get(0, 1));
+		}
+	}
+
+	@Test
+	void testReadOverlapRelations_range() throws Exception {
+		var reader = createReader(FOLD);
+
+		var indices = new ArrayList<Integer>();
+		var relations = new ArrayList<OverlapRelation>();
+		reader.readOverlapRelations(1, 3, (index, relation) -> {
+			indices.add(index);
+			relations.add(relation);
+		});
+
+		assertEquals(List.of(1, 2), indices);
+		assertNotSame(relations.get(0), relations.get(1));
+		for (int i = 0; i < relations.size(); i++) {
+			assertEquals(reader.readOverlapRelation(i + 1).get(0, 1), relations.get(i).get(0, 1));
+		}
+
+		assertThrows(IndexOutOfBoundsException.class,
+				() -> reader.readOverlapRelations(2, 4, (index, relation) -> {
+				}));
+	}
+
+	@Test
+	void testConstructor_brokenJson() throws Exception {
+		path = Files.createTempFile("broken", ".fold");
+		Files.writeString(path, FOLD.substring(0, FOLD.length() / 2));
+
+		assertThrows(WrongDataFormatException.class,
+				() -> new FoldedModelStreamReaderFOLD(path.toString()));
+	}
+
+	private FoldedModelStreamReaderFOLD createReader(final String json) throws Exception {
+		path = Files.createTempFile("test", ".fold");
+		Files.writeString(path, json);
+		return new FoldedModelStreamReaderFOLD(path.toString());
+	}
+}
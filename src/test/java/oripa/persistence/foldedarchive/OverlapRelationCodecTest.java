@@ -0,0 +1,114 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.foldedarchive;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.domain.fold.origeom.OverlapRelation;
+import oripa.domain.fold.origeom.OverlapRelationValues;
+
+class OverlapRelationCodecTest {
+	private static final int FACE_COUNT = 13;
+
+	private final OverlapRelationCodec codec = new OverlapRelationCodec(FACE_COUNT);
+
+	private final byte[] values = {
+			OverlapRelationValues.NO_OVERLAP,
+			OverlapRelationValues.UPPER,
+			OverlapRelationValues.LOWER,
+			OverlapRelationValues.UNDEFINED };
+
+	private OverlapRelation createRandomRelation(final Random random) {
+		var overlapRelation = new OverlapRelation(FACE_COUNT);
+		for (int i = 0; i < FACE_COUNT; i++) {
+			for (int j = i + 1; j < FACE_COUNT; j++) {
+				overlapRelation.set(i, j, values[random.nextInt(values.length)]);
+			}
+		}
+		return overlapRelation;
+	}
+
+	private void assertSameRelation(final OverlapRelation expected, final OverlapRelation actual) {
+		for (int i = 0; i < FACE_COUNT; i++) {
+			for (int j = 0; j < FACE_COUNT; j++) {
+				assertEquals(expected.get(i, j), actual.get(i, j), "(" + i + ", " + j + ")");
+			}
+		}
+	}
+
+	@Test
+	void testPack_restoresRelation() {
+		var overlapRelation = createRandomRelation(new Random(1));
+
+		var buffer = ByteBuffer.allocate(codec.getPackedLength());
+		codec.pack(codec.toCodes(overlapRelation), buffer);
+		assertFalse(buffer.hasRemaining());
+
+		buffer.flip();
+		var restored = codec.toOverlapRelation(codec.unpack(buffer));
+
+		assertSameRelation(overlapRelation, restored);
+	}
+
+	@Test
+	void testEncodeDelta_restoresRelation() {
+		var random = new Random(2);
+		var reference = createRandomRelation(random);
+
+		var overlapRelation = reference.clone();
+		overlapRelation.setUpper(0, 1);
+		overlapRelation.setLower(3, 7);
+		overlapRelation.setNoOverlap(FACE_COUNT - 2, FACE_COUNT - 1);
+
+		var referenceCodes = codec.toCodes(reference);
+		var codes = codec.toCodes(overlapRelation);
+		var changeCount = codec.countChanges(referenceCodes, codes);
+		assertTrue(changeCount <= 3);
+
+		var buffer = ByteBuffer.allocate(codec.getMaxDeltaLength(changeCount));
+		codec.encodeDelta(referenceCodes, codes, buffer);
+
+		buffer.flip();
+		var restoredCodes = referenceCodes.clone();
+		codec.applyDelta(restoredCodes, changeCount, buffer);
+
+		assertSameRelation(overlapRelation, codec.toOverlapRelation(restoredCodes));
+	}
+
+	@Test
+	void testApplyDelta_outOfRange() {
+		var buffer = ByteBuffer.allocate(8);
+		// gap of pairCount
+		var value = (long) codec.getPairCount() << 2;
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+		buffer.flip();
+
+		assertThrows(IllegalArgumentException.class,
+				() -> codec.applyDelta(new byte[codec.getPairCount()], 1, buffer));
+	}
+}
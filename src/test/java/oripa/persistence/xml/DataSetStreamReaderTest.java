@@ -0,0 +1,168 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.persistence.filetool.WrongDataFormatException;
+
+class DataSetStreamReaderTest {
+	DataSetStreamReader reader = new DataSetStreamReader();
+
+	@Test
+	void testRead_propertyFormat() throws Exception {
+		try (var stream = getClass().getClassLoader().getResourceAsStream("crane_base_mitani.opx")) {
+			var dataset = reader.read(stream);
+
+			assertEquals(1, dataset.getMainVersion());
+			assertEquals(20, dataset.lines.length);
+
+			var line = dataset.lines[0];
+			assertEquals(1, line.getType());
+			assertEquals(200.0, line.getX0());
+			assertEquals(200.0, line.getY0());
+			assertEquals(200.0, line.getX1());
+			assertEquals(-200.0, line.getY1());
+		}
+	}
+
+	@Test
+	void testRead_fieldFormat() throws Exception {
+		var xml = """
+				<?xml version="1.0" encoding="UTF-8"?>
+				<java version="21" class="java.beans.XMLDecoder">
+				 <object class="oripa.DataSet" id="DataSet0">
+				  <void class="oripa.DataSet" method="getField">
+				   <string>lines</string>
+				   <void method="set">
+				    <object idref="DataSet0"/>
+				    <array class="oripa.OriLineProxy" length="2">
+				     <void index="0">
+				      <object class="oripa.OriLineProxy">
+				       <void property="type">
+				        <int>2</int>
+				       </void>
+				       <void property="x1">
+				        <double>1.5</double>
+				       </void>
+				      </object>
+				     </void>
+				     <void index="1">
+				      <object class="oripa.OriLineProxy"/>
+				     </void>
+				    </array>
+				   </void>
+				  </void>
+				  <void class="oripa.DataSet" method="getField">
+				   <string>title</string>
+				   <void method="set">
+				    <object idref="DataSet0"/>
+				    <string>a&lt;<char code="#1"/>b</string>
+				   </void>
+				  </void>
+				  <void property="mainVersion">
+				   <int>2</int>
+				  </void>
+				  <void property="subVersion">
+				   <int>1</int>
+				  </void>
+				 </object>
+				</java>
+				""";
+
+		var dataset = reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(2, dataset.getMainVersion());
+		assertEquals(1, dataset.getSubVersion());
+		assertEquals("a<\u0001b", dataset.title);
+		assertNull(dataset.memo);
+
+		assertEquals(2, dataset.lines.length);
+		assertEquals(2, dataset.lines[0].getType());
+		assertEquals(0.0, dataset.lines[0].getX0());
+		assertEquals(1.5, dataset.lines[0].getX1());
+		assertEquals(0, dataset.lines[1].getType());
+	}
+
+	@Test
+	void testRead_sparseIndices() throws Exception {
+		var xml = createLinesXML(3, 0, 2);
+
+		var dataset = reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+		assertEquals(3, dataset.lines.length);
+		assertEquals(0.0, dataset.lines[0].getX0());
+		assertNull(dataset.lines[1]);
+		assertEquals(2.0, dataset.lines[2].getX0());
+	}
+
+	@Test
+	void testRead_indexOutOfLength() {
+		var xml = createLinesXML(2, 0, 2);
+
+		assertThrows(WrongDataFormatException.class,
+				() -> reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	@Test
+	void testRead_negativeIndex() {
+		var xml = createLinesXML(2, -1);
+
+		assertThrows(WrongDataFormatException.class,
+				() -> reader.read(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8))));
+	}
+
+	/**
+	 * Creates a content whose lines are placed at the given indices. Each line
+	 * has its index as x0.
+	 */
+	private String createLinesXML(final int length, final int... indices) {
+		var builder = new StringBuilder();
+		builder.append("""
+				<?xml version="1.0" encoding="UTF-8"?>
+				<java version="1.5.0" class="java.beans.XMLDecoder">
+				 <object class="oripa.DataSet">
+				  <void property="lines">
+				""");
+		builder.append("   <array class=\"oripa.OriLineProxy\" length=\"" + length + "\">\n");
+		for (int index : indices) {
+			builder.append("""
+					    <void index="%d">
+					     <object class="oripa.OriLineProxy">
+					      <void property="x0">
+					       <double>%d.0</double>
+					      </void>
+					     </object>
+					    </void>
+					""".formatted(index, index));
+		}
+		builder.append("""
+				   </array>
+				  </void>
+				 </object>
+				</java>
+				""");
+		return builder.toString();
+	}
+}
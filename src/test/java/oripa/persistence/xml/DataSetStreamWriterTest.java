@@ -0,0 +1,115 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.persistence.xml;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.beans.XMLEncoder;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import oripa.DataSet;
+import oripa.OriLineProxy;
+import oripa.value.OriLine;
+
+class DataSetStreamWriterTest {
+	DataSetStreamWriter writer = new DataSetStreamWriter();
+
+	@Test
+	void testWrite_sameAsXMLEncoder_file() throws Exception {
+		DataSet dataset;
+		try (var stream = getClass().getClassLoader().getResourceAsStream("crane_base_mitani.opx")) {
+			dataset = new DataSetStreamReader().read(stream);
+		}
+		dataset.setPaperSize(400);
+
+		assertEquals(encode(dataset), write(dataset));
+	}
+
+	@Test
+	void testWrite_sameAsXMLEncoder_defaultValuesAndEscapes() throws Exception {
+		var dataset = new DataSet();
+		dataset.setMainVersion(2);
+		dataset.lines = new OriLineProxy[3];
+		dataset.lines[1] = new OriLineProxy();
+		dataset.lines[2] = new OriLineProxy();
+		dataset.lines[2].setType(3);
+		dataset.lines[2].setX0(-0.0);
+		dataset.lines[2].setY1(1e-300);
+
+		dataset.title = "a&b<c>d\"e'f\rg\nh\u0001i\uD83D\uDE00j\uD800k";
+		dataset.memo = "";
+
+		var written = write(dataset);
+		assertEquals(encode(dataset), written);
+
+		var read = new DataSetStreamReader().read(
+				new ByteArrayInputStream(written.getBytes(StandardCharsets.UTF_8)));
+		assertEquals(dataset.title, read.title);
+		assertEquals(3, read.lines.length);
+		assertNull(read.lines[0]);
+	}
+
+	@Test
+	void testWrite_sameAsXMLEncoder_creasePatternLines() throws Exception {
+		var lines = List.of(
+				new OriLine(-200, -200, 200, -200, OriLine.Type.CUT),
+				new OriLine(0, 0, 0.5, -0.0, OriLine.Type.MOUNTAIN),
+				new OriLine(1, 2, 3, 4, OriLine.Type.AUX));
+
+		var dataset = new DataSet();
+		dataset.setMainVersion(1);
+		dataset.setPaperSize(400);
+		dataset.title = "title";
+
+		var stream = new ByteArrayOutputStream();
+		writer.write(dataset, lines, stream);
+
+		dataset.lines = lines.stream()
+				.map(OriLineProxy::new)
+				.toArray(OriLineProxy[]::new);
+
+		assertEquals(encode(dataset), stream.toString(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void testWrite_sameAsXMLEncoder_empty() throws Exception {
+		var dataset = new DataSet();
+
+		assertEquals(encode(dataset), write(dataset));
+	}
+
+	private String write(final DataSet dataset) throws Exception {
+		var stream = new ByteArrayOutputStream();
+		writer.write(dataset, stream);
+		return stream.toString(StandardCharsets.UTF_8);
+	}
+
+	private String encode(final DataSet dataset) throws Exception {
+		var stream = new ByteArrayOutputStream();
+		try (var encoder = new XMLEncoder(stream)) {
+			encoder.writeObject(dataset);
+		}
+		return stream.toString(StandardCharsets.UTF_8);
+	}
+}
@@ -20,6 +20,9 @@ package oripa.util;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
@@ -53,4 +56,75 @@ class BitBlockByteMatrixTest {
 		logger.debug(matrix.toBinaryString());
 		assertEquals(value, matrix.get(i, j));
 	}
+
+	@Test
+	void testRowOperations_2bits() {
+		matrix.set(3, 0, (byte) 0x02);
+		matrix.set(3, 31, (byte) 0x02);
+		matrix.set(3, 32, (byte) 0x01);
+		matrix.set(3, 99, (byte) 0x02);
+
+		assertEquals(3, matrix.countInRow(3, (byte) 0x02));
+		assertEquals(1, matrix.countInRow(3, (byte) 0x01));
+		// the cells beyond the last column must not be counted.
+		assertEquals(96, matrix.countInRow(3, (byte) 0x00));
+
+		var columns = new ArrayList<Integer>();
+		matrix.forEachColumnInRow(3, (byte) 0x02, columns::add);
+		assertEquals(List.of(0, 31, 99), columns);
+
+		var mask = matrix.createRowMask(3, (byte) 0x02);
+		assertEquals(2, mask.length);
+		assertEquals((1L << 0) | (1L << 31), mask[0]);
+		assertEquals(1L << (99 - 64), mask[1]);
+
+		var query = new long[2];
+		query[0] = 1L << 32;
+		assertTrue(matrix.anyInRow(3, (byte) 0x01, query));
+		assertFalse(matrix.anyInRow(3, (byte) 0x02, query));
+	}
+
+	@Test
+	void testRowOperations_otherBlockLengths() {
+		for (var blockLength : new int[] { 1, 4, 8 }) {
+			var m = new BitBlockByteMatrix(2, 150, blockLength);
+			var value = (byte) 1;
+			for (int j = 0; j < 150; j += 7) {
+				m.set(1, j, value);
+			}
+
+			var expected = new ArrayList<Integer>();
+			for (int j = 0; j < 150; j += 7) {
+				expected.add(j);
+			}
+
+			var columns = new ArrayList<Integer>();
+			m.forEachColumnInRow(1, value, columns::add);
+			assertEquals(expected, columns);
+			assertEquals(expected.size(), m.countInRow(1, value));
+			assertEquals(150 - expected.size(), m.countInRow(1, (byte) 0));
+
+			var fromMask = new ArrayList<Integer>();
+			var mask = m.createRowMask(1, value);
+			for (int j = 0; j < 150; j++) {
+				if ((mask[j >>> 6] & (1L << j)) != 0) {
+					fromMask.add(j);
+				}
+			}
+			assertEquals(expected, fromMask);
+		}
+	}
+
+	@Test
+	void testCopyRowFrom_copyOnWrite() {
+		matrix.set(5, 10, (byte) 0x03);
+
+		var copyOnWrite = new CopyOnWriteBitBlockByteMatrix(200, 100, 2);
+		var shared = copyOnWrite.clone();
+
+		copyOnWrite.copyRowFrom(5, matrix);
+
+		assertEquals((byte) 0x03, copyOnWrite.get(5, 10));
+		assertEquals((byte) 0x00, shared.get(5, 10));
+	}
 }
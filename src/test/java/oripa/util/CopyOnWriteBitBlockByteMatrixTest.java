@@ -0,0 +1,76 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class CopyOnWriteBitBlockByteMatrixTest {
+
+	CopyOnWriteBitBlockByteMatrix matrix;
+
+	@BeforeEach
+	void setUp() {
+		matrix = new CopyOnWriteBitBlockByteMatrix(100, 100, 2);
+		matrix.set(0, 0, (byte) 0x01);
+		matrix.set(50, 63, (byte) 0x02);
+	}
+
+	@Test
+	void testClone_sharesAllRows() {
+		var cloned = (CopyOnWriteBitBlockByteMatrix) matrix.clone();
+
+		assertEquals(0, matrix.countOwnedRows());
+		assertEquals(0, cloned.countOwnedRows());
+
+		assertEquals((byte) 0x01, cloned.get(0, 0));
+		assertEquals((byte) 0x02, cloned.get(50, 63));
+	}
+
+	@Test
+	void testSet_afterClone_doesNotAffectOther() {
+		var cloned = (CopyOnWriteBitBlockByteMatrix) matrix.clone();
+
+		cloned.set(0, 0, (byte) 0x03);
+		matrix.set(50, 63, (byte) 0x01);
+
+		assertEquals((byte) 0x01, matrix.get(0, 0));
+		assertEquals((byte) 0x03, cloned.get(0, 0));
+
+		assertEquals((byte) 0x01, matrix.get(50, 63));
+		assertEquals((byte) 0x02, cloned.get(50, 63));
+
+		assertEquals(1, matrix.countOwnedRows());
+		assertEquals(1, cloned.countOwnedRows());
+	}
+
+	@Test
+	void testCopyConstructor() {
+		var bitBlock = new BitBlockByteMatrix(10, 10, 2);
+		bitBlock.set(3, 4, (byte) 0x02);
+
+		var copied = new CopyOnWriteBitBlockByteMatrix(bitBlock);
+		copied.set(3, 4, (byte) 0x01);
+
+		assertEquals((byte) 0x02, bitBlock.get(3, 4));
+		assertEquals((byte) 0x01, copied.get(3, 4));
+	}
+}
@@ -0,0 +1,45 @@
+/**
+ * ORIPA - Origami Pattern Editor
+ * Copyright (C) 2013-     ORIPA OSS Project  https://github.com/oripa/oripa
+ * Copyright (C) 2005-2009 Jun Mitani         http://mitani.cs.tsukuba.ac.jp/
+
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU General Public License for more details.
+
+    You should have received a copy of the GNU General Public License
+    along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package oripa.util.collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.Test;
+
+class LruCacheTest {
+
+	@Test
+	void testPut_dropsLeastRecentlyUsed() {
+		var cache = new LruCache<Integer, String>(2);
+
+		cache.put(0, "a");
+		cache.put(1, "b");
+
+		// 0 becomes the most recently used.
+		assertEquals("a", cache.get(0).get());
+
+		cache.put(2, "c");
+
+		assertEquals(2, cache.size());
+		assertTrue(cache.containsKey(0));
+		assertFalse(cache.containsKey(1));
+		assertTrue(cache.get(1).isEmpty());
+		assertEquals("c", cache.get(2).get());
+	}
+}